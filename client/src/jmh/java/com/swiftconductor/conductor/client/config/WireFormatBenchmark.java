@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * Compares the cost of encoding a task result and decoding a batch of polled
+ * tasks in JSON and in CBOR. The size of both payloads in each format is
+ * printed when the trial starts.
+ *
+ * <p>
+ * Run with <code>./gradlew :conductor-client:jmh</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<List<Task>>() {
+    };
+
+    @Param({ "json", "cbor" })
+    public String format;
+
+    private ObjectWriter taskResultWriter;
+    private ObjectReader taskListReader;
+    private TaskResult taskResult;
+    private byte[] polledTasks;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            data.put("key" + i, "value of the parameter " + i);
+            data.put("number" + i, i * 1000L);
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task();
+            task.setTaskId("task-" + i);
+            task.setTaskType("benchmark");
+            task.setWorkflowInstanceId("workflow-" + i);
+            task.setStatus(Task.Status.IN_PROGRESS);
+            task.setInputData(data);
+            tasks.add(task);
+        }
+        taskResult = new TaskResult(tasks.get(0));
+        taskResult.setStatus(TaskResult.Status.COMPLETED);
+        taskResult.setOutputData(data);
+
+        ObjectMapper objectMapper = "cbor".equals(format)
+                ? ObjectMapperRegistry.getCborMapper()
+                : ObjectMapperRegistry.getObjectMapper();
+        taskResultWriter = objectMapper.writerFor(TaskResult.class);
+        taskListReader = objectMapper.readerFor(TASK_LIST);
+        polledTasks = objectMapper.writeValueAsBytes(tasks);
+        System.out.printf("%n%s: task result %d bytes, batch of %d polled tasks %d bytes%n", format,
+                taskResultWriter.writeValueAsBytes(taskResult).length, tasks.size(), polledTasks.length);
+    }
+
+    @Benchmark
+    public byte[] writeTaskResult() throws IOException {
+        return taskResultWriter.writeValueAsBytes(taskResult);
+    }
+
+    @Benchmark
+    public List<Task> readTasks() throws IOException {
+        return taskListReader.readValue(polledTasks);
+    }
+}
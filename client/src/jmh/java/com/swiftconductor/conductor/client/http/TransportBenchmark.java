@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.swiftconductor.conductor.client.config.DefaultClientConfiguration;
+import com.swiftconductor.conductor.client.config.ObjectMapperRegistry;
+import com.swiftconductor.conductor.common.config.ObjectMapperProvider;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * Compares the throughput of the task poll and update requests sent with the
+ * Jersey client and with {@link JdkHttpTransport}, in JSON and in CBOR,
+ * against a local stub server.
+ *
+ * <p>
+ * Run with <code>./gradlew :conductor-client:jmh</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private static final int BATCH_SIZE = 10;
+
+    @Param({ "jersey", "jdk" })
+    public String transport;
+
+    @Param({ "json", "cbor" })
+    public String format;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private TaskClient taskClient;
+    private TaskResult taskResult;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+        List<Task> tasks = new ArrayList<>();
+        Map<String, Object> inputData = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            inputData.put("key" + i, "value of the input parameter " + i);
+        }
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Task task = new Task();
+            task.setTaskId("task-" + i);
+            task.setTaskType("benchmark");
+            task.setWorkflowInstanceId("workflow-" + i);
+            task.setStatus(Task.Status.IN_PROGRESS);
+            task.setInputData(inputData);
+            tasks.add(task);
+        }
+        byte[] pollResponse = objectMapper.writeValueAsBytes(tasks);
+        byte[] cborPollResponse = ObjectMapperRegistry.getCborMapper().writeValueAsBytes(tasks);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/task/poll/batch/benchmark", exchange -> {
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            if (accept != null && accept.startsWith("application/cbor")) {
+                respond(exchange, "application/cbor", cborPollResponse);
+            } else {
+                respond(exchange, "application/json", pollResponse);
+            }
+        });
+        byte[] updateResponse = "task-0".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/api/task", exchange -> respond(exchange, "text/plain", updateResponse));
+        server.start();
+
+        boolean cbor = "cbor".equals(format);
+        taskClient = new TaskClient(new DefaultClientConfig(), new DefaultClientConfiguration() {
+            @Override
+            public boolean isCborEnabled() {
+                return cbor;
+            }
+        }, null);
+        taskClient.setRootURI("http://localhost:" + server.getAddress().getPort() + "/api/");
+        if ("jdk".equals(transport)) {
+            taskClient.setTransport(new JdkHttpTransport());
+        }
+
+        taskResult = new TaskResult(tasks.get(0));
+        taskResult.setStatus(TaskResult.Status.COMPLETED);
+        taskResult.setOutputData(inputData);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Task> batchPoll() {
+        return taskClient.batchPollTasksInDomain("benchmark", null, "worker", BATCH_SIZE, 100);
+    }
+
+    @Benchmark
+    public void updateTask() {
+        taskClient.updateTask(taskResult);
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.Validate;
+
+import com.swiftconductor.conductor.client.worker.PollingPolicy;
+
+/**
+ * A {@link PollingPolicy} which backs off exponentially while a queue is empty
+ * and polls again without delay while the queue is busy.
+ *
+ * <ul>
+ * <li>A full batch resets the interval to zero, the next poll happens right
+ * away.
+ * <li>A partial batch resets the interval to the base interval.
+ * <li>Each consecutive empty poll doubles the interval (by default), up to the
+ * max interval. A random jitter is applied so that workers started together
+ * do not poll in lockstep.
+ * </ul>
+ */
+public class AdaptivePollingPolicy implements PollingPolicy {
+
+    private final long baseInterval;
+    private final long maxInterval;
+    private final double multiplier;
+    private final double jitter;
+
+    private int consecutiveEmptyPolls = 0;
+    private volatile long currentInterval;
+
+    /**
+     * @param baseInterval
+     *            interval in milliseconds after a partial batch and the first
+     *            empty poll
+     * @param maxInterval
+     *            upper bound in milliseconds for the interval
+     */
+    public AdaptivePollingPolicy(long baseInterval, long maxInterval) {
+        this(baseInterval, maxInterval, 2.0, 0.2);
+    }
+
+    /**
+     * @param baseInterval
+     *            interval in milliseconds after a partial batch and the first
+     *            empty poll
+     * @param maxInterval
+     *            upper bound in milliseconds for the interval
+     * @param multiplier
+     *            factor applied to the interval on every consecutive empty poll
+     * @param jitter
+     *            fraction of the interval, between 0 and 1, by which the interval
+     *            is randomly shortened or lengthened
+     */
+    public AdaptivePollingPolicy(long baseInterval, long maxInterval, double multiplier, double jitter) {
+        Validate.isTrue(baseInterval > 0, "Base interval must be greater than 0");
+        Validate.isTrue(maxInterval >= baseInterval, "Max interval cannot be less than the base interval");
+        Validate.isTrue(multiplier >= 1, "Multiplier cannot be less than 1");
+        Validate.isTrue(jitter >= 0 && jitter < 1, "Jitter must be between 0 and 1");
+        this.baseInterval = baseInterval;
+        this.maxInterval = maxInterval;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.currentInterval = baseInterval;
+    }
+
+    @Override
+    public synchronized void onPoll(int requestedTasks, int receivedTasks) {
+        if (receivedTasks > 0 && receivedTasks >= requestedTasks) {
+            consecutiveEmptyPolls = 0;
+            currentInterval = 0;
+        } else if (receivedTasks > 0) {
+            consecutiveEmptyPolls = 0;
+            currentInterval = baseInterval;
+        } else {
+            consecutiveEmptyPolls++;
+            double interval = baseInterval * Math.pow(multiplier, consecutiveEmptyPolls - 1);
+            currentInterval = applyJitter(Math.min(interval, maxInterval));
+        }
+    }
+
+    @Override
+    public long getCurrentInterval() {
+        return currentInterval;
+    }
+
+    private long applyJitter(double interval) {
+        if (jitter == 0) {
+            return Math.round(interval);
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.min(maxInterval, Math.round(interval * factor));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Stops the calls to the server while it is failing, so that the workers do
+ * not add to its load.
+ *
+ * <p>
+ * The breaker opens after a number of consecutive failures, or when the
+ * failure rate over the last calls exceeds a threshold. While open, calls are
+ * rejected. Once the open duration elapsed it becomes half-open and lets a
+ * single probe call through: the breaker closes if the probe succeeds and opens
+ * again if it fails.
+ */
+class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final long LOG_INTERVAL_MILLIS = 60_000;
+
+    private final int failureThreshold;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final boolean[] window;
+    private final AtomicLong lastLogTime = new AtomicLong(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(
+            LOG_INTERVAL_MILLIS));
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int windowIndex = 0;
+    private int windowCalls = 0;
+    private int windowFailures = 0;
+    private long openedTime;
+    private long probeTime;
+    private boolean probing = false;
+
+    /**
+     * Opens after 5 consecutive failures, or half of the last 20 calls failing.
+     */
+    CircuitBreaker(long openDurationMillis) {
+        this(5, 0.5, 20, openDurationMillis);
+    }
+
+    /**
+     * @param failureThreshold
+     *            # of consecutive failures opening the breaker
+     * @param failureRateThreshold
+     *            failure rate over the window opening the breaker
+     * @param windowSize
+     *            # of last calls the failure rate is computed on, the rate is only
+     *            considered once the window is full
+     * @param openDurationMillis
+     *            time during which calls are rejected before a probe
+     */
+    CircuitBreaker(int failureThreshold, double failureRateThreshold, int windowSize, long openDurationMillis) {
+        if (failureThreshold < 1 || windowSize < 1 || openDurationMillis < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker configuration");
+        }
+        this.failureThreshold = failureThreshold;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        MetricsContainer.recordCircuitBreakerState(State.CLOSED.ordinal());
+    }
+
+    /**
+     * @return true if the call can be made, in which case its outcome must be
+     *         reported with {@link #onSuccess()} or {@link #onFailure()}
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedTime < openDurationNanos) {
+                    return false;
+                }
+                setState(State.HALF_OPEN);
+                return startProbe();
+            default:
+                // a probe whose outcome was never reported must not keep the breaker half-open
+                return (!probing || System.nanoTime() - probeTime >= openDurationNanos) && startProbe();
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+            record(false);
+        } else if (state == State.HALF_OPEN) {
+            LOGGER.info("Server calls succeeded again, closing the circuit breaker");
+            reset();
+            setState(State.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.CLOSED) {
+            consecutiveFailures++;
+            record(true);
+            if (consecutiveFailures >= failureThreshold) {
+                open(String.format("%d consecutive failures", consecutiveFailures));
+            } else if (windowCalls == window.length && windowFailures >= failureRateThreshold * windowCalls) {
+                open(String.format("%d failures in the last %d calls", windowFailures, windowCalls));
+            }
+        } else if (state == State.HALF_OPEN) {
+            open("failed probe");
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if a failure should be logged: always while closed, at most
+     *         once a minute otherwise, as the server is known to be failing
+     */
+    boolean shouldLogFailure() {
+        if (getState() == State.CLOSED) {
+            return true;
+        }
+        long last = lastLogTime.get();
+        long now = System.nanoTime();
+        return now - last >= TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL_MILLIS)
+                && lastLogTime.compareAndSet(last, now);
+    }
+
+    private boolean startProbe() {
+        probing = true;
+        probeTime = System.nanoTime();
+        return true;
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open(String reason) {
+        LOGGER.warn("Opening the circuit breaker after {}, server calls are suspended for {} ms", reason,
+                TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        reset();
+        openedTime = System.nanoTime();
+        setState(State.OPEN);
+    }
+
+    private void reset() {
+        consecutiveFailures = 0;
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        probing = false;
+    }
+
+    private void setState(State state) {
+        this.state = state;
+        MetricsContainer.recordCircuitBreakerState(state.ordinal());
+    }
+}
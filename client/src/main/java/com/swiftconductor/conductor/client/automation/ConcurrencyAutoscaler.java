@@ -0,0 +1,278 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.http.TaskClient;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Periodically resizes the number of threads of each task type between its min
+ * and max thread count.
+ *
+ * <p>
+ * Every interval the autoscaler samples, per task type, the depth of the
+ * server side queue, the share of the polled slots which returned a task and
+ * the average execution time. With a backlog, the task type is given enough
+ * threads to drain it within one interval (Little's law); with an empty queue
+ * it shrinks to the threads in use. Scaling up is applied at once, scaling down
+ * halves the distance to the target at every interval to avoid flapping. When
+ * the queue depth cannot be fetched, the poll hit rate is used instead: full
+ * polls double the threads, empty polls shrink them.
+ *
+ * <p>
+ * The new thread count is applied to the {@link PollingSemaphore} of the task
+ * type and, for a fixed thread pool, the pool is resized to the sum of the
+ * thread counts.
+ */
+class ConcurrencyAutoscaler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyAutoscaler.class);
+
+    private static final long DEFAULT_INTERVAL_MILLIS = 10000;
+
+    private final TaskClient taskClient;
+    private final Map<String /* taskType */, Integer> taskMinThreadCount;
+    private final Map<String /* taskType */, Integer> taskMaxThreadCount;
+    private final long intervalMillis;
+    private final Map<String /* taskType */, TaskTypeStats> stats = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduledExecutorService;
+    private Map<String, PollingSemaphore> pollingSemaphores;
+    private Function<String, List<String>> domainResolver;
+    private ExecutorService executorService;
+    private ToIntBiFunction<String, Integer> executorThreadCount;
+
+    /**
+     * @param taskClient
+     *            client used to fetch the queue depths
+     * @param taskMinThreadCount
+     *            lower bound of the thread count per task type, defaults to 1
+     * @param taskMaxThreadCount
+     *            upper bound of the thread count per task type, defaults to the
+     *            initial thread count
+     */
+    ConcurrencyAutoscaler(TaskClient taskClient, Map<String, Integer> taskMinThreadCount,
+            Map<String, Integer> taskMaxThreadCount) {
+        this(taskClient, taskMinThreadCount, taskMaxThreadCount, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    ConcurrencyAutoscaler(TaskClient taskClient, Map<String, Integer> taskMinThreadCount,
+            Map<String, Integer> taskMaxThreadCount, long intervalMillis) {
+        this.taskClient = taskClient;
+        this.taskMinThreadCount = taskMinThreadCount;
+        this.taskMaxThreadCount = taskMaxThreadCount;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Clamps the thread counts to their bounds and starts sampling.
+     *
+     * @param pollingSemaphores
+     *            the polling semaphore of each task type
+     * @param domainResolver
+     *            returns the domains polled for a task type
+     * @param executorService
+     *            the pool executing the tasks, resized if it is a
+     *            {@link ThreadPoolExecutor}
+     * @param executorThreadCount
+     *            returns the # of pool threads needed by a task type for a given
+     *            thread count
+     */
+    void start(Map<String, PollingSemaphore> pollingSemaphores, Function<String, List<String>> domainResolver,
+            ExecutorService executorService, ToIntBiFunction<String, Integer> executorThreadCount) {
+        this.pollingSemaphores = pollingSemaphores;
+        this.domainResolver = domainResolver;
+        this.executorService = executorService;
+        this.executorThreadCount = executorThreadCount;
+
+        pollingSemaphores.forEach((taskType, pollingSemaphore) -> {
+            TaskTypeStats taskTypeStats = new TaskTypeStats(taskMinThreadCount.getOrDefault(taskType, 1),
+                    taskMaxThreadCount.getOrDefault(taskType, pollingSemaphore.getSlots()));
+            if (taskTypeStats.minThreadCount < 0 || taskTypeStats.maxThreadCount < 1
+                    || taskTypeStats.minThreadCount > taskTypeStats.maxThreadCount) {
+                throw new IllegalArgumentException(
+                        "Invalid min or max thread count specified for task type " + taskType);
+            }
+            stats.put(taskType, taskTypeStats);
+            int threadCount = Math.min(Math.max(pollingSemaphore.getSlots(), taskTypeStats.minThreadCount),
+                    taskTypeStats.maxThreadCount);
+            pollingSemaphore.setSlots(threadCount);
+            MetricsContainer.recordTaskThreadAllocation(taskType, threadCount);
+        });
+        resizeExecutor();
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("workflow-autoscaler-%d").daemon(true).build());
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                scale();
+            } catch (Throwable t) {
+                LOGGER.error("Error while autoscaling the task types", t);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info("Initialized the autoscaler for {} task types, every {} ms", stats.size(), intervalMillis);
+    }
+
+    /**
+     * Records the outcome of a poll.
+     */
+    void onPoll(String taskType, int requestedTasks, int receivedTasks) {
+        TaskTypeStats taskTypeStats = stats.get(taskType);
+        if (taskTypeStats != null) {
+            taskTypeStats.requestedTasks.add(requestedTasks);
+            taskTypeStats.receivedTasks.add(receivedTasks);
+        }
+    }
+
+    /**
+     * Records the execution time of a task.
+     */
+    void onExecuted(String taskType, long executionTimeMillis) {
+        TaskTypeStats taskTypeStats = stats.get(taskType);
+        if (taskTypeStats != null) {
+            taskTypeStats.executedTasks.increment();
+            taskTypeStats.executionTimeMillis.add(executionTimeMillis);
+        }
+    }
+
+    /**
+     * @return the current thread count of the task type
+     */
+    int getThreadCount(String taskType) {
+        PollingSemaphore pollingSemaphore = pollingSemaphores.get(taskType);
+        return pollingSemaphore == null ? 0 : pollingSemaphore.getSlots();
+    }
+
+    synchronized void scale() {
+        boolean resized = false;
+        for (Map.Entry<String, TaskTypeStats> entry : stats.entrySet()) {
+            resized |= scale(entry.getKey(), entry.getValue());
+        }
+        if (resized) {
+            resizeExecutor();
+        }
+    }
+
+    void shutdown() {
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    private boolean scale(String taskType, TaskTypeStats taskTypeStats) {
+        PollingSemaphore pollingSemaphore = pollingSemaphores.get(taskType);
+        int current = pollingSemaphore.getSlots();
+        int used = pollingSemaphore.usedSlots();
+
+        long requestedTasks = taskTypeStats.requestedTasks.sumThenReset();
+        long receivedTasks = taskTypeStats.receivedTasks.sumThenReset();
+        long executedTasks = taskTypeStats.executedTasks.sumThenReset();
+        long executionTimeMillis = taskTypeStats.executionTimeMillis.sumThenReset();
+        int queueDepth = queueDepth(taskType);
+
+        int desired;
+        if (queueDepth > 0 && executedTasks > 0) {
+            double averageExecutionTime = (double) executionTimeMillis / executedTasks;
+            desired = used + (int) Math.ceil(queueDepth * averageExecutionTime / intervalMillis);
+        } else if (queueDepth > 0) {
+            // no completed task to estimate the execution time yet
+            desired = Math.max(current * 2, current + 1);
+        } else if (queueDepth == 0) {
+            desired = used;
+        } else if (requestedTasks > 0 && receivedTasks >= requestedTasks) {
+            desired = Math.max(current * 2, current + 1);
+        } else if (requestedTasks > 0 && receivedTasks == 0) {
+            desired = used;
+        } else {
+            desired = current;
+        }
+
+        int target = desired < current ? desired + (current - desired) / 2 : desired;
+        target = Math.min(Math.max(target, taskTypeStats.minThreadCount), taskTypeStats.maxThreadCount);
+        if (target == current) {
+            return false;
+        }
+
+        LOGGER.debug("Scaling task type {} from {} to {} threads (queue depth: {}, hit rate: {}/{})", taskType,
+                current, target, queueDepth, receivedTasks, requestedTasks);
+        pollingSemaphore.setSlots(target);
+        if (target > current) {
+            MetricsContainer.incrementTaskScaleUpCount(taskType);
+        } else {
+            MetricsContainer.incrementTaskScaleDownCount(taskType);
+        }
+        MetricsContainer.recordTaskThreadAllocation(taskType, target);
+        return true;
+    }
+
+    private int queueDepth(String taskType) {
+        try {
+            int queueDepth = 0;
+            for (String domain : domainResolver.apply(taskType)) {
+                queueDepth += taskClient.getQueueSizeForTask(taskType, domain, null, null);
+            }
+            return queueDepth;
+        } catch (Exception e) {
+            LOGGER.debug("Unable to fetch the queue depth of task type {}", taskType, e);
+            return -1;
+        }
+    }
+
+    private void resizeExecutor() {
+        if (!(executorService instanceof ThreadPoolExecutor)) {
+            return;
+        }
+        ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executorService;
+        int threadCount = Math.max(pollingSemaphores.entrySet().stream()
+                .mapToInt(entry -> executorThreadCount.applyAsInt(entry.getKey(), entry.getValue().getSlots()))
+                .sum(), 1);
+        if (threadCount > threadPoolExecutor.getMaximumPoolSize()) {
+            threadPoolExecutor.setMaximumPoolSize(threadCount);
+            threadPoolExecutor.setCorePoolSize(threadCount);
+        } else {
+            threadPoolExecutor.setCorePoolSize(threadCount);
+            threadPoolExecutor.setMaximumPoolSize(threadCount);
+        }
+    }
+
+    private static class TaskTypeStats {
+
+        private final int minThreadCount;
+        private final int maxThreadCount;
+        private final LongAdder requestedTasks = new LongAdder();
+        private final LongAdder receivedTasks = new LongAdder();
+        private final LongAdder executedTasks = new LongAdder();
+        private final LongAdder executionTimeMillis = new LongAdder();
+
+        TaskTypeStats(int minThreadCount, int maxThreadCount) {
+            this.minThreadCount = minThreadCount;
+            this.maxThreadCount = maxThreadCount;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Spreads the polls of a task type across several domains, by smooth weighted
+ * round-robin.
+ *
+ * <p>
+ * The domains are given as a comma separated list, each with an optional
+ * weight, e.g. <code>tenant_a:3,tenant_b,NO_DOMAIN:2</code>, where
+ * <code>NO_DOMAIN</code> stands for the default queue of the task type. A
+ * domain whose polls came back empty several times in a row is skipped for a
+ * backoff period, doubled for each further empty poll, so that the polls go to
+ * the domains which have work queued.
+ */
+class DomainSelector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainSelector.class);
+
+    static final String NO_DOMAIN = "NO_DOMAIN";
+
+    private static final int EMPTY_POLL_THRESHOLD = 3;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final String taskType;
+    private final String domains;
+    private final List<Domain> domainList = new ArrayList<>();
+
+    /**
+     * @param taskType
+     *            the task type, used for metrics
+     * @param domains
+     *            the weighted list of domains
+     */
+    DomainSelector(String taskType, String domains) {
+        this.taskType = taskType;
+        this.domains = domains;
+        for (String entry : domains.split(",")) {
+            String name = StringUtils.substringBefore(entry, ":").trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            int weight = 1;
+            if (entry.contains(":")) {
+                String value = StringUtils.substringAfter(entry, ":").trim();
+                try {
+                    weight = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Invalid weight {} of domain {} for task type {}, using 1", value, name, taskType);
+                }
+            }
+            if (weight > 0) {
+                domainList.add(new Domain(NO_DOMAIN.equals(name) ? null : name, weight));
+            }
+        }
+        if (domainList.isEmpty()) {
+            domainList.add(new Domain(null, 1));
+        }
+    }
+
+    /**
+     * @return true if the domain property of a task type lists several domains or
+     *         weights, and needs a {@link DomainSelector}
+     */
+    static boolean isWeighted(String domains) {
+        return domains != null && (domains.contains(",") || domains.contains(":"));
+    }
+
+    /**
+     * @return the list of domains this selector was created from
+     */
+    String getDomainList() {
+        return domains;
+    }
+
+    /**
+     * @return the domains, null standing for no domain
+     */
+    List<String> getDomains() {
+        List<String> names = new ArrayList<>(domainList.size());
+        domainList.forEach(domain -> names.add(domain.name));
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @return the domain to poll next, null for no domain
+     */
+    synchronized String next() {
+        long now = System.nanoTime();
+        boolean anyAvailable = domainList.stream().anyMatch(domain -> domain.isAvailable(now));
+
+        int totalWeight = 0;
+        Domain selected = null;
+        for (Domain domain : domainList) {
+            // if all the domains are backing off, poll them all rather than none
+            if (anyAvailable && !domain.isAvailable(now)) {
+                continue;
+            }
+            domain.currentWeight += domain.weight;
+            totalWeight += domain.weight;
+            if (selected == null || domain.currentWeight > selected.currentWeight) {
+                selected = domain;
+            }
+        }
+        selected.currentWeight -= totalWeight;
+        return selected.name;
+    }
+
+    /**
+     * Records the outcome of a poll of a domain.
+     */
+    synchronized void onPoll(String domainName, int receivedTasks) {
+        String tag = (domainName == null) ? NO_DOMAIN : domainName;
+        MetricsContainer.incrementTaskDomainPollCount(taskType, tag);
+        if (receivedTasks > 0) {
+            MetricsContainer.incrementTaskDomainPollHitCount(taskType, tag);
+        }
+        for (Domain domain : domainList) {
+            if (StringUtils.equals(domain.name, domainName)) {
+                domain.onPoll(receivedTasks);
+                return;
+            }
+        }
+    }
+
+    private static class Domain {
+
+        private final String name;
+        private final int weight;
+        private int currentWeight = 0;
+        private int emptyPolls = 0;
+        private long backoffUntil = System.nanoTime();
+
+        Domain(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        boolean isAvailable(long now) {
+            return now - backoffUntil >= 0;
+        }
+
+        void onPoll(int receivedTasks) {
+            if (receivedTasks > 0) {
+                emptyPolls = 0;
+                return;
+            }
+            emptyPolls++;
+            if (emptyPolls >= EMPTY_POLL_THRESHOLD) {
+                int doublings = Math.min(emptyPolls - EMPTY_POLL_THRESHOLD, 16);
+                long backoffMillis = Math.min(MIN_BACKOFF_MILLIS << doublings, MAX_BACKOFF_MILLIS);
+                backoffUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+/**
+ * A snapshot of the progress of {@link WorkerHost#drain()}.
+ */
+public class DrainStatus {
+
+    /**
+     * The steps of a drain, in the order they are performed.
+     */
+    public enum Phase {
+        /** Not draining, the workers are polling. */
+        RUNNING,
+        /** Waiting for the polls in progress to complete. */
+        STOPPING_POLLING,
+        /** Handing prefetched and unstarted tasks back to the server. */
+        RELEASING_TASKS,
+        /** Waiting for the tasks being executed to complete. */
+        AWAITING_IN_FLIGHT,
+        /** Waiting for the pending task updates to be sent. */
+        FLUSHING_UPDATES,
+        /** All the results were reported, or the drain timed out. */
+        DRAINED
+    }
+
+    private final Phase phase;
+    private final int inFlightTasks;
+    private final int pendingUpdates;
+    private final int releasedTasks;
+    private final long elapsedMillis;
+
+    DrainStatus(Phase phase, int inFlightTasks, int pendingUpdates, int releasedTasks, long elapsedMillis) {
+        this.phase = phase;
+        this.inFlightTasks = inFlightTasks;
+        this.pendingUpdates = pendingUpdates;
+        this.releasedTasks = releasedTasks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the # of tasks which were executing when the snapshot was taken
+     */
+    public int getInFlightTasks() {
+        return inFlightTasks;
+    }
+
+    /**
+     * @return the # of task results which were not reported yet when the snapshot
+     *         was taken
+     */
+    public int getPendingUpdates() {
+        return pendingUpdates;
+    }
+
+    /**
+     * @return the # of tasks handed back to the server without being executed
+     */
+    public int getReleasedTasks() {
+        return releasedTasks;
+    }
+
+    /**
+     * @return milliseconds since the drain started, 0 if not draining
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return true if the drain completed without losing any task result
+     */
+    public boolean isComplete() {
+        return phase == Phase.DRAINED && inFlightTasks == 0 && pendingUpdates == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DrainStatus{phase=" + phase + ", inFlightTasks=" + inFlightTasks + ", pendingUpdates="
+                + pendingUpdates + ", releasedTasks=" + releasedTasks + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Shares a fixed number of execution slots between task types.
+ *
+ * <p>
+ * Each task type is guaranteed its minimum number of slots. The remaining slots
+ * are handed out one at a time to the type with the lowest allocation relative
+ * to its weight, first among the busy types (all slots in use, or the last poll
+ * returned a full batch), then among all types once the busy ones are
+ * satisfied. On a tie, the type which had fewer slots before wins, so that when
+ * there are fewer slots than task types, the idle types take turns. Idle capacity therefore flows to the busiest queues, while a type
+ * whose queue fills up again gets its share back at the next rebalance. The
+ * allocation of each type is applied to its {@link PollingSemaphore}; slots
+ * taken away from a type are only reused once its running tasks complete.
+ */
+class FairShareScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FairShareScheduler.class);
+
+    private static final long DEFAULT_REBALANCE_INTERVAL_MILLIS = 1000;
+
+    private final int capacity;
+    private final long rebalanceIntervalNanos;
+    private final Map<String /* taskType */, Share> shares = new HashMap<>();
+    private final AtomicLong nextRebalance;
+
+    /**
+     * @param capacity
+     *            total number of slots shared between the task types
+     * @param taskTypes
+     *            the task types sharing the slots
+     * @param taskMinThreadCount
+     *            minimum number of slots reserved per task type, defaults to 1,
+     *            or to 0 if there are not enough slots to reserve one for each
+     *            task type
+     * @param taskWeight
+     *            weight of each task type when sharing the remaining slots,
+     *            defaults to 1
+     */
+    FairShareScheduler(int capacity, Collection<String> taskTypes, Map<String, Integer> taskMinThreadCount,
+            Map<String, Integer> taskWeight) {
+        this(capacity, taskTypes, taskMinThreadCount, taskWeight, DEFAULT_REBALANCE_INTERVAL_MILLIS);
+    }
+
+    FairShareScheduler(int capacity, Collection<String> taskTypes, Map<String, Integer> taskMinThreadCount,
+            Map<String, Integer> taskWeight, long rebalanceIntervalMillis) {
+        int reserved = 0;
+        for (String taskType : taskTypes) {
+            reserved += taskMinThreadCount.getOrDefault(taskType, 1);
+        }
+        int defaultMinSlots = 1;
+        if (reserved > capacity) {
+            defaultMinSlots = 0;
+            LOGGER.info("Not enough slots to reserve one per task type, the {} slots are shared by weight only",
+                    capacity);
+        }
+
+        reserved = 0;
+        for (String taskType : taskTypes) {
+            int minSlots = taskMinThreadCount.getOrDefault(taskType, defaultMinSlots);
+            int weight = taskWeight.getOrDefault(taskType, 1);
+            if (minSlots < 0 || weight < 1) {
+                throw new IllegalArgumentException(
+                        "Invalid min thread count or weight specified for task type " + taskType);
+            }
+            reserved += minSlots;
+            shares.put(taskType, new Share(minSlots, weight));
+        }
+        if (reserved > capacity) {
+            throw new IllegalArgumentException(String.format(
+                    "Min thread counts (%d in total) exceed the shared thread count %d", reserved, capacity));
+        }
+        this.capacity = capacity;
+        this.rebalanceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rebalanceIntervalMillis);
+        this.nextRebalance = new AtomicLong(System.nanoTime() + rebalanceIntervalNanos);
+
+        // start with no busy type, i.e. the remaining slots are split by weight
+        allocate(Collections.emptyMap());
+        for (Map.Entry<String, Share> entry : shares.entrySet()) {
+            Share share = entry.getValue();
+            share.semaphore = new PollingSemaphore(share.allocation);
+            MetricsContainer.recordTaskThreadAllocation(entry.getKey(), share.allocation);
+        }
+        LOGGER.info("Initialized the fair share scheduler with {} slots for {} task types", capacity, shares.size());
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the polling semaphore of each task type, sized by the scheduler
+     */
+    Map<String, PollingSemaphore> getPollingSemaphores() {
+        Map<String, PollingSemaphore> pollingSemaphores = new HashMap<>();
+        shares.forEach((taskType, share) -> pollingSemaphores.put(taskType, share.semaphore));
+        return pollingSemaphores;
+    }
+
+    /**
+     * @return the number of slots currently allocated to the task type
+     */
+    int getAllocation(String taskType) {
+        Share share = shares.get(taskType);
+        return share == null ? 0 : share.semaphore.getSlots();
+    }
+
+    /**
+     * Records the outcome of a poll.
+     */
+    void onPoll(String taskType, int requestedTasks, int receivedTasks) {
+        Share share = shares.get(taskType);
+        if (share != null) {
+            share.fullBatch = receivedTasks > 0 && receivedTasks >= requestedTasks;
+        }
+    }
+
+    /**
+     * Rebalances the slots if the rebalance interval elapsed since the last
+     * rebalance. Cheap enough to be called before every poll.
+     */
+    void maybeRebalance() {
+        long now = System.nanoTime();
+        long next = nextRebalance.get();
+        if (now - next >= 0 && nextRebalance.compareAndSet(next, now + rebalanceIntervalNanos)) {
+            rebalance();
+        }
+    }
+
+    synchronized void rebalance() {
+        Map<String, Integer> demand = new HashMap<>();
+        shares.forEach((taskType, share) -> {
+            int usedSlots = share.semaphore.usedSlots();
+            if (share.fullBatch || usedSlots >= share.semaphore.getSlots()) {
+                demand.put(taskType, capacity);
+            } else {
+                // leave one slot of headroom, so that the type keeps polling
+                demand.put(taskType, usedSlots + 1);
+            }
+        });
+        allocate(demand);
+        shares.forEach((taskType, share) -> {
+            if (share.allocation != share.semaphore.getSlots()) {
+                LOGGER.debug("Task type {} allocated {} slots, was {}", taskType, share.allocation,
+                        share.semaphore.getSlots());
+                share.semaphore.setSlots(share.allocation);
+            }
+            MetricsContainer.recordTaskThreadAllocation(taskType, share.allocation);
+        });
+    }
+
+    /**
+     * Computes the allocation of each task type, serving the types whose demand
+     * is not met first.
+     */
+    private void allocate(Map<String, Integer> demand) {
+        int remaining = capacity;
+        for (Share share : shares.values()) {
+            share.previousAllocation = share.allocation;
+            share.allocation = share.minSlots;
+            remaining -= share.minSlots;
+        }
+        for (; remaining > 0 && !shares.isEmpty(); remaining--) {
+            Share next = null;
+            boolean nextUnderserved = false;
+            for (Map.Entry<String, Share> entry : shares.entrySet()) {
+                Share share = entry.getValue();
+                boolean underserved = share.allocation < demand.getOrDefault(entry.getKey(), 0);
+                if (next == null || (underserved && !nextUnderserved)
+                        || (underserved == nextUnderserved && share.isBefore(next))) {
+                    next = share;
+                    nextUnderserved = underserved;
+                }
+            }
+            next.allocation++;
+        }
+    }
+
+    private static class Share {
+
+        private final int minSlots;
+        private final int weight;
+        private int allocation;
+        private int previousAllocation;
+        private volatile boolean fullBatch = false;
+        private PollingSemaphore semaphore;
+
+        Share(int minSlots, int weight) {
+            this.minSlots = minSlots;
+            this.weight = weight;
+        }
+
+        double ratio() {
+            return (double) allocation / weight;
+        }
+
+        boolean isBefore(Share other) {
+            int comparison = Double.compare(ratio(), other.ratio());
+            return comparison < 0 || (comparison == 0 && previousAllocation < other.previousAllocation);
+        }
+    }
+}
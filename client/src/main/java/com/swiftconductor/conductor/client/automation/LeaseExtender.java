@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Periodically extends the lease of long running tasks.
+ *
+ * <p>
+ * Leases are kept in a registry keyed by task id and scheduled on a hashed
+ * wheel timer, so that tracking tens of thousands of leases costs a single
+ * timer thread. The leases falling due in the same tick are dispatched
+ * together to a pool with bounded concurrency.
+ */
+class LeaseExtender {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaseExtender.class);
+
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long startTime = System.nanoTime();
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Lease>> wheel;
+    private final Queue<Lease> pendingLeases = new ConcurrentLinkedQueue<>();
+    private final Map<String /* ID of the task */, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timerExecutorService;
+    private final ExecutorService dispatchExecutorService;
+    private final Semaphore dispatchPermits;
+
+    // only accessed by the timer thread
+    private long processedTick = 0;
+
+    /**
+     * @param concurrency
+     *            maximum number of lease extensions in flight
+     * @param useVirtualThreads
+     *            dispatch lease extensions on virtual threads, if supported
+     */
+    LeaseExtender(int concurrency, boolean useVirtualThreads) {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, concurrency, useVirtualThreads);
+    }
+
+    LeaseExtender(long tickMillis, int wheelSize, int concurrency, boolean useVirtualThreads) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 1) * 2 - 1);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new LinkedList<>());
+        }
+
+        ExecutorService virtualExecutorService = useVirtualThreads
+                ? VirtualThreads.newExecutor("workflow-lease-extend-worker-%d", null)
+                : null;
+        if (virtualExecutorService != null) {
+            this.dispatchExecutorService = virtualExecutorService;
+            this.dispatchPermits = new Semaphore(concurrency);
+        } else {
+            this.dispatchExecutorService = Executors.newFixedThreadPool(concurrency,
+                    new BasicThreadFactory.Builder().namingPattern("workflow-lease-extend-worker-%d").daemon(true)
+                            .build());
+            this.dispatchPermits = null;
+        }
+
+        this.timerExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("workflow-lease-extend-%d").daemon(true).build());
+        timerExecutorService.scheduleAtFixedRate(this::onTick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info("Initialized the task lease extender with a concurrency of {}", concurrency);
+    }
+
+    /**
+     * Starts extending the lease of a task every interval, until it is cancelled.
+     *
+     * @param taskId
+     *            ID of the task
+     * @param intervalMillis
+     *            time between two lease extensions
+     * @param extendLease
+     *            sends the lease extension to the server
+     */
+    void track(String taskId, long intervalMillis, Runnable extendLease) {
+        Lease lease = new Lease(taskId, TimeUnit.MILLISECONDS.toNanos(intervalMillis), extendLease);
+        Lease previous = leases.put(taskId, lease);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        schedule(lease);
+        MetricsContainer.recordTaskLeaseTrackedCount(leases.size());
+    }
+
+    /**
+     * Stops extending the lease of a task.
+     */
+    void cancel(String taskId) {
+        Lease lease = leases.remove(taskId);
+        if (lease != null) {
+            lease.cancelled = true;
+            MetricsContainer.recordTaskLeaseTrackedCount(leases.size());
+        }
+    }
+
+    boolean isTracked(String taskId) {
+        return leases.containsKey(taskId);
+    }
+
+    int getTrackedLeases() {
+        return leases.size();
+    }
+
+    /**
+     * Stops extending leases, waiting for the extensions in flight to complete.
+     */
+    void shutdown(int timeout) {
+        timerExecutorService.shutdownNow();
+        dispatchExecutorService.shutdown();
+        try {
+            if (!dispatchExecutorService.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                dispatchExecutorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            dispatchExecutorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        leases.clear();
+        pendingLeases.clear();
+        MetricsContainer.recordTaskLeaseTrackedCount(0);
+    }
+
+    private void schedule(Lease lease) {
+        lease.deadline = System.nanoTime() + lease.intervalNanos;
+        pendingLeases.add(lease);
+    }
+
+    private void onTick() {
+        try {
+            long currentTick = (System.nanoTime() - startTime) / tickNanos;
+            while (processedTick < currentTick) {
+                processedTick++;
+                transferPendingLeases();
+                dispatch(expire(wheel.get((int) (processedTick & mask))));
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Error while extending task leases", t);
+        }
+    }
+
+    private void transferPendingLeases() {
+        Lease lease;
+        while ((lease = pendingLeases.poll()) != null) {
+            if (lease.cancelled) {
+                continue;
+            }
+            long deadlineTick = (lease.deadline - startTime) / tickNanos;
+            long tick = Math.max(deadlineTick, processedTick);
+            lease.remainingRounds = (tick - processedTick) / wheel.size();
+            wheel.get((int) (tick & mask)).add(lease);
+        }
+    }
+
+    private List<Lease> expire(List<Lease> bucket) {
+        List<Lease> dueLeases = new ArrayList<>();
+        Iterator<Lease> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.cancelled) {
+                iterator.remove();
+            } else if (lease.remainingRounds <= 0) {
+                iterator.remove();
+                dueLeases.add(lease);
+            } else {
+                lease.remainingRounds--;
+            }
+        }
+        return dueLeases;
+    }
+
+    private void dispatch(List<Lease> dueLeases) {
+        if (dueLeases.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long maxLag = 0;
+        for (Lease lease : dueLeases) {
+            maxLag = Math.max(maxLag, now - lease.deadline);
+            try {
+                dispatchExecutorService.execute(() -> extend(lease));
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Lease extender is shutting down, lease of {} not extended", lease.taskId);
+            }
+        }
+        MetricsContainer.recordTaskLeaseExtendLag(TimeUnit.NANOSECONDS.toMillis(maxLag));
+    }
+
+    private void extend(Lease lease) {
+        try {
+            if (dispatchPermits != null) {
+                dispatchPermits.acquire();
+            }
+            try {
+                if (!lease.cancelled) {
+                    lease.extendLease.run();
+                }
+            } finally {
+                if (dispatchPermits != null) {
+                    dispatchPermits.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Throwable t) {
+            LOGGER.error("Failed to extend lease for {}", lease.taskId, t);
+        }
+        if (!lease.cancelled) {
+            schedule(lease);
+        }
+    }
+
+    private static class Lease {
+
+        private final String taskId;
+        private final long intervalNanos;
+        private final Runnable extendLease;
+        private volatile boolean cancelled = false;
+        private volatile long deadline;
+        private long remainingRounds;
+
+        Lease(String taskId, long intervalNanos, Runnable extendLease) {
+            this.taskId = taskId;
+            this.intervalNanos = intervalNanos;
+            this.extendLease = extendLease;
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package com.swiftconductor.conductor.client.automation;
 
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,15 +22,53 @@ import org.slf4j.LoggerFactory;
 /**
  * A class wrapping a semaphore which holds the number of permits available for
  * polling and executing tasks.
+ *
+ * <p>
+ * The number of permits can be changed at runtime. When it is reduced below the
+ * number of permits in use, no further permit is handed out until enough tasks
+ * have completed.
  */
 class PollingSemaphore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PollingSemaphore.class);
-    private final Semaphore semaphore;
+    private final ResizableSemaphore semaphore;
+    private int numSlots;
 
     PollingSemaphore(int numSlots) {
         LOGGER.debug("Polling semaphore initialized with {} permits", numSlots);
-        semaphore = new Semaphore(numSlots);
+        this.semaphore = new ResizableSemaphore(numSlots);
+        this.numSlots = numSlots;
+    }
+
+    /**
+     * Changes the total number of permits.
+     *
+     * @param numSlots
+     *            the new number of permits
+     */
+    synchronized void setSlots(int numSlots) {
+        int delta = numSlots - this.numSlots;
+        if (delta > 0) {
+            semaphore.release(delta);
+        } else if (delta < 0) {
+            semaphore.reducePermits(-delta);
+        }
+        LOGGER.debug("Polling semaphore resized from {} to {} permits", this.numSlots, numSlots);
+        this.numSlots = numSlots;
+    }
+
+    /**
+     * @return the total number of permits, available or in use
+     */
+    synchronized int getSlots() {
+        return numSlots;
+    }
+
+    /**
+     * @return the number of permits currently in use
+     */
+    synchronized int usedSlots() {
+        return Math.max(numSlots - semaphore.availablePermits(), 0);
     }
 
     /**
@@ -66,4 +105,32 @@ class PollingSemaphore {
         LOGGER.debug("Trying to acquire {} permit: {}", numSlots, acquired);
         return acquired;
     }
+
+    /**
+     * Blocks until at least one permit is available, without acquiring it.
+     *
+     * @param timeoutInMillis
+     *            the maximum time to wait
+     * @return {@code true} - if a permit became available {@code false} - if the
+     *         waiting time elapsed
+     */
+    boolean awaitSlots(long timeoutInMillis) throws InterruptedException {
+        if (semaphore.tryAcquire(timeoutInMillis, TimeUnit.MILLISECONDS)) {
+            semaphore.release();
+            return true;
+        }
+        return false;
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+
+/**
+ * A bounded, lock-free ring holding tasks which were polled ahead of a free
+ * execution slot.
+ *
+ * <p>
+ * Any number of threads can add and take tasks concurrently: each cell carries
+ * a sequence number telling whether it is ready to be written or read, and the
+ * positions are claimed with a compare-and-set. Each task is stored with a
+ * deadline after which it is no longer worth executing, expired tasks are
+ * skipped and handed to the caller when taking the next task.
+ */
+class PrefetchBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong tail = new AtomicLong(0);
+
+    PrefetchBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Prefetch buffer capacity cannot be less than 1");
+        }
+        int size = Integer.highestOneBit(capacity * 2 - 1);
+        this.capacity = capacity;
+        this.mask = size - 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a task to the buffer.
+     *
+     * @param task
+     *            the polled task
+     * @param deadlineNanos
+     *            {@link System#nanoTime()} after which the task must not be
+     *            executed anymore
+     * @return false if the buffer is full
+     */
+    boolean offer(Task task, long deadlineNanos) {
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= capacity) {
+                return false;
+            }
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entries.set(index, new Entry(task, deadlineNanos));
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest task which has not expired.
+     *
+     * @param onExpired
+     *            called with each expired task removed on the way
+     * @return the task, or null if the buffer holds no task
+     */
+    Task poll(Consumer<Task> onExpired) {
+        Entry entry;
+        while ((entry = take()) != null) {
+            if (System.nanoTime() - entry.deadlineNanos < 0) {
+                return entry.task;
+            }
+            onExpired.accept(entry.task);
+        }
+        return null;
+    }
+
+    /**
+     * Removes all the tasks from the buffer.
+     */
+    void drain(Consumer<Task> consumer) {
+        Entry entry;
+        while ((entry = take()) != null) {
+            consumer.accept(entry.task);
+        }
+    }
+
+    int size() {
+        return (int) Math.max(tail.get() - head.get(), 0);
+    }
+
+    int remainingCapacity() {
+        return Math.max(capacity - size(), 0);
+    }
+
+    private Entry take() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Entry entry = entries.getAndSet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return entry;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final Task task;
+        private final long deadlineNanos;
+
+        Entry(Task task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
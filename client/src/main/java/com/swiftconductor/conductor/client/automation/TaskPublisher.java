@@ -0,0 +1,351 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.http.TaskClient;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * Publishes the tasks of a task type as a reactive stream, as an alternative to
+ * {@link WorkerHost} for applications built on reactive pipelines.
+ *
+ * <p>
+ * Polling is driven by demand: each subscriber gets its own subscription, which
+ * polls with a count equal to the outstanding demand (up to the max batch size)
+ * and only while there is demand. An empty poll is retried after the polling
+ * interval, a failed poll is logged and retried after the polling interval as
+ * well. The stream only completes when the publisher is closed. Polled tasks
+ * which cannot be delivered, because the subscription was cancelled or the
+ * subscriber failed to handle them, are handed back to the server.
+ *
+ * <p>
+ * The results of the tasks are reported with a {@link TaskResultSubscriber}.
+ */
+public class TaskPublisher implements Flow.Publisher<Task>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskPublisher.class);
+
+    private final TaskClient taskClient;
+    private final String taskType;
+    private final String domain;
+    private final String workerId;
+    private final int maxBatchSize;
+    private final int pollTimeoutInMillis;
+    private final long pollingInterval;
+    private final ScheduledExecutorService executorService;
+    private final Set<TaskSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param taskClient
+     *            client used to poll the tasks
+     * @param taskType
+     *            the task type to poll
+     * @param domain
+     *            the domain to poll, or null
+     * @param workerId
+     *            the identity of the worker
+     */
+    public TaskPublisher(TaskClient taskClient, String taskType, String domain, String workerId) {
+        this(taskClient, taskType, domain, workerId, 100, 1000, 1000, 1);
+    }
+
+    /**
+     * @param taskClient
+     *            client used to poll the tasks
+     * @param taskType
+     *            the task type to poll
+     * @param domain
+     *            the domain to poll, or null
+     * @param workerId
+     *            the identity of the worker
+     * @param maxBatchSize
+     *            maximum # of tasks requested in a poll
+     * @param pollTimeoutInMillis
+     *            long poll timeout of each poll
+     * @param pollingInterval
+     *            time in milliseconds to wait after an empty or failed poll
+     * @param threadCount
+     *            # of threads polling for the subscriptions
+     */
+    public TaskPublisher(TaskClient taskClient, String taskType, String domain, String workerId, int maxBatchSize,
+            int pollTimeoutInMillis, long pollingInterval, int threadCount) {
+        Validate.notNull(taskClient, "Task client cannot be null");
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        Validate.notBlank(workerId, "Worker id cannot be blank");
+        Validate.isTrue(maxBatchSize > 0, "Max batch size must be greater than 0");
+        Validate.isTrue(threadCount > 0, "Thread count must be greater than 0");
+        this.taskClient = taskClient;
+        this.taskType = taskType;
+        this.domain = domain;
+        this.workerId = workerId;
+        this.maxBatchSize = maxBatchSize;
+        this.pollTimeoutInMillis = pollTimeoutInMillis;
+        this.pollingInterval = pollingInterval;
+        this.executorService = Executors.newScheduledThreadPool(threadCount,
+                new BasicThreadFactory.Builder().namingPattern("workflow-task-publisher-%d").daemon(true).build());
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Task> subscriber) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        TaskSubscription subscription = new TaskSubscription(subscriber);
+        subscriptions.add(subscription);
+        try {
+            subscriber.onSubscribe(subscription);
+        } finally {
+            if (executorService.isShutdown()) {
+                subscription.complete();
+            }
+            subscription.start();
+        }
+    }
+
+    /**
+     * Stops polling and completes all the subscriptions. Tasks already polled are
+     * still delivered.
+     */
+    @Override
+    public void close() {
+        subscriptions.forEach(TaskSubscription::complete);
+        executorService.shutdown();
+    }
+
+    private void releaseTask(Task task) {
+        TaskResult result = new TaskResult(task);
+        result.setStatus(TaskResult.Status.IN_PROGRESS);
+        result.setCallbackAfterSeconds(0);
+        result.log("Released by the task publisher before delivery");
+        try {
+            taskClient.updateTask(result);
+            LOGGER.debug("Released task: {} of type: {}", task.getTaskId(), taskType);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to release task: {}, it will be retried after its response timeout",
+                    task.getTaskId(), e);
+        }
+    }
+
+    private class TaskSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Task> subscriber;
+        private final AtomicLong demand = new AtomicLong(0);
+        // held until onSubscribe returns, so that no signal overlaps it
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private volatile boolean cancelled = false;
+        private volatile boolean completed = false;
+        private volatile Throwable error;
+        private boolean terminated = false;
+
+        TaskSubscription(Flow.Subscriber<? super Task> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " tasks, must be greater than 0");
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void complete() {
+            completed = true;
+            signal();
+        }
+
+        /**
+         * Lets the subscription signal the subscriber, once onSubscribe returned.
+         */
+        void start() {
+            running.set(false);
+            if ((demand.get() > 0 || completed || error != null) && !cancelled) {
+                signal();
+            }
+        }
+
+        /**
+         * Schedules a run of the subscription unless one is already scheduled or
+         * running, so that the subscriber is never signalled concurrently.
+         */
+        private void signal() {
+            if (running.compareAndSet(false, true)) {
+                execute(this::run, 0);
+            }
+        }
+
+        private void run() {
+            if (emitTerminal()) {
+                return;
+            }
+            long delay = 0;
+            long requested = demand.get();
+            if (requested > 0 && !completed) {
+                delay = poll((int) Math.min(requested, maxBatchSize));
+            }
+            if (emitTerminal()) {
+                return;
+            }
+            if (demand.get() > 0 && !completed) {
+                // keep running while there is demand
+                execute(this::run, delay);
+                return;
+            }
+            running.set(false);
+            if ((demand.get() > 0 || completed || error != null) && !cancelled) {
+                signal();
+            }
+        }
+
+        /**
+         * Polls the tasks and emits them.
+         *
+         * @return the delay before the next poll
+         */
+        private long poll(int count) {
+            List<Task> tasks;
+            try {
+                tasks = MetricsContainer.getPollTimer(taskType).record(
+                        () -> taskClient.batchPollTasksInDomain(taskType, domain, workerId, count, pollTimeoutInMillis));
+            } catch (Exception e) {
+                MetricsContainer.incrementTaskPollErrorCount(taskType, e);
+                LOGGER.error("Error when polling for tasks of type {}", taskType, e);
+                return pollingInterval;
+            }
+            int emitted = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                if (Objects.isNull(task) || StringUtils.isBlank(task.getTaskId())) {
+                    continue;
+                }
+                if (cancelled || !acquireDemand()) {
+                    releaseTasks(tasks.subList(i, tasks.size()));
+                    return 0;
+                }
+                MetricsContainer.incrementTaskPollCount(taskType, 1);
+                try {
+                    subscriber.onNext(task);
+                } catch (Throwable t) {
+                    // a subscriber throwing from onNext is considered to have cancelled
+                    LOGGER.error("Subscriber failed to handle task {}, cancelling its subscription",
+                            task.getTaskId(), t);
+                    cancel();
+                    releaseTasks(tasks.subList(i, tasks.size()));
+                    return 0;
+                }
+                emitted++;
+            }
+            return emitted == 0 ? pollingInterval : 0;
+        }
+
+        /**
+         * Takes one unit of the outstanding demand, unless there is none left.
+         */
+        private boolean acquireDemand() {
+            long current;
+            do {
+                current = demand.get();
+                if (current == Long.MAX_VALUE) {
+                    return true;
+                }
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!demand.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        /**
+         * Hands the polled tasks which were not handled by the subscriber back to
+         * the server, so that they are rescheduled right away instead of after
+         * their response timeout.
+         */
+        private void releaseTasks(List<Task> tasks) {
+            for (Task task : tasks) {
+                if (Objects.nonNull(task) && StringUtils.isNotBlank(task.getTaskId())) {
+                    releaseTask(task);
+                }
+            }
+        }
+
+        /**
+         * Emits the error or completion signal, once.
+         *
+         * @return true if the subscription is terminated
+         */
+        private boolean emitTerminal() {
+            if (terminated || cancelled) {
+                return true;
+            }
+            if (error != null) {
+                terminated = true;
+                cancel();
+                subscriber.onError(error);
+                return true;
+            }
+            if (completed) {
+                terminated = true;
+                cancel();
+                subscriber.onComplete();
+                return true;
+            }
+            return false;
+        }
+
+        private void execute(Runnable runnable, long delay) {
+            try {
+                executorService.schedule(runnable, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                if (completed || error != null) {
+                    // the publisher is closed, deliver the terminal signal on this thread
+                    runnable.run();
+                } else {
+                    LOGGER.debug("Task publisher for {} is closed", taskType);
+                }
+            }
+        }
+    }
+}
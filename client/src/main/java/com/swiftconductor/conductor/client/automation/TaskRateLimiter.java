@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.swiftconductor.conductor.client.config.PropertyFactory;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Limits the number of tasks polled per second for each task type, using a
+ * token bucket per task type.
+ *
+ * <p>
+ * The rate is read from the <code>conductor.worker.&lt;task
+ * type&gt;.rateLimitPerSecond</code> property, or the global
+ * <code>conductor.worker.rateLimitPerSecond</code> property, on every poll, so
+ * it can be changed at runtime. A rate of 0 or less disables the limit. The
+ * bucket holds up to one second worth of tokens, which allows a burst of that
+ * size after an idle period.
+ */
+class TaskRateLimiter {
+
+    static final String RATE_LIMIT_PER_SECOND = "rateLimitPerSecond";
+
+    private final Map<String /* taskType */, TokenBucket> tokenBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Takes up to the requested number of tokens, waiting for the first one if
+     * none is available.
+     *
+     * @param taskType
+     *            the task type
+     * @param permits
+     *            the number of tasks to poll
+     * @param maxWaitMillis
+     *            the maximum time to wait for a token
+     * @return the number of tasks which can be polled, 0 if no token became
+     *         available in time
+     */
+    int acquire(String taskType, int permits, long maxWaitMillis) throws InterruptedException {
+        int rateLimit = getRateLimit(taskType);
+        if (rateLimit <= 0 || permits <= 0) {
+            return permits;
+        }
+
+        TokenBucket tokenBucket = tokenBuckets.computeIfAbsent(taskType, t -> new TokenBucket(rateLimit));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            int granted = tokenBucket.tryAcquire(rateLimit, permits);
+            if (granted > 0) {
+                recordThrottleTime(taskType, start);
+                return granted;
+            }
+            long waitNanos = tokenBucket.nanosUntilAvailable(rateLimit);
+            if (System.nanoTime() + waitNanos - deadline > 0) {
+                MetricsContainer.incrementTaskThrottledCount(taskType);
+                recordThrottleTime(taskType, start);
+                return 0;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Gives back the tokens of tasks which were not returned by the poll.
+     */
+    void release(String taskType, int permits) {
+        TokenBucket tokenBucket = tokenBuckets.get(taskType);
+        if (tokenBucket != null && permits > 0) {
+            tokenBucket.release(getRateLimit(taskType), permits);
+        }
+    }
+
+    private int getRateLimit(String taskType) {
+        return PropertyFactory.getInteger(taskType, RATE_LIMIT_PER_SECOND, 0);
+    }
+
+    private void recordThrottleTime(String taskType, long start) {
+        long throttleTime = System.nanoTime() - start;
+        if (throttleTime > 0) {
+            MetricsContainer.getTaskThrottleTimer(taskType).record(throttleTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static class TokenBucket {
+
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(int rateLimit) {
+            // start with a full bucket
+            this.tokens = Math.max(rateLimit, 1);
+        }
+
+        synchronized int tryAcquire(int rateLimit, int permits) {
+            refill(rateLimit);
+            int granted = (int) Math.min(permits, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+
+        synchronized long nanosUntilAvailable(int rateLimit) {
+            refill(rateLimit);
+            return (long) Math.ceil((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / rateLimit);
+        }
+
+        synchronized void release(int rateLimit, int permits) {
+            refill(rateLimit);
+            tokens = Math.min(tokens + permits, Math.max(rateLimit, 1));
+        }
+
+        private void refill(int rateLimit) {
+            long now = System.nanoTime();
+            tokens = Math.min(Math.max(rateLimit, 1), tokens + (now - lastRefill) * rateLimit / 1e9);
+            lastRefill = now;
+        }
+    }
+}
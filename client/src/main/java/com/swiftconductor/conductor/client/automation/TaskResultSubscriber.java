@@ -0,0 +1,163 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.http.TaskClient;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * Reports the results of the tasks of a task type to the server, as the sink
+ * of a reactive pipeline fed by a {@link TaskPublisher}.
+ *
+ * <p>
+ * Results are reported on the thread delivering them, one at a time: a result
+ * is only requested once the previous one was reported, so a slow server slows
+ * down the pipeline instead of buffering results. Each update is attempted up
+ * to the retry count, with an exponential backoff and jitter between attempts;
+ * results which cannot be reported are logged and counted in the task update
+ * error metric.
+ */
+public class TaskResultSubscriber implements Flow.Subscriber<TaskResult> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskResultSubscriber.class);
+
+    private final TaskClient taskClient;
+    private final String taskType;
+    private final int updateRetryCount;
+    private final long retryDelayMillis;
+    private Flow.Subscription subscription;
+
+    public TaskResultSubscriber(TaskClient taskClient, String taskType) {
+        this(taskClient, taskType, 3);
+    }
+
+    /**
+     * @param taskClient
+     *            client used to report the results
+     * @param taskType
+     *            the task type of the results
+     * @param updateRetryCount
+     *            # of attempts for each update
+     */
+    public TaskResultSubscriber(TaskClient taskClient, String taskType, int updateRetryCount) {
+        this(taskClient, taskType, updateRetryCount, 500);
+    }
+
+    /**
+     * @param taskClient
+     *            client used to report the results
+     * @param taskType
+     *            the task type of the results
+     * @param updateRetryCount
+     *            # of attempts for each update
+     * @param retryDelayMillis
+     *            delay before the first retry of an update, doubled for each
+     *            following retry
+     */
+    public TaskResultSubscriber(TaskClient taskClient, String taskType, int updateRetryCount,
+            long retryDelayMillis) {
+        Validate.notNull(taskClient, "Task client cannot be null");
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        Validate.isTrue(retryDelayMillis >= 0, "Retry delay cannot be negative");
+        this.taskClient = taskClient;
+        this.taskType = taskType;
+        this.updateRetryCount = Math.max(updateRetryCount, 1);
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "Subscription cannot be null");
+        if (this.subscription != null) {
+            // only one subscription at a time
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(TaskResult result) {
+        Objects.requireNonNull(result, "Task result cannot be null");
+        try {
+            report(result);
+        } finally {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "Throwable cannot be null");
+        LOGGER.error("Task result stream for task type {} failed", taskType, throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        LOGGER.debug("Task result stream for task type {} completed", taskType);
+    }
+
+    private void report(TaskResult result) {
+        for (int attempt = 1; attempt <= updateRetryCount; attempt++) {
+            try {
+                if (result.getExternalOutputPayloadStoragePath() == null) {
+                    upload(result);
+                }
+                taskClient.updateTask(result);
+                return;
+            } catch (Exception e) {
+                if (attempt == updateRetryCount) {
+                    MetricsContainer.incrementTaskUpdateErrorCount(taskType, e);
+                    LOGGER.error("Failed to update result of task {} of type {}", result.getTaskId(), taskType, e);
+                    return;
+                }
+                LOGGER.debug("Failed to update result of task {}, retrying", result.getTaskId(), e);
+            }
+            try {
+                // results are reported on the delivering thread, waiting here slows the pipeline down
+                Thread.sleep(TaskUpdatePipeline.retryDelay(retryDelayMillis, attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                MetricsContainer.incrementTaskUpdateErrorCount(taskType, e);
+                LOGGER.error("Interrupted while retrying the update of task {}", result.getTaskId());
+                return;
+            }
+        }
+    }
+
+    private void upload(TaskResult result) {
+        try {
+            Optional<String> externalStorageLocation = taskClient
+                    .evaluateAndUploadLargePayload(result.getOutputData(), taskType);
+            if (externalStorageLocation.isPresent()) {
+                result.setExternalOutputPayloadStoragePath(externalStorageLocation.get());
+                result.setOutputData(null);
+            }
+        } catch (IllegalArgumentException iae) {
+            result.setReasonForIncompletion(iae.getMessage());
+            result.setOutputData(null);
+            result.setStatus(TaskResult.Status.FAILED_WITH_TERMINAL_ERROR);
+        }
+    }
+}
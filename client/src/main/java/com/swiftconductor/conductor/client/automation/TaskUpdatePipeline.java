@@ -0,0 +1,219 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Reports task results to the server on a dedicated pool of threads, so that
+ * the execution threads are released as soon as the worker returns.
+ *
+ * <p>
+ * Failed updates are retried with an exponential backoff and jitter, on a
+ * scheduler instead of sleeping on an update thread. The number of pending
+ * updates is bounded by the capacity: once it is reached, {@link #isFull()}
+ * signals the poller to stop polling until updates have drained.
+ */
+class TaskUpdatePipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskUpdatePipeline.class);
+
+    private static final double RETRY_JITTER = 0.2;
+
+    private final int capacity;
+    private final int retryCount;
+    private final long retryDelayMillis;
+    private final ExecutorService updateExecutorService;
+    private final ScheduledExecutorService retryExecutorService;
+    private final AtomicInteger pendingUpdates = new AtomicInteger(0);
+    private final Object flushMonitor = new Object();
+
+    /**
+     * @param threadCount
+     *            number of threads sending updates concurrently
+     * @param capacity
+     *            number of pending updates after which polling is paused
+     * @param retryCount
+     *            number of attempts for each update
+     * @param retryDelayMillis
+     *            delay before the first retry, doubled for each further retry
+     */
+    TaskUpdatePipeline(int threadCount, int capacity, int retryCount, long retryDelayMillis) {
+        this.capacity = capacity;
+        this.retryCount = Math.max(retryCount, 1);
+        this.retryDelayMillis = retryDelayMillis;
+
+        this.updateExecutorService = Executors.newFixedThreadPool(threadCount,
+                new BasicThreadFactory.Builder().namingPattern("workflow-task-update-%d").build());
+        this.retryExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("workflow-task-update-retry-%d").daemon(true).build());
+        LOGGER.info("Initialized the task update pipeline with {} threads and a capacity of {} updates",
+                threadCount, capacity);
+    }
+
+    /**
+     * @return true if the number of pending updates reached the capacity
+     */
+    boolean isFull() {
+        return pendingUpdates.get() >= capacity;
+    }
+
+    /**
+     * @return the number of updates which are queued, in flight or waiting for a
+     *         retry
+     */
+    int getPendingUpdates() {
+        return pendingUpdates.get();
+    }
+
+    /**
+     * Queues an update. Never blocks, tasks which already executed are always
+     * accepted, the capacity only applies backpressure to polling.
+     *
+     * @param taskType
+     *            the task type, used for metrics
+     * @param update
+     *            sends the update to the server, throws if it failed
+     * @param onFailure
+     *            called with the last error once all attempts failed
+     */
+    void submit(String taskType, Runnable update, Consumer<Throwable> onFailure) {
+        MetricsContainer.recordTaskUpdateQueueDepth(pendingUpdates.incrementAndGet());
+        execute(new Update(taskType, update, onFailure));
+    }
+
+    /**
+     * Waits for all pending updates to complete, including the ones waiting for a
+     * retry.
+     *
+     * @return true if all updates completed before the timeout
+     */
+    boolean awaitFlush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (flushMonitor) {
+            while (pendingUpdates.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                flushMonitor.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the pending updates and stops the pipeline.
+     */
+    void shutdown(int timeoutSeconds) {
+        try {
+            if (!awaitFlush(timeoutSeconds, TimeUnit.SECONDS)) {
+                LOGGER.warn("{} task updates are still pending after waiting for {} seconds", pendingUpdates.get(),
+                        timeoutSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        retryExecutorService.shutdownNow();
+        updateExecutorService.shutdownNow();
+    }
+
+    private void execute(Update update) {
+        try {
+            updateExecutorService.execute(update);
+        } catch (RejectedExecutionException e) {
+            update.fail(e);
+        }
+    }
+
+    /**
+     * @return the delay before the next attempt, doubling after each failed
+     *         attempt, with a jitter so that the retries of concurrent updates are
+     *         spread out
+     */
+    static long retryDelay(long retryDelayMillis, int attempt) {
+        double delay = retryDelayMillis * Math.pow(2, attempt - 1);
+        return Math.round(delay * (1 + ThreadLocalRandom.current().nextDouble(-RETRY_JITTER, RETRY_JITTER)));
+    }
+
+    private void complete() {
+        int pending = pendingUpdates.decrementAndGet();
+        MetricsContainer.recordTaskUpdateQueueDepth(pending);
+        if (pending == 0) {
+            synchronized (flushMonitor) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private class Update implements Runnable {
+
+        private final String taskType;
+        private final Runnable update;
+        private final Consumer<Throwable> onFailure;
+        private final long submitTime = System.nanoTime();
+        private int attempt = 0;
+
+        Update(String taskType, Runnable update, Consumer<Throwable> onFailure) {
+            this.taskType = taskType;
+            this.update = update;
+            this.onFailure = onFailure;
+        }
+
+        @Override
+        public void run() {
+            attempt++;
+            try {
+                update.run();
+                MetricsContainer.getTaskUpdateTimer(taskType).record(System.nanoTime() - submitTime,
+                        TimeUnit.NANOSECONDS);
+                complete();
+            } catch (Exception e) {
+                if (attempt >= retryCount) {
+                    fail(e);
+                    return;
+                }
+                long delay = retryDelay(retryDelayMillis, attempt);
+                LOGGER.debug("Task update attempt {} for task type {} failed, retrying in {} ms", attempt, taskType,
+                        delay, e);
+                try {
+                    retryExecutorService.schedule(() -> execute(this), delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException ree) {
+                    fail(e);
+                }
+            }
+        }
+
+        void fail(Throwable t) {
+            try {
+                onFailure.accept(t);
+            } finally {
+                complete();
+            }
+        }
+    }
+}
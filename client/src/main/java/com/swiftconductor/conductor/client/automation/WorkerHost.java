@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -33,6 +34,8 @@ import com.netflix.discovery.EurekaClient;
 import com.swiftconductor.conductor.client.exception.ClientException;
 import com.swiftconductor.conductor.client.http.TaskClient;
 import com.swiftconductor.conductor.client.worker.AbstractWorker;
+import com.swiftconductor.conductor.client.worker.AsyncWorker;
+import com.swiftconductor.conductor.client.worker.PollingPolicy;
 
 /**
  * Configures automated polling of tasks and execution via the registered
@@ -41,6 +44,7 @@ import com.swiftconductor.conductor.client.worker.AbstractWorker;
 public class WorkerHost {
     static final Logger LOGGER = LoggerFactory.getLogger(WorkerHost.class);
     private static final String INVALID_THREAD_COUNT = "Invalid worker thread count specified, use either shared thread pool or config thread count per task";
+    private static final String INVALID_SCALING_MODE = "Invalid scaling mode specified, use either fair scheduling or autoscaling";
 
     private ScheduledExecutorService scheduledExecutorService;
 
@@ -52,9 +56,22 @@ public class WorkerHost {
     @Deprecated
     private final int threadCount;
     private final int shutdownGracePeriodSeconds;
+    private final int drainTimeoutSeconds;
+    private final boolean useVirtualThreads;
+    private final boolean continuousPolling;
+    private final int updateThreadCount;
+    private final int updateQueueCapacity;
+    private final int leaseExtendThreadCount;
+    private final boolean fairScheduling;
+    private final boolean autoscaling;
+    private final int circuitBreakerOpenSeconds;
     private final String workerNamePrefix;
     private final Map<String /* taskType */, String /* domain */> taskToDomain;
     private final Map<String /* taskType */, Integer /* threadCount */> taskThreadCount;
+    private final Map<String /* taskType */, Integer /* threadCount */> taskMinThreadCount;
+    private final Map<String /* taskType */, Integer /* weight */> taskWeight;
+    private final Map<String /* taskType */, Integer /* threadCount */> taskMaxThreadCount;
+    private final Map<String /* taskType */, Integer /* prefetchCount */> taskPrefetchCount;
 
     private WorkerProcess taskPollExecutor;
 
@@ -98,6 +115,23 @@ public class WorkerHost {
         this.workerNamePrefix = builder.workerNamePrefix;
         this.taskToDomain = builder.taskToDomain;
         this.shutdownGracePeriodSeconds = builder.shutdownGracePeriodSeconds;
+        this.drainTimeoutSeconds = builder.drainTimeoutSeconds;
+        this.useVirtualThreads = builder.useVirtualThreads;
+        this.continuousPolling = builder.continuousPolling;
+        this.updateThreadCount = builder.updateThreadCount;
+        this.updateQueueCapacity = builder.updateQueueCapacity;
+        this.leaseExtendThreadCount = builder.leaseExtendThreadCount;
+        this.fairScheduling = builder.fairScheduling;
+        this.taskMinThreadCount = builder.taskMinThreadCount;
+        this.taskWeight = builder.taskWeight;
+        this.autoscaling = builder.autoscaling;
+        this.circuitBreakerOpenSeconds = builder.circuitBreakerOpenSeconds;
+        this.taskMaxThreadCount = builder.taskMaxThreadCount;
+        this.taskPrefetchCount = builder.taskPrefetchCount;
+        if (fairScheduling && autoscaling) {
+            LOGGER.error(INVALID_SCALING_MODE);
+            throw new ClientException(INVALID_SCALING_MODE);
+        }
     }
 
     /** Builder used to create the instances of WorkerHost */
@@ -110,11 +144,24 @@ public class WorkerHost {
         private int threadCount = -1;
 
         private int shutdownGracePeriodSeconds = 10;
+        private int drainTimeoutSeconds = 60;
+        private boolean useVirtualThreads = false;
+        private boolean continuousPolling = false;
+        private int updateThreadCount = 0;
+        private int updateQueueCapacity = 1000;
+        private int leaseExtendThreadCount = 2;
+        private boolean fairScheduling = false;
+        private boolean autoscaling = false;
+        private int circuitBreakerOpenSeconds = 0;
         private final Iterable<AbstractWorker> workers;
         private EurekaClient eurekaClient;
         private final TaskClient taskClient;
         private Map<String /* taskType */, String /* domain */> taskToDomain = new HashMap<>();
         private Map<String /* taskType */, Integer /* threadCount */> taskThreadCount = new HashMap<>();
+        private Map<String /* taskType */, Integer /* threadCount */> taskMinThreadCount = new HashMap<>();
+        private Map<String /* taskType */, Integer /* weight */> taskWeight = new HashMap<>();
+        private Map<String /* taskType */, Integer /* threadCount */> taskMaxThreadCount = new HashMap<>();
+        private Map<String /* taskType */, Integer /* prefetchCount */> taskPrefetchCount = new HashMap<>();
 
         public Builder(TaskClient taskClient, Iterable<AbstractWorker> workers) {
             Validate.notNull(taskClient, "TaskClient cannot be null");
@@ -185,6 +232,20 @@ public class WorkerHost {
             return this;
         }
 
+        /**
+         * @param drainTimeoutSeconds
+         *            waiting seconds for the in flight tasks and their updates to
+         *            complete in {@link WorkerHost#drain()}, before forcing shutdown
+         * @return Builder instance
+         */
+        public Builder withDrainTimeoutSeconds(int drainTimeoutSeconds) {
+            if (drainTimeoutSeconds < 1) {
+                throw new IllegalArgumentException("Seconds of drainTimeout cannot be less than 1");
+            }
+            this.drainTimeoutSeconds = drainTimeoutSeconds;
+            return this;
+        }
+
         /**
          * @param eurekaClient
          *            Eureka client - used to identify if the server is in discovery or
@@ -197,6 +258,16 @@ public class WorkerHost {
             return this;
         }
 
+        /**
+         * @param taskToDomain
+         *            domain polled per task type, overridden by the
+         *            <code>conductor.worker.&lt;task type&gt;.domain</code> property.
+         *            A comma separated list of weighted domains, e.g.
+         *            <code>tenant_a:3,tenant_b,NO_DOMAIN</code>, spreads the polls
+         *            across the domains by weight, <code>NO_DOMAIN</code> standing
+         *            for the default queue.
+         * @return Builder instance
+         */
         public Builder withTaskToDomain(Map<String, String> taskToDomain) {
             this.taskToDomain = taskToDomain;
             return this;
@@ -207,6 +278,185 @@ public class WorkerHost {
             return this;
         }
 
+        /**
+         * @param useVirtualThreads
+         *            if true, tasks are executed and leases are extended on virtual
+         *            threads instead of a fixed pool of platform threads. The thread
+         *            counts then only limit the number of tasks in flight per task
+         *            type. Requires Java 21 or newer at runtime, older JVMs fall back
+         *            to platform threads.
+         * @return Builder instance
+         */
+        public Builder withVirtualThreads(boolean useVirtualThreads) {
+            this.useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        /**
+         * @param continuousPolling
+         *            if true, each task type gets a dedicated poller which polls again
+         *            as soon as a slot is free, relying on the server side long poll
+         *            ({@link AbstractWorker#getBatchPollTimeoutInMS()}) instead of
+         *            waiting for {@link AbstractWorker#getPollingInterval()} between
+         *            polls. The polling interval is only used to back off while the
+         *            worker is paused, out of discovery or the poll fails.
+         * @return Builder instance
+         */
+        public Builder withContinuousPolling(boolean continuousPolling) {
+            this.continuousPolling = continuousPolling;
+            return this;
+        }
+
+        /**
+         * @param updateThreadCount
+         *            # of threads reporting task results to the server. If greater
+         *            than 0, results are reported asynchronously and the execution
+         *            thread is released as soon as the worker returns. Failed updates
+         *            are retried with an exponential backoff starting at
+         *            {@link #withSleepWhenRetry(int)}. Defaults to 0, results are
+         *            reported on the execution thread.
+         * @return Builder instance
+         * @see #withUpdateQueueCapacity(int)
+         */
+        public Builder withUpdateThreadCount(int updateThreadCount) {
+            if (updateThreadCount < 0) {
+                throw new IllegalArgumentException("No. of update threads cannot be less than 0");
+            }
+            this.updateThreadCount = updateThreadCount;
+            return this;
+        }
+
+        /**
+         * @param updateQueueCapacity
+         *            number of pending asynchronous task updates after which polling
+         *            is paused until updates have drained. Only used if
+         *            {@link #withUpdateThreadCount(int)} is greater than 0.
+         * @return Builder instance
+         */
+        public Builder withUpdateQueueCapacity(int updateQueueCapacity) {
+            if (updateQueueCapacity < 1) {
+                throw new IllegalArgumentException("Update queue capacity cannot be less than 1");
+            }
+            this.updateQueueCapacity = updateQueueCapacity;
+            return this;
+        }
+
+        /**
+         * @param leaseExtendThreadCount
+         *            maximum # of task lease extensions sent to the server
+         *            concurrently. Defaults to 2.
+         * @return Builder instance
+         */
+        public Builder withLeaseExtendThreadCount(int leaseExtendThreadCount) {
+            if (leaseExtendThreadCount < 1) {
+                throw new IllegalArgumentException("No. of lease extend threads cannot be less than 1");
+            }
+            this.leaseExtendThreadCount = leaseExtendThreadCount;
+            return this;
+        }
+
+        /**
+         * @param fairScheduling
+         *            if true, all task types share a work-stealing pool of the total
+         *            thread count (the shared thread count, or the sum of the thread
+         *            counts per task) instead of a fixed number of threads each. Each
+         *            task type keeps its min thread count, the remaining threads are
+         *            periodically reallocated by weight to the task types which have
+         *            work queued.
+         * @return Builder instance
+         * @see #withTaskMinThreadCount(Map)
+         * @see #withTaskWeight(Map)
+         */
+        public Builder withFairScheduling(boolean fairScheduling) {
+            this.fairScheduling = fairScheduling;
+            return this;
+        }
+
+        /**
+         * @param circuitBreakerOpenSeconds
+         *            if greater than 0, polling is suspended for this many seconds
+         *            once the server is failing (5 consecutive poll errors, or half
+         *            of the last 20 polls failing), then resumes if a single probe
+         *            poll succeeds. Poll errors are only logged once a minute while
+         *            suspended. Defaults to 0, always polling.
+         * @return Builder instance
+         */
+        public Builder withCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+            if (circuitBreakerOpenSeconds < 0) {
+                throw new IllegalArgumentException("Seconds of circuitBreakerOpen cannot be negative");
+            }
+            this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+            return this;
+        }
+
+        /**
+         * @param taskPrefetchCount
+         *            # of tasks per task type polled ahead of a free thread. A thread
+         *            completing a task picks up a prefetched task right away instead
+         *            of waiting for the next poll. Prefetched tasks which waited for
+         *            longer than their lease (80% of the response timeout) are handed
+         *            back to the server. Defaults to no prefetching.
+         * @return Builder instance
+         */
+        public Builder withTaskPrefetchCount(Map<String, Integer> taskPrefetchCount) {
+            this.taskPrefetchCount = taskPrefetchCount;
+            return this;
+        }
+
+        /**
+         * @param autoscaling
+         *            if true, the thread count of each task type is periodically
+         *            resized between its min and max thread count, based on the depth
+         *            of its queue, the share of polls returning tasks and the
+         *            execution time. Cannot be combined with fair scheduling.
+         * @return Builder instance
+         * @see #withTaskMinThreadCount(Map)
+         * @see #withTaskMaxThreadCount(Map)
+         */
+        public Builder withAutoscaling(boolean autoscaling) {
+            this.autoscaling = autoscaling;
+            return this;
+        }
+
+        /**
+         * @param taskMaxThreadCount
+         *            upper bound of the # of threads per task type with autoscaling.
+         *            Defaults to the thread count of the task type.
+         * @return Builder instance
+         */
+        public Builder withTaskMaxThreadCount(Map<String, Integer> taskMaxThreadCount) {
+            this.taskMaxThreadCount = taskMaxThreadCount;
+            return this;
+        }
+
+        /**
+         * @param taskMinThreadCount
+         *            # of threads reserved per task type with fair scheduling, or
+         *            lower bound of the # of threads per task type with autoscaling.
+         *            Defaults to 1 for the task types which are not specified, or to 0
+         *            with fair scheduling if the shared thread count is too small to
+         *            reserve one thread per task type. With fair scheduling, a task
+         *            type with no reserved thread only gets threads that no other
+         *            task type needs, and idle task types take turns.
+         * @return Builder instance
+         */
+        public Builder withTaskMinThreadCount(Map<String, Integer> taskMinThreadCount) {
+            this.taskMinThreadCount = taskMinThreadCount;
+            return this;
+        }
+
+        /**
+         * @param taskWeight
+         *            relative share per task type of the threads which are not
+         *            reserved, with fair scheduling. Defaults to 1 for the task types
+         *            which are not specified.
+         * @return Builder instance
+         */
+        public Builder withTaskWeight(Map<String, Integer> taskWeight) {
+            this.taskWeight = taskWeight;
+            return this;
+        }
+
         /**
          * Builds an instance of the WorkerHost.
          *
@@ -241,6 +491,14 @@ public class WorkerHost {
         return shutdownGracePeriodSeconds;
     }
 
+    /**
+     * @return seconds to wait for the in flight tasks and their updates when
+     *         draining
+     */
+    public int getDrainTimeoutSeconds() {
+        return drainTimeoutSeconds;
+    }
+
     /**
      * @return sleep time in millisecond before task update retry is done when
      *         receiving error from the Conductor server
@@ -257,6 +515,96 @@ public class WorkerHost {
         return updateRetryCount;
     }
 
+    /**
+     * @return true if tasks are executed on virtual threads when supported by the
+     *         JVM
+     */
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * @return true if each task type is polled in a continuous loop instead of at
+     *         a fixed interval
+     */
+    public boolean isContinuousPolling() {
+        return continuousPolling;
+    }
+
+    /**
+     * @return # of threads reporting task results asynchronously, 0 if results are
+     *         reported on the execution thread
+     */
+    public int getUpdateThreadCount() {
+        return updateThreadCount;
+    }
+
+    /**
+     * @return number of pending asynchronous task updates after which polling is
+     *         paused
+     */
+    public int getUpdateQueueCapacity() {
+        return updateQueueCapacity;
+    }
+
+    /**
+     * @return maximum # of task lease extensions sent to the server concurrently
+     */
+    public int getLeaseExtendThreadCount() {
+        return leaseExtendThreadCount;
+    }
+
+    /**
+     * @return seconds polling is suspended for when the server is failing, 0 if
+     *         the circuit breaker is disabled
+     */
+    public int getCircuitBreakerOpenSeconds() {
+        return circuitBreakerOpenSeconds;
+    }
+
+    /**
+     * @return true if the task types share the threads by weight
+     */
+    public boolean isFairScheduling() {
+        return fairScheduling;
+    }
+
+    /**
+     * @return # of tasks per task type polled ahead of a free thread
+     */
+    public Map<String, Integer> getTaskPrefetchCount() {
+        return taskPrefetchCount;
+    }
+
+    /**
+     * @return true if the thread count of each task type is resized at runtime
+     */
+    public boolean isAutoscaling() {
+        return autoscaling;
+    }
+
+    /**
+     * @return upper bound of the # of threads per task type with autoscaling
+     */
+    public Map<String, Integer> getTaskMaxThreadCount() {
+        return taskMaxThreadCount;
+    }
+
+    /**
+     * @return # of threads reserved per task type with fair scheduling, or lower
+     *         bound with autoscaling
+     */
+    public Map<String, Integer> getTaskMinThreadCount() {
+        return taskMinThreadCount;
+    }
+
+    /**
+     * @return relative share of the threads per task type with fair scheduling
+     */
+    public Map<String, Integer> getTaskWeight() {
+        return taskWeight;
+    }
+
     /**
      * @return prefix used for worker names
      */
@@ -269,15 +617,102 @@ public class WorkerHost {
      * method.
      */
     public synchronized void init() {
-        this.taskPollExecutor = new WorkerProcess(
-                eurekaClient, taskClient, updateRetryCount,
-                taskToDomain, workerNamePrefix, taskThreadCount);
+        TaskUpdatePipeline taskUpdatePipeline = null;
+        if (updateThreadCount > 0) {
+            taskUpdatePipeline = new TaskUpdatePipeline(updateThreadCount, updateQueueCapacity, updateRetryCount,
+                    sleepWhenRetry);
+        }
+
+        FairShareScheduler fairShareScheduler = null;
+        if (fairScheduling) {
+            int totalThreadCount = (threadCount != -1) ? threadCount
+                    : taskThreadCount.values().stream().mapToInt(Integer::intValue).sum();
+            fairShareScheduler = new FairShareScheduler(totalThreadCount, taskThreadCount.keySet(),
+                    taskMinThreadCount, taskWeight);
+        }
+
+        WorkerProcess.Options options = new WorkerProcess.Options()
+                .withVirtualThreads(useVirtualThreads)
+                .withTaskUpdatePipeline(taskUpdatePipeline)
+                .withLeaseExtender(new LeaseExtender(leaseExtendThreadCount, useVirtualThreads))
+                .withFairShareScheduler(fairShareScheduler)
+                .withTaskPrefetchCount(taskPrefetchCount)
+                .withAsyncTaskTypes(workers.stream().filter(worker -> worker instanceof AsyncWorker)
+                        .map(AbstractWorker::getTaskDefName).collect(Collectors.toSet()));
+        if (autoscaling) {
+            options.withAutoscaler(new ConcurrencyAutoscaler(taskClient, taskMinThreadCount, taskMaxThreadCount));
+        }
+        if (circuitBreakerOpenSeconds > 0) {
+            options.withCircuitBreaker(new CircuitBreaker(circuitBreakerOpenSeconds * 1000L));
+        }
+        this.taskPollExecutor = new WorkerProcess(eurekaClient, taskClient, updateRetryCount, taskToDomain,
+                workerNamePrefix, taskThreadCount, options);
 
         this.scheduledExecutorService = Executors.newScheduledThreadPool(workers.size());
-        workers.forEach(worker -> scheduledExecutorService.scheduleWithFixedDelay(() -> taskPollExecutor.pollAndExecute(worker),
-                worker.getPollingInterval(),
-                worker.getPollingInterval(),
-                TimeUnit.MILLISECONDS));
+        for (AbstractWorker worker : workers) {
+            PollingPolicy pollingPolicy = taskPollExecutor.getPollingPolicy(worker);
+            if (continuousPolling) {
+                scheduledExecutorService.execute(() -> pollContinuously(worker, pollingPolicy));
+            } else if (pollingPolicy != null) {
+                schedulePolling(worker, pollingPolicy, worker.getPollingInterval());
+            } else {
+                scheduledExecutorService.scheduleWithFixedDelay(() -> taskPollExecutor.pollAndExecute(worker),
+                        worker.getPollingInterval(),
+                        worker.getPollingInterval(),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next poll of the worker after the delay given by its
+     * {@link PollingPolicy}.
+     */
+    private void schedulePolling(AbstractWorker worker, PollingPolicy pollingPolicy, long delay) {
+        try {
+            scheduledExecutorService.schedule(() -> {
+                long nextDelay = worker.getPollingInterval();
+                try {
+                    if (!taskPollExecutor.awaitSlots(worker, worker.getPollingInterval())) {
+                        // already waited a full polling interval for a free slot
+                        nextDelay = 0;
+                    } else if (taskPollExecutor.pollAndExecute(worker) >= 0) {
+                        nextDelay = pollingPolicy.getCurrentInterval();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable t) {
+                    LOGGER.error("Error when polling for task type {}", worker.getTaskDefName(), t);
+                }
+                schedulePolling(worker, pollingPolicy, nextDelay);
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Stopped polling for task type {}", worker.getTaskDefName());
+        }
+    }
+
+    private void pollContinuously(AbstractWorker worker, PollingPolicy pollingPolicy) {
+        LOGGER.info("Starting continuous polling for task type {}", worker.getTaskDefName());
+        while (!scheduledExecutorService.isShutdown()) {
+            try {
+                if (!taskPollExecutor.awaitSlots(worker, worker.getPollingInterval())) {
+                    continue;
+                }
+                if (taskPollExecutor.pollAndExecute(worker) < 0) {
+                    // paused, out of discovery or failed to poll, back off before the next attempt
+                    TimeUnit.MILLISECONDS.sleep(worker.getPollingInterval());
+                } else if (pollingPolicy != null && pollingPolicy.getCurrentInterval() > 0) {
+                    TimeUnit.MILLISECONDS.sleep(pollingPolicy.getCurrentInterval());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                LOGGER.error("Error in polling loop for task type {}", worker.getTaskDefName(), t);
+            }
+        }
+        LOGGER.info("Stopped continuous polling for task type {}", worker.getTaskDefName());
     }
 
     /**
@@ -288,4 +723,26 @@ public class WorkerHost {
         taskPollExecutor.shutdownAndAwaitTermination(scheduledExecutorService, shutdownGracePeriodSeconds);
         taskPollExecutor.shutdown(shutdownGracePeriodSeconds);
     }
+
+    /**
+     * Shuts down the worker without losing the results of the tasks it polled:
+     * stops polling, hands the prefetched and unstarted tasks back to the server,
+     * waits for the in flight tasks to complete and sends all their pending updates
+     * before stopping. Use it instead of {@link #shutdown()} to avoid the tasks
+     * being executed again after their response timeout.
+     *
+     * @return the final status, which is not {@link DrainStatus#isComplete()
+     *         complete} if the drain timed out
+     */
+    public DrainStatus drain() {
+        return taskPollExecutor.drain(scheduledExecutorService, drainTimeoutSeconds);
+    }
+
+    /**
+     * @return the progress of the drain, can be called while {@link #drain()} is
+     *         running
+     */
+    public DrainStatus getDrainStatus() {
+        return taskPollExecutor.getDrainStatus();
+    }
 }
@@ -15,12 +15,16 @@ package com.swiftconductor.conductor.client.automation;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
@@ -36,9 +40,13 @@ import com.netflix.spectator.api.Spectator;
 import com.netflix.spectator.api.patterns.ThreadPoolMonitor;
 
 import com.swiftconductor.conductor.client.config.PropertyFactory;
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.http.ConcurrencyLimiter;
 import com.swiftconductor.conductor.client.http.TaskClient;
 import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
 import com.swiftconductor.conductor.client.worker.AbstractWorker;
+import com.swiftconductor.conductor.client.worker.AsyncWorker;
+import com.swiftconductor.conductor.client.worker.PollingPolicy;
 import com.swiftconductor.conductor.common.metadata.tasks.Task;
 import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
 
@@ -56,8 +64,24 @@ class WorkerProcess {
     private final TaskClient taskClient;
     private final int updateRetryCount;
     private final ExecutorService executorService;
+    private final ScheduledThreadPoolExecutor timeoutExecutorService;
+    private final TaskUpdatePipeline taskUpdatePipeline;
+    private final FairShareScheduler fairShareScheduler;
+    private final ConcurrencyAutoscaler autoscaler;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String /* taskType */, PrefetchBuffer> prefetchBufferMap = new HashMap<>();
+    private final TaskRateLimiter rateLimiter = new TaskRateLimiter();
+    private final Set<String /* taskType */> asyncTaskTypes;
     private final Map<String, PollingSemaphore> pollingSemaphoreMap;
+    private final Map<String /* taskType */, PollingPolicy> pollingPolicyMap = new ConcurrentHashMap<>();
     private final Map<String /* taskType */, String /* domain */> taskToDomain;
+    private final Map<String /* taskType */, DomainSelector> domainSelectorMap = new ConcurrentHashMap<>();
+    private final Map<String /* taskId */, Execution> executions = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlightTasks = new AtomicInteger(0);
+    private final AtomicInteger releasedTasks = new AtomicInteger(0);
+    private final Object inFlightMonitor = new Object();
+    private volatile DrainStatus.Phase drainPhase = DrainStatus.Phase.RUNNING;
+    private volatile long drainStartTime;
 
     private static final String DOMAIN = "domain";
     private static final String OVERRIDE_DISCOVERY = "pollOutOfDiscovery";
@@ -65,115 +89,569 @@ class WorkerProcess {
 
     private static final int LEASE_EXTEND_RETRY_COUNT = 3;
     private static final double LEASE_EXTEND_DURATION_FACTOR = 0.8;
-    private ScheduledExecutorService leaseExtendExecutorService;
-    Map<String /* ID of the task */, ScheduledFuture<?>> leaseExtendMap = new HashMap<>();
+    private static final long DRAIN_PROGRESS_INTERVAL_MILLIS = 100;
+    final LeaseExtender leaseExtender;
 
     WorkerProcess(EurekaClient eurekaClient, TaskClient taskClient, int updateRetryCount,
             Map<String, String> taskToDomain, String workerNamePrefix, Map<String, Integer> taskThreadCount) {
+        this(eurekaClient, taskClient, updateRetryCount, taskToDomain, workerNamePrefix, taskThreadCount,
+                new Options());
+    }
+
+    /**
+     * @param options
+     *            the optional collaborators and settings of the process
+     */
+    WorkerProcess(EurekaClient eurekaClient, TaskClient taskClient, int updateRetryCount,
+            Map<String, String> taskToDomain, String workerNamePrefix, Map<String, Integer> taskThreadCount,
+            Options options) {
         this.eurekaClient = eurekaClient;
         this.taskClient = taskClient;
         this.updateRetryCount = updateRetryCount;
         this.taskToDomain = taskToDomain;
+        this.taskUpdatePipeline = options.taskUpdatePipeline;
+        this.leaseExtender = (options.leaseExtender != null) ? options.leaseExtender
+                : new LeaseExtender(1, options.useVirtualThreads);
+        this.fairShareScheduler = options.fairShareScheduler;
+        this.autoscaler = options.autoscaler;
+        this.circuitBreaker = options.circuitBreaker;
+        this.asyncTaskTypes = options.asyncTaskTypes;
+        options.taskPrefetchCount.forEach((taskType, prefetchCount) -> {
+            if (prefetchCount > 0) {
+                prefetchBufferMap.put(taskType, new PrefetchBuffer(prefetchCount));
+            }
+        });
 
         this.pollingSemaphoreMap = new HashMap<>();
         int totalThreadCount = 0;
-        for (Map.Entry<String, Integer> entry : taskThreadCount.entrySet()) {
-            String taskType = entry.getKey();
-            int count = entry.getValue();
-            totalThreadCount += count;
-            pollingSemaphoreMap.put(taskType, new PollingSemaphore(count));
+        if (fairShareScheduler != null) {
+            totalThreadCount = fairShareScheduler.getCapacity();
+            pollingSemaphoreMap.putAll(fairShareScheduler.getPollingSemaphores());
+        } else {
+            for (Map.Entry<String, Integer> entry : taskThreadCount.entrySet()) {
+                String taskType = entry.getKey();
+                int count = entry.getValue();
+                totalThreadCount += executorThreadCount(taskType, count);
+                pollingSemaphoreMap.put(taskType, new PollingSemaphore(count));
+            }
         }
 
-        LOGGER.info("Initialized the TaskPollExecutor with {} threads", totalThreadCount);
-        this.executorService = Executors.newFixedThreadPool(
-                totalThreadCount,
-                new BasicThreadFactory.Builder()
-                        .namingPattern(workerNamePrefix)
-                        .uncaughtExceptionHandler(uncaughtExceptionHandler)
-                        .build());
+        ExecutorService virtualExecutorService = null;
+        if (options.useVirtualThreads) {
+            virtualExecutorService = VirtualThreads.newExecutor(workerNamePrefix, uncaughtExceptionHandler);
+            if (virtualExecutorService == null) {
+                LOGGER.warn("Virtual threads are not supported by this JVM, falling back to platform threads");
+            }
+        }
 
-        ThreadPoolMonitor.attach(REGISTRY, (ThreadPoolExecutor) executorService, workerNamePrefix);
+        if (virtualExecutorService != null) {
+            LOGGER.info("Initialized the TaskPollExecutor with virtual threads, limited to {} concurrent tasks",
+                    totalThreadCount);
+            this.executorService = virtualExecutorService;
+        } else if (fairShareScheduler != null) {
+            LOGGER.info("Initialized the TaskPollExecutor with a work-stealing pool of {} threads", totalThreadCount);
+            this.executorService = new ForkJoinPool(totalThreadCount, workerThreadFactory(workerNamePrefix),
+                    uncaughtExceptionHandler, true);
+        } else {
+            LOGGER.info("Initialized the TaskPollExecutor with {} threads", totalThreadCount);
+            this.executorService = Executors.newFixedThreadPool(
+                    totalThreadCount,
+                    new BasicThreadFactory.Builder()
+                            .namingPattern(workerNamePrefix)
+                            .uncaughtExceptionHandler(uncaughtExceptionHandler)
+                            .build());
+
+            ThreadPoolMonitor.attach(REGISTRY, (ThreadPoolExecutor) executorService, workerNamePrefix);
+        }
+
+        this.timeoutExecutorService = new ScheduledThreadPoolExecutor(1,
+                new BasicThreadFactory.Builder().namingPattern("workflow-task-timeout-%d").daemon(true).build());
+        timeoutExecutorService.setRemoveOnCancelPolicy(true);
 
-        LOGGER.info("Initialized the task lease extend executor");
-        leaseExtendExecutorService = Executors.newSingleThreadScheduledExecutor(
-                new BasicThreadFactory.Builder().namingPattern("workflow-lease-extend-%d").daemon(true)
-                        .uncaughtExceptionHandler(uncaughtExceptionHandler).build());
+        if (autoscaler != null) {
+            autoscaler.start(pollingSemaphoreMap, this::getDomains, executorService, this::executorThreadCount);
+        }
     }
 
-    void pollAndExecute(AbstractWorker worker) {
+    /**
+     * Polls for tasks of the worker's task type and submits them for execution.
+     *
+     * @return the number of tasks submitted for execution, or -1 if no poll was
+     *         made because the worker is paused, out of discovery, has no free
+     *         slots or the poll failed
+     */
+    int pollAndExecute(AbstractWorker worker) {
+        if (drainPhase != DrainStatus.Phase.RUNNING) {
+            LOGGER.debug("Draining - will not poll");
+            return -1;
+        }
+
         Boolean discoveryOverride = Optional
                 .ofNullable(PropertyFactory.getBoolean(worker.getTaskDefName(), OVERRIDE_DISCOVERY, null))
                 .orElseGet(() -> PropertyFactory.getBoolean(ALL_WORKERS, OVERRIDE_DISCOVERY, false));
 
         if (eurekaClient != null && !eurekaClient.getInstanceRemoteStatus().equals(InstanceStatus.UP) && !discoveryOverride) {
             LOGGER.debug("Instance is NOT UP in discovery - will not poll");
-            return;
+            return -1;
         }
 
         if (worker.paused()) {
             MetricsContainer.incrementTaskPausedCount(worker.getTaskDefName());
             LOGGER.debug("Worker {} has been paused. Not polling anymore!", worker.getClass());
-            return;
+            return -1;
         }
 
         String taskType = worker.getTaskDefName();
+        if (taskUpdatePipeline != null && taskUpdatePipeline.isFull()) {
+            MetricsContainer.incrementTaskUpdateBackpressureCount(taskType);
+            LOGGER.debug("Too many pending task updates - will not poll for task type {}", taskType);
+            return -1;
+        }
+
+        if (fairShareScheduler != null) {
+            fairShareScheduler.maybeRebalance();
+        }
+
         PollingSemaphore pollingSemaphore = getPollingSemaphore(taskType);
 
-        int slotsToAcquire = pollingSemaphore.availableSlots();
-        if (slotsToAcquire <= 0 || !pollingSemaphore.acquireSlots(slotsToAcquire)) {
-            return;
+        PrefetchBuffer prefetchBuffer = prefetchBufferMap.get(taskType);
+
+        int availableSlots = pollingSemaphore.availableSlots();
+        if (availableSlots <= 0 || !pollingSemaphore.acquireSlots(availableSlots)) {
+            if (prefetchBuffer == null) {
+                return -1;
+            }
+            availableSlots = 0;
+        }
+
+        int usedSlots = 0;
+        int submittedTasks = 0;
+        if (prefetchBuffer != null) {
+            // run the prefetched tasks before polling for more
+            Task task;
+            while (usedSlots < availableSlots
+                    && (task = prefetchBuffer.poll(this::releasePrefetchedTask)) != null) {
+                submitTask(task, worker, pollingSemaphore);
+                usedSlots++;
+                submittedTasks++;
+            }
+        }
+
+        int tasksToPoll = acquireRateLimit(worker,
+                availableSlots - usedSlots + (prefetchBuffer == null ? 0 : prefetchBuffer.remainingCapacity()));
+        if (tasksToPoll <= 0) {
+            pollingSemaphore.complete(availableSlots - usedSlots);
+            return submittedTasks > 0 ? submittedTasks : -1;
+        }
+
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            MetricsContainer.incrementTaskPollSuppressedCount(taskType);
+            LOGGER.debug("Circuit breaker is open - will not poll for task type {}", taskType);
+            rateLimiter.release(taskType, tasksToPoll);
+            pollingSemaphore.complete(availableSlots - usedSlots);
+            return submittedTasks > 0 ? submittedTasks : -1;
         }
 
-        int acquiredTasks = 0;
+        PolledTasks polledTasks = new PolledTasks(worker, pollingSemaphore, prefetchBuffer, availableSlots,
+                usedSlots);
+        boolean polled = false;
         try {
-            String domain = Optional.ofNullable(PropertyFactory.getString(taskType, DOMAIN, null))
-                    .orElseGet(() -> Optional.ofNullable(PropertyFactory.getString(ALL_WORKERS, DOMAIN, null))
-                            .orElse(taskToDomain.get(taskType)));
+            DomainSelector domainSelector = getDomainSelector(taskType);
+            String domain = (domainSelector == null) ? getDomain(taskType) : domainSelector.next();
 
             LOGGER.debug("Polling task of type: {} in domain: '{}'", taskType, domain);
 
-            List<Task> tasks = MetricsContainer.getPollTimer(taskType)
-                    .record(() -> taskClient.batchPollTasksInDomain(taskType, domain, worker.getIdentity(),
-                            slotsToAcquire, worker.getBatchPollTimeoutInMS()));
-
-            acquiredTasks = tasks.size();
-            for (Task task : tasks) {
-                if (Objects.nonNull(task) && StringUtils.isNotBlank(task.getTaskId())) {
-                    MetricsContainer.incrementTaskPollCount(taskType, 1);
-                    LOGGER.debug("Polled task: {} of type: {} in domain: '{}', from worker: {}", task.getTaskId(),
-                            taskType, domain, worker.getIdentity());
-
-                    CompletableFuture<Task> taskCompletableFuture = CompletableFuture
-                            .supplyAsync(() -> processTask(task, worker, pollingSemaphore), executorService);
-
-                    if (task.getResponseTimeoutSeconds() > 0 && worker.leaseExtendEnabled()) {
-                        ScheduledFuture<?> leaseExtendFuture = leaseExtendExecutorService.scheduleWithFixedDelay(
-                                extendLease(task, taskCompletableFuture),
-                                Math.round(task.getResponseTimeoutSeconds() * LEASE_EXTEND_DURATION_FACTOR),
-                                Math.round(task.getResponseTimeoutSeconds() * LEASE_EXTEND_DURATION_FACTOR),
-                                TimeUnit.SECONDS);
-                        leaseExtendMap.put(task.getTaskId(), leaseExtendFuture);
-                    }
+            int receivedTasks;
+            if (worker.streamingPollEnabled()) {
+                // tasks start while the rest of the batch is still being received
+                receivedTasks = MetricsContainer.getPollTimer(taskType)
+                        .record(() -> taskClient.batchPollTasksInDomain(taskType, domain, worker.getIdentity(),
+                                tasksToPoll, worker.getBatchPollTimeoutInMS(), task -> polledTasks.add(task, domain)));
+            } else {
+                List<Task> tasks = MetricsContainer.getPollTimer(taskType)
+                        .record(() -> taskClient.batchPollTasksInDomain(taskType, domain, worker.getIdentity(),
+                                tasksToPoll, worker.getBatchPollTimeoutInMS()));
+                tasks.forEach(task -> polledTasks.add(task, domain));
+                receivedTasks = tasks.size();
+            }
+            polled = true;
+            if (circuitBreaker != null) {
+                circuitBreaker.onSuccess();
+            }
+            if (domainSelector != null) {
+                domainSelector.onPoll(domain, receivedTasks);
+            }
 
-                    taskCompletableFuture.whenComplete(this::finalizeTask);
+            recordPoll(worker, tasksToPoll, receivedTasks);
+            polledTasks.rethrowFailure();
+            submittedTasks += polledTasks.submittedTasks;
+        } catch (Exception e) {
+            MetricsContainer.incrementTaskPollErrorCount(worker.getTaskDefName(), e);
+            if (circuitBreaker == null || polled) {
+                LOGGER.error("Error when polling for tasks", e);
+            } else if (!isServerFailure(e)) {
+                // the server answered, or the request was not sent at all
+                circuitBreaker.onSuccess();
+                LOGGER.error("Error when polling for tasks", e);
+            } else {
+                circuitBreaker.onFailure();
+                if (circuitBreaker.shouldLogFailure()) {
+                    LOGGER.error("Error when polling for tasks", e);
                 } else {
-                    // no task was returned in the poll, release the permit
+                    LOGGER.debug("Error when polling for tasks: {}", e.toString());
+                }
+            }
+            recordPoll(worker, tasksToPoll, 0);
+            submittedTasks = -1;
+        }
+        usedSlots = polledTasks.usedSlots;
+
+        // tasks which were not returned do not count towards the rate limit
+        rateLimiter.release(taskType, tasksToPoll - polledTasks.polledTasks);
+
+        // immediately release unused permits
+        pollingSemaphore.complete(availableSlots - usedSlots);
+
+        if (prefetchBuffer != null) {
+            // slots released by tasks completing while the buffer was being filled
+            Task task;
+            while (prefetchBuffer.size() > 0 && drainPhase == DrainStatus.Phase.RUNNING
+                    && pollingSemaphore.acquireSlots(1)) {
+                if ((task = prefetchBuffer.poll(this::releasePrefetchedTask)) == null) {
                     pollingSemaphore.complete(1);
+                    break;
+                }
+                submitTask(task, worker, pollingSemaphore);
+                if (submittedTasks >= 0) {
+                    submittedTasks++;
                 }
             }
+            MetricsContainer.recordTaskPrefetchBufferSize(taskType, prefetchBuffer.size());
+        }
+
+        return submittedTasks;
+    }
+
+    /**
+     * @return true if the poll failed because the server was unreachable or
+     *         overloaded, rather than because it rejected the request
+     */
+    private static boolean isServerFailure(Exception e) {
+        if (!(e instanceof ClientException) || e instanceof ConcurrencyLimiter.LimitExceededException) {
+            return false;
+        }
+        int status = ((ClientException) e).getStatus();
+        return status == 0 || status == 429 || status >= 500;
+    }
+
+    /**
+     * @return the number of tasks which can be polled without exceeding the rate
+     *         limit of the task type, waiting at most one polling interval
+     */
+    private int acquireRateLimit(AbstractWorker worker, int tasksToPoll) {
+        try {
+            return rateLimiter.acquire(worker.getTaskDefName(), tasksToPoll, worker.getPollingInterval());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * Submits a task for execution, holding one slot of the task type until it
+     * completes.
+     */
+    private void submitTask(Task task, AbstractWorker worker, PollingSemaphore pollingSemaphore) {
+        long executionTimeout = executionTimeoutMillis(task, worker);
+        Execution execution = null;
+        if (executionTimeout > 0) {
+            execution = new Execution();
+            executions.put(task.getTaskId(), execution);
+        }
+
+        inFlightTasks.incrementAndGet();
+        CompletableFuture<Task> taskCompletableFuture;
+        try {
+            taskCompletableFuture = (worker instanceof AsyncWorker)
+                    ? processTaskAsync(task, (AsyncWorker) worker, pollingSemaphore)
+                    : CompletableFuture.supplyAsync(() -> processTask(task, worker, pollingSemaphore),
+                            executorService);
+        } catch (RuntimeException e) {
+            if (execution != null) {
+                executions.remove(task.getTaskId(), execution);
+            }
+            completeInFlightTask();
+            throw e;
+        }
+
+        if (execution != null) {
+            Execution timedExecution = execution;
+            execution.setTimeout(timeoutExecutorService.schedule(
+                    () -> timeOut(task, worker, pollingSemaphore, timedExecution, taskCompletableFuture),
+                    executionTimeout, TimeUnit.MILLISECONDS));
+        }
+
+        if (task.getResponseTimeoutSeconds() > 0 && worker.leaseExtendEnabled()) {
+            leaseExtender.track(task.getTaskId(),
+                    Math.round(task.getResponseTimeoutSeconds() * LEASE_EXTEND_DURATION_FACTOR * 1000),
+                    extendLease(task, taskCompletableFuture));
+        }
+
+        taskCompletableFuture.whenComplete(this::finalizeTask);
+    }
+
+    /**
+     * @return milliseconds after which the execution of the task times out, or 0
+     *         if it never does
+     */
+    private long executionTimeoutMillis(Task task, AbstractWorker worker) {
+        if (!worker.executionTimeoutEnabled()) {
+            return 0;
+        }
+        long timeoutSeconds = worker.getExecutionTimeoutSeconds();
+        if (timeoutSeconds <= 0 && !worker.leaseExtendEnabled()) {
+            timeoutSeconds = task.getResponseTimeoutSeconds();
+        }
+        return Math.max(TimeUnit.SECONDS.toMillis(timeoutSeconds), 0);
+    }
+
+    /**
+     * Gives up on a task which did not complete within its execution timeout:
+     * interrupts it, releases its slot and completes its future, its result will
+     * be dropped.
+     */
+    private void timeOut(Task task, AbstractWorker worker, PollingSemaphore pollingSemaphore, Execution execution,
+            CompletableFuture<Task> taskCompletableFuture) {
+        if (!execution.timeOut()) {
+            return;
+        }
+        MetricsContainer.incrementTaskExecutionTimeoutCount(worker.getTaskDefName());
+        LOGGER.warn("Task: {} of type: {} did not complete within its execution timeout, its slot is released",
+                task.getTaskId(), task.getTaskDefName());
+        completeSlot(worker, pollingSemaphore);
+        taskCompletableFuture.complete(task);
+    }
+
+    /**
+     * Ends the execution of a task, on the thread which executed it.
+     *
+     * @return true if the task still holds its slot, false if it timed out
+     */
+    private boolean endExecution(Task task, Execution execution) {
+        if (execution == null) {
+            return true;
+        }
+        executions.remove(task.getTaskId(), execution);
+        return execution.stop();
+    }
+
+    /**
+     * Hands the slot of a completed task over to the next prefetched task, or
+     * releases it if there is none.
+     */
+    private void completeSlot(AbstractWorker worker, PollingSemaphore pollingSemaphore) {
+        PrefetchBuffer prefetchBuffer = prefetchBufferMap.get(worker.getTaskDefName());
+        // the slots of a task type may have been reduced below the slots in use
+        Task task = (prefetchBuffer == null || drainPhase != DrainStatus.Phase.RUNNING
+                || pollingSemaphore.availableSlots() < 0) ? null
+                : prefetchBuffer.poll(this::releasePrefetchedTask);
+        if (task == null) {
+            pollingSemaphore.complete(1);
+            return;
+        }
+        try {
+            submitTask(task, worker, pollingSemaphore);
+        } catch (RejectedExecutionException e) {
+            releasePrefetchedTask(task);
+            pollingSemaphore.complete(1);
+        }
+    }
+
+    /**
+     * @return the time after which a prefetched task is handed back instead of
+     *         being executed, when its lease would have needed to be extended
+     */
+    private long prefetchDeadline(Task task) {
+        if (task.getResponseTimeoutSeconds() <= 0) {
+            return System.nanoTime() + Long.MAX_VALUE / 2;
+        }
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                Math.round(task.getResponseTimeoutSeconds() * LEASE_EXTEND_DURATION_FACTOR * 1000));
+    }
+
+    /**
+     * Hands a prefetched task back to the server, which queues it again right
+     * away for any worker to poll.
+     */
+    private void releasePrefetchedTask(Task task) {
+        MetricsContainer.incrementTaskPrefetchReleasedCount(task.getTaskDefName());
+        releaseTask(task);
+    }
+
+    /**
+     * Hands a task which was not started yet back to the server while draining.
+     */
+    private void releaseDrainedTask(Task task) {
+        MetricsContainer.incrementTaskDrainReleasedCount(task.getTaskDefName());
+        releasedTasks.incrementAndGet();
+        releaseTask(task);
+    }
+
+    private void releaseTask(Task task) {
+        TaskResult result = new TaskResult(task);
+        result.setStatus(TaskResult.Status.IN_PROGRESS);
+        result.setCallbackAfterSeconds(0);
+        result.log("Released by the worker before execution");
+        try {
+            taskClient.updateTask(result);
+            LOGGER.debug("Released task: {} of type: {}", task.getTaskId(), task.getTaskDefName());
         } catch (Exception e) {
-            MetricsContainer.incrementTaskPollErrorCount(worker.getTaskDefName(), e);
-            LOGGER.error("Error when polling for tasks", e);
+            LOGGER.warn("Unable to release task: {}, it will be retried after its response timeout",
+                    task.getTaskId(), e);
         }
+    }
 
-        // immediately release unused permits
-        pollingSemaphore.complete(slotsToAcquire - acquiredTasks);
+    /**
+     * Blocks until the worker's task type has at least one free slot.
+     *
+     * @return true if a slot is available, false if the timeout elapsed first
+     */
+    boolean awaitSlots(AbstractWorker worker, long timeoutInMillis) throws InterruptedException {
+        return getPollingSemaphore(worker.getTaskDefName()).awaitSlots(timeoutInMillis);
+    }
+
+    /**
+     * @return the polling policy of the worker, or null if the worker polls at a
+     *         fixed interval
+     */
+    PollingPolicy getPollingPolicy(AbstractWorker worker) {
+        return pollingPolicyMap.computeIfAbsent(worker.getTaskDefName(), taskType -> worker.getPollingPolicy());
+    }
+
+    private void recordPoll(AbstractWorker worker, int requestedTasks, int receivedTasks) {
+        if (fairShareScheduler != null) {
+            fairShareScheduler.onPoll(worker.getTaskDefName(), requestedTasks, receivedTasks);
+        }
+        if (autoscaler != null) {
+            autoscaler.onPoll(worker.getTaskDefName(), requestedTasks, receivedTasks);
+        }
+        PollingPolicy pollingPolicy = getPollingPolicy(worker);
+        if (pollingPolicy != null) {
+            pollingPolicy.onPoll(requestedTasks, receivedTasks);
+            MetricsContainer.recordTaskPollInterval(worker.getTaskDefName(), pollingPolicy.getCurrentInterval());
+        }
     }
 
     void shutdown(int timeout) {
+        if (autoscaler != null) {
+            autoscaler.shutdown();
+        }
+        prefetchBufferMap.values().forEach(prefetchBuffer -> prefetchBuffer.drain(this::releasePrefetchedTask));
         shutdownAndAwaitTermination(executorService, timeout);
-        shutdownAndAwaitTermination(leaseExtendExecutorService, timeout);
-        leaseExtendMap.clear();
+        if (taskUpdatePipeline != null) {
+            taskUpdatePipeline.shutdown(timeout);
+        }
+        leaseExtender.shutdown(timeout);
+        timeoutExecutorService.shutdownNow();
+    }
+
+    /**
+     * Drains the process in four steps: stops the polling, hands the prefetched
+     * and unstarted tasks back to the server, waits for the in flight tasks to
+     * complete and flushes their pending updates. Then shuts down what is left.
+     *
+     * @param pollingExecutorService
+     *            the executor running the polls, shut down first
+     * @param timeout
+     *            seconds allowed for the whole drain
+     */
+    DrainStatus drain(ExecutorService pollingExecutorService, int timeout) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        drainStartTime = System.nanoTime();
+        try {
+            setDrainPhase(DrainStatus.Phase.STOPPING_POLLING);
+            pollingExecutorService.shutdown();
+            if (!pollingExecutorService.awaitTermination(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                pollingExecutorService.shutdownNow();
+            }
+            if (autoscaler != null) {
+                autoscaler.shutdown();
+            }
+
+            setDrainPhase(DrainStatus.Phase.RELEASING_TASKS);
+            prefetchBufferMap.values().forEach(prefetchBuffer -> prefetchBuffer.drain(this::releaseDrainedTask));
+
+            setDrainPhase(DrainStatus.Phase.AWAITING_IN_FLIGHT);
+            awaitInFlightTasks(deadline);
+
+            setDrainPhase(DrainStatus.Phase.FLUSHING_UPDATES);
+            if (taskUpdatePipeline != null) {
+                while (!taskUpdatePipeline.awaitFlush(
+                        Math.min(remainingMillis(deadline), DRAIN_PROGRESS_INTERVAL_MILLIS), TimeUnit.MILLISECONDS)
+                        && remainingMillis(deadline) > 0) {
+                    MetricsContainer.recordTaskDrainPendingUpdates(taskUpdatePipeline.getPendingUpdates());
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("drain interrupted, shutting down");
+            Thread.currentThread().interrupt();
+        }
+        setDrainPhase(DrainStatus.Phase.DRAINED);
+
+        DrainStatus drainStatus = getDrainStatus();
+        MetricsContainer.recordTaskDrainInFlightCount(drainStatus.getInFlightTasks());
+        MetricsContainer.recordTaskDrainPendingUpdates(drainStatus.getPendingUpdates());
+        if (drainStatus.isComplete()) {
+            LOGGER.info("Drained in {} ms, {} tasks released", drainStatus.getElapsedMillis(),
+                    drainStatus.getReleasedTasks());
+        } else {
+            LOGGER.warn("Drain timed out after {} seconds with {} tasks in flight and {} pending updates", timeout,
+                    drainStatus.getInFlightTasks(), drainStatus.getPendingUpdates());
+        }
+        shutdown(0);
+        return drainStatus;
+    }
+
+    DrainStatus getDrainStatus() {
+        DrainStatus.Phase phase = drainPhase;
+        return new DrainStatus(phase, inFlightTasks.get(),
+                taskUpdatePipeline == null ? 0 : taskUpdatePipeline.getPendingUpdates(), releasedTasks.get(),
+                phase == DrainStatus.Phase.RUNNING ? 0
+                        : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - drainStartTime));
+    }
+
+    private void setDrainPhase(DrainStatus.Phase phase) {
+        LOGGER.info("Draining: {}", phase);
+        drainPhase = phase;
+        MetricsContainer.recordTaskDrainPhase(phase.ordinal());
+    }
+
+    private boolean awaitInFlightTasks(long deadline) throws InterruptedException {
+        synchronized (inFlightMonitor) {
+            int count;
+            while ((count = inFlightTasks.get()) > 0) {
+                MetricsContainer.recordTaskDrainInFlightCount(count);
+                long remaining = remainingMillis(deadline);
+                if (remaining <= 0) {
+                    return false;
+                }
+                inFlightMonitor.wait(Math.min(remaining, DRAIN_PROGRESS_INTERVAL_MILLIS));
+            }
+        }
+        MetricsContainer.recordTaskDrainInFlightCount(0);
+        return true;
+    }
+
+    private void completeInFlightTask() {
+        if (inFlightTasks.decrementAndGet() == 0 && drainPhase != DrainStatus.Phase.RUNNING) {
+            synchronized (inFlightMonitor) {
+                inFlightMonitor.notifyAll();
+            }
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 0);
     }
 
     void shutdownAndAwaitTermination(ExecutorService executorService, int timeout) {
@@ -199,7 +677,30 @@ class WorkerProcess {
         LOGGER.error("Uncaught exception. Thread {} will exit now", thread, error);
     };
 
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory workerThreadFactory(String namingPattern) {
+        AtomicLong threadCount = new AtomicLong(0);
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(String.format(namingPattern, threadCount.incrementAndGet()));
+            return thread;
+        };
+    }
+
     private Task processTask(Task task, AbstractWorker worker, PollingSemaphore pollingSemaphore) {
+        Execution execution = executions.get(task.getTaskId());
+        if (drainPhase != DrainStatus.Phase.RUNNING) {
+            // not started before the drain, let another worker execute it
+            releaseDrainedTask(task);
+            if (endExecution(task, execution)) {
+                completeSlot(worker, pollingSemaphore);
+            }
+            return task;
+        }
+        if (execution != null && !execution.start()) {
+            // timed out while waiting for a thread, the slot was already released
+            endExecution(task, execution);
+            return task;
+        }
         LOGGER.debug("Executing task: {} of type: {} in worker: {} at {}", task.getTaskId(), task.getTaskDefName(),
                 worker.getClass().getSimpleName(), worker.getIdentity());
         try {
@@ -209,11 +710,78 @@ class WorkerProcess {
             TaskResult result = new TaskResult(task);
             handleException(t, result, worker, task);
         } finally {
-            pollingSemaphore.complete(1);
+            if (endExecution(task, execution)) {
+                completeSlot(worker, pollingSemaphore);
+            }
         }
         return task;
     }
 
+    /**
+     * Starts an asynchronous task on the pool, then reports its result on the pool
+     * once its future completes. No thread is held while the task is in flight.
+     */
+    private CompletableFuture<Task> processTaskAsync(Task task, AsyncWorker worker,
+            PollingSemaphore pollingSemaphore) {
+        LOGGER.debug("Executing task: {} of type: {} asynchronously in worker: {} at {}", task.getTaskId(),
+                task.getTaskDefName(), worker.getClass().getSimpleName(), worker.getIdentity());
+        Execution execution = executions.get(task.getTaskId());
+        StopWatch stopwatch = new StopWatch();
+        return CompletableFuture.supplyAsync(() -> {
+            stopwatch.start();
+            CompletableFuture<TaskResult> result = worker.executeAsync(task);
+            if (execution != null) {
+                execution.setFuture(result);
+            }
+            return result;
+        }, executorService)
+                .thenCompose(Function.identity())
+                .handleAsync((result, t) -> {
+                    try {
+                        stopwatch.stop();
+                        recordExecutionTime(worker, stopwatch.getTime(TimeUnit.MILLISECONDS));
+                        if (t != null) {
+                            Throwable cause = (t instanceof CompletionException && t.getCause() != null)
+                                    ? t.getCause()
+                                    : t;
+                            task.setStatus(Task.Status.FAILED);
+                            handleException(cause, new TaskResult(task), worker, task);
+                        } else {
+                            result.setWorkflowInstanceId(task.getWorkflowInstanceId());
+                            result.setTaskId(task.getTaskId());
+                            result.setWorkerId(worker.getIdentity());
+                            LOGGER.debug("Task: {} executed by worker: {} at {} with status: {}", task.getTaskId(),
+                                    worker.getClass().getSimpleName(), worker.getIdentity(), result.getStatus());
+                            updateTaskResult(updateRetryCount, task, result, worker);
+                        }
+                    } finally {
+                        if (endExecution(task, execution)) {
+                            completeSlot(worker, pollingSemaphore);
+                        }
+                    }
+                    return task;
+                }, executorService);
+    }
+
+    private void recordExecutionTime(AbstractWorker worker, long executionTimeMillis) {
+        MetricsContainer.getExecutionTimer(worker.getTaskDefName()).record(executionTimeMillis,
+                TimeUnit.MILLISECONDS);
+        if (autoscaler != null) {
+            autoscaler.onExecuted(worker.getTaskDefName(), executionTimeMillis);
+        }
+    }
+
+    /**
+     * @return the # of pool threads used by a task type with the given thread
+     *         count
+     */
+    private int executorThreadCount(String taskType, int threadCount) {
+        if (asyncTaskTypes.contains(taskType)) {
+            return Math.min(threadCount, Runtime.getRuntime().availableProcessors());
+        }
+        return threadCount;
+    }
+
     private void executeTask(AbstractWorker worker, Task task) {
         StopWatch stopwatch = new StopWatch();
         stopwatch.start();
@@ -234,8 +802,7 @@ class WorkerProcess {
             handleException(e, result, worker, task);
         } finally {
             stopwatch.stop();
-            MetricsContainer.getExecutionTimer(worker.getTaskDefName()).record(stopwatch.getTime(TimeUnit.MILLISECONDS),
-                    TimeUnit.MILLISECONDS);
+            recordExecutionTime(worker, stopwatch.getTime(TimeUnit.MILLISECONDS));
         }
 
         LOGGER.debug("Task: {} executed by worker: {} at {} with status: {}", task.getTaskId(),
@@ -244,22 +811,29 @@ class WorkerProcess {
     }
 
     private void finalizeTask(Task task, Throwable throwable) {
+        completeInFlightTask();
         if (throwable != null) {
             LOGGER.error("Error processing task: {} of type: {}", task.getTaskId(), task.getTaskType(), throwable);
             MetricsContainer.incrementTaskExecutionErrorCount(task.getTaskType(), throwable);
         } else {
             LOGGER.debug("Task:{} of type:{} finished processing with status:{}", task.getTaskId(),
                     task.getTaskDefName(), task.getStatus());
-            String taskId = task.getTaskId();
-            ScheduledFuture<?> leaseExtendFuture = leaseExtendMap.get(taskId);
-            if (leaseExtendFuture != null) {
-                leaseExtendFuture.cancel(true);
-                leaseExtendMap.remove(taskId);
-            }
+            leaseExtender.cancel(task.getTaskId());
         }
     }
 
     private void updateTaskResult(int count, Task task, TaskResult result, AbstractWorker worker) {
+        Execution execution = executions.get(task.getTaskId());
+        if (execution != null && !execution.finish()) {
+            LOGGER.info("Dropping the result of task: {} of type: {}, which timed out", task.getTaskId(),
+                    task.getTaskDefName());
+            return;
+        }
+        if (taskUpdatePipeline != null) {
+            taskUpdatePipeline.submit(worker.getTaskDefName(), () -> sendTaskResult(task, result),
+                    e -> onUpdateFailure(e, task, result, worker));
+            return;
+        }
         try {
             // upload if necessary
             Optional<String> optionalExternalStorageLocation = retryOperation(
@@ -276,11 +850,31 @@ class WorkerProcess {
                 return null;
             }, count, result, "updateTask");
         } catch (Exception e) {
-            worker.onErrorUpdate(task);
-            MetricsContainer.incrementTaskUpdateErrorCount(worker.getTaskDefName(), e);
-            LOGGER.error(String.format("Failed to update result: %s for task: %s in worker: %s", result.toString(),
-                    task.getTaskDefName(), worker.getIdentity()), e);
+            onUpdateFailure(e, task, result, worker);
+        }
+    }
+
+    /**
+     * Uploads the output to external storage if it is too large, then updates the
+     * task on the server, without retrying. The upload is skipped if the output
+     * was already uploaded by a previous attempt.
+     */
+    private void sendTaskResult(Task task, TaskResult result) {
+        if (result.getExternalOutputPayloadStoragePath() == null) {
+            Optional<String> optionalExternalStorageLocation = upload(result, task.getTaskType());
+            if (optionalExternalStorageLocation.isPresent()) {
+                result.setExternalOutputPayloadStoragePath(optionalExternalStorageLocation.get());
+                result.setOutputData(null);
+            }
         }
+        taskClient.updateTask(result);
+    }
+
+    private void onUpdateFailure(Throwable t, Task task, TaskResult result, AbstractWorker worker) {
+        worker.onErrorUpdate(task);
+        MetricsContainer.incrementTaskUpdateErrorCount(worker.getTaskDefName(), t);
+        LOGGER.error(String.format("Failed to update result: %s for task: %s in worker: %s", result.toString(),
+                task.getTaskDefName(), worker.getIdentity()), t);
     }
 
     private Optional<String> upload(TaskResult result, String taskType) {
@@ -324,6 +918,38 @@ class WorkerProcess {
         updateTaskResult(updateRetryCount, task, result, worker);
     }
 
+    private String getDomain(String taskType) {
+        return Optional.ofNullable(PropertyFactory.getString(taskType, DOMAIN, null))
+                .orElseGet(() -> Optional.ofNullable(PropertyFactory.getString(ALL_WORKERS, DOMAIN, null))
+                        .orElse(taskToDomain.get(taskType)));
+    }
+
+    /**
+     * @return the selector spreading the polls across the domains of the task
+     *         type, or null if it has a single domain
+     */
+    private DomainSelector getDomainSelector(String taskType) {
+        String domains = getDomain(taskType);
+        if (!DomainSelector.isWeighted(domains)) {
+            return null;
+        }
+        // the domains are dynamic properties, the selector is replaced when they change
+        return domainSelectorMap.compute(taskType,
+                (type, domainSelector) -> (domainSelector != null && domainSelector.getDomainList().equals(domains))
+                        ? domainSelector
+                        : new DomainSelector(type, domains));
+    }
+
+    /**
+     * @return all the domains polled for the task type, null standing for no
+     *         domain
+     */
+    private List<String> getDomains(String taskType) {
+        DomainSelector domainSelector = getDomainSelector(taskType);
+        return (domainSelector == null) ? Collections.singletonList(getDomain(taskType))
+                : domainSelector.getDomains();
+    }
+
     private PollingSemaphore getPollingSemaphore(String taskType) {
         return pollingSemaphoreMap.get(taskType);
     }
@@ -333,6 +959,7 @@ class WorkerProcess {
             if (taskCompletableFuture.isDone()) {
                 LOGGER.warn("Task processing for {} completed, but its lease extend was not cancelled",
                         task.getTaskId());
+                leaseExtender.cancel(task.getTaskId());
                 return;
             }
             LOGGER.info("Attempting to extend lease for {}", task.getTaskId());
@@ -350,4 +977,236 @@ class WorkerProcess {
             }
         };
     }
+
+    /**
+     * The optional collaborators and settings of a {@link WorkerProcess}, all off
+     * by default.
+     */
+    static class Options {
+
+        private boolean useVirtualThreads = false;
+        private TaskUpdatePipeline taskUpdatePipeline;
+        private LeaseExtender leaseExtender;
+        private FairShareScheduler fairShareScheduler;
+        private ConcurrencyAutoscaler autoscaler;
+        private CircuitBreaker circuitBreaker;
+        private Map<String, Integer> taskPrefetchCount = Collections.emptyMap();
+        private Set<String> asyncTaskTypes = Collections.emptySet();
+
+        /**
+         * @param useVirtualThreads
+         *            execute the tasks on virtual threads, if supported
+         */
+        Options withVirtualThreads(boolean useVirtualThreads) {
+            this.useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        /**
+         * @param taskUpdatePipeline
+         *            pipeline reporting task results asynchronously, instead of on
+         *            the execution thread
+         */
+        Options withTaskUpdatePipeline(TaskUpdatePipeline taskUpdatePipeline) {
+            this.taskUpdatePipeline = taskUpdatePipeline;
+            return this;
+        }
+
+        /**
+         * @param leaseExtender
+         *            extends the lease of long running tasks, a single threaded one by
+         *            default
+         */
+        Options withLeaseExtender(LeaseExtender leaseExtender) {
+            this.leaseExtender = leaseExtender;
+            return this;
+        }
+
+        /**
+         * @param fairShareScheduler
+         *            shares the threads between the task types, instead of giving
+         *            each task type its fixed thread count
+         */
+        Options withFairShareScheduler(FairShareScheduler fairShareScheduler) {
+            this.fairShareScheduler = fairShareScheduler;
+            return this;
+        }
+
+        /**
+         * @param autoscaler
+         *            resizes the thread count of each task type at runtime
+         */
+        Options withAutoscaler(ConcurrencyAutoscaler autoscaler) {
+            this.autoscaler = autoscaler;
+            return this;
+        }
+
+        /**
+         * @param circuitBreaker
+         *            suspends polling while the server is failing
+         */
+        Options withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * @param taskPrefetchCount
+         *            # of tasks polled ahead of a free slot per task type
+         */
+        Options withTaskPrefetchCount(Map<String, Integer> taskPrefetchCount) {
+            this.taskPrefetchCount = Objects.requireNonNull(taskPrefetchCount);
+            return this;
+        }
+
+        /**
+         * @param asyncTaskTypes
+         *            the task types executed by an {@link AsyncWorker}, which only
+         *            need a few threads for their thread count
+         */
+        Options withAsyncTaskTypes(Set<String> asyncTaskTypes) {
+            this.asyncTaskTypes = Objects.requireNonNull(asyncTaskTypes);
+            return this;
+        }
+    }
+
+    /**
+     * The tasks received by a poll, executed while there are free slots and
+     * prefetched or handed back to the server once there are none. Tasks are
+     * added from the download threads of streamed polls, and the first failure to
+     * submit a task is kept to be thrown once the poll is over.
+     */
+    private class PolledTasks {
+
+        private final AbstractWorker worker;
+        private final PollingSemaphore pollingSemaphore;
+        private final PrefetchBuffer prefetchBuffer;
+        private final int availableSlots;
+        private int usedSlots;
+        private int submittedTasks = 0;
+        private int polledTasks = 0;
+        private RuntimeException failure;
+
+        PolledTasks(AbstractWorker worker, PollingSemaphore pollingSemaphore, PrefetchBuffer prefetchBuffer,
+                int availableSlots, int usedSlots) {
+            this.worker = worker;
+            this.pollingSemaphore = pollingSemaphore;
+            this.prefetchBuffer = prefetchBuffer;
+            this.availableSlots = availableSlots;
+            this.usedSlots = usedSlots;
+        }
+
+        synchronized void add(Task task, String domain) {
+            if (Objects.isNull(task) || StringUtils.isBlank(task.getTaskId())) {
+                return;
+            }
+            String taskType = worker.getTaskDefName();
+            MetricsContainer.incrementTaskPollCount(taskType, 1);
+            polledTasks++;
+            LOGGER.debug("Polled task: {} of type: {} in domain: '{}', from worker: {}", task.getTaskId(), taskType,
+                    domain, worker.getIdentity());
+            try {
+                if (usedSlots < availableSlots) {
+                    submitTask(task, worker, pollingSemaphore);
+                    usedSlots++;
+                    submittedTasks++;
+                } else if (prefetchBuffer == null || !prefetchBuffer.offer(task, prefetchDeadline(task))) {
+                    releasePrefetchedTask(task);
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        synchronized void rethrowFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * The execution of a task with a timeout: either the task finishes first and
+     * reports its result, or it times out first and its result is dropped.
+     */
+    private static class Execution {
+
+        private Thread thread;
+        private Future<?> future;
+        private ScheduledFuture<?> timeout;
+        private boolean finished = false;
+        private boolean timedOut = false;
+
+        /**
+         * @return false if the task timed out before it started
+         */
+        synchronized boolean start() {
+            thread = Thread.currentThread();
+            return !timedOut;
+        }
+
+        synchronized void setFuture(Future<?> future) {
+            this.future = future;
+            if (timedOut) {
+                future.cancel(true);
+            }
+        }
+
+        synchronized void setTimeout(ScheduledFuture<?> timeout) {
+            this.timeout = timeout;
+            if (finished) {
+                timeout.cancel(false);
+            }
+        }
+
+        /**
+         * @return true if the task finished before its timeout and its result can be
+         *         reported
+         */
+        synchronized boolean finish() {
+            if (timedOut) {
+                return false;
+            }
+            finished = true;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the task finished before its timeout, and still holds its
+         *         slot
+         */
+        synchronized boolean stop() {
+            boolean finishedInTime = finish();
+            if (thread == Thread.currentThread()) {
+                thread = null;
+                if (timedOut) {
+                    // clear the interrupt of the timeout before the thread runs another task
+                    Thread.interrupted();
+                }
+            }
+            return finishedInTime;
+        }
+
+        /**
+         * @return true if the task timed out before it finished
+         */
+        synchronized boolean timeOut() {
+            if (finished || timedOut) {
+                return false;
+            }
+            timedOut = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+            if (future != null) {
+                future.cancel(true);
+            }
+            return true;
+        }
+    }
 }
@@ -51,4 +51,33 @@ public interface AbstractClientConfiguration {
      *         task/workflow execution fails.
      */
     boolean isExternalPayloadStorageEnabled();
+
+    /**
+     * @return true to compress with gzip the request bodies larger than
+     *         {@link #getRequestCompressionThresholdKB()}, and to ask the server
+     *         for gzip compressed responses. Compressed requests are sent with
+     *         the transport of the client, or with the Jersey client as a
+     *         {@link com.swiftconductor.conductor.client.http.HttpTransport} if
+     *         there is none.
+     */
+    default boolean isCompressionEnabled() {
+        return false;
+    }
+
+    /**
+     * @return the request body size threshold in KB, beyond which the body is
+     *         compressed if {@link #isCompressionEnabled()}.
+     */
+    default int getRequestCompressionThresholdKB() {
+        return 1;
+    }
+
+    /**
+     * @return true to exchange the task polls and updates with the server in the
+     *         CBOR binary format, cheaper to encode and decode than JSON. The
+     *         client falls back to JSON if the server does not support CBOR.
+     */
+    default boolean isCborEnabled() {
+        return false;
+    }
 }
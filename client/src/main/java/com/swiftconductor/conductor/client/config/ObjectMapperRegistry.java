@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.config;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.swiftconductor.conductor.common.jackson.JsonProtoModule;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * The {@link ObjectMapper} shared by the clients, and the readers and writers
+ * of the types serialized on every poll and update.
+ *
+ * <p>
+ * Jackson caches the serializers and deserializers of a mapper, sharing it
+ * avoids building them again for every client. The mapper is configured like
+ * the one of {@link com.swiftconductor.conductor.common.config.ObjectMapperProvider}
+ * and must not be reconfigured: use {@link ObjectMapper#copy()} to change its
+ * configuration. The readers and writers are immutable.
+ *
+ * <p>
+ * The mapper generates the bytecode of its property accessors with the
+ * Afterburner module. The <code>conductor.client.jackson.module</code> system
+ * property selects another module: <code>blackbird</code>, which uses method
+ * handles and suits Java 11 and later better, but requires
+ * <code>com.fasterxml.jackson.module:jackson-module-blackbird</code> on the
+ * classpath, or <code>none</code>.
+ *
+ * <p>
+ * A second mapper, configured the same way, reads and writes the CBOR binary
+ * format, which some endpoints can exchange instead of JSON.
+ */
+public final class ObjectMapperRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectMapperRegistry.class);
+
+    public static final String MODULE_PROPERTY = "conductor.client.jackson.module";
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper(new JsonFactory());
+    private static final ObjectMapper CBOR_MAPPER = createObjectMapper(new CBORFactory());
+
+    private static final TypeReference<List<Task>> TASK_LIST_TYPE = new TypeReference<List<Task>>() {
+    };
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private static final ObjectReader TASK_READER = OBJECT_MAPPER.readerFor(Task.class);
+    private static final ObjectReader TASK_LIST_READER = OBJECT_MAPPER.readerFor(TASK_LIST_TYPE);
+    private static final ObjectReader MAP_READER = OBJECT_MAPPER.readerFor(MAP_TYPE);
+    private static final ObjectWriter TASK_RESULT_WRITER = OBJECT_MAPPER.writerFor(TaskResult.class);
+    private static final ObjectWriter MAP_WRITER = OBJECT_MAPPER.writerFor(MAP_TYPE);
+
+    private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectReader> CBOR_READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> CBOR_WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        READERS.put(Task.class, TASK_READER);
+        READERS.put(TASK_LIST_TYPE.getType(), TASK_LIST_READER);
+        READERS.put(MAP_TYPE.getType(), MAP_READER);
+        WRITERS.put(TaskResult.class, TASK_RESULT_WRITER);
+    }
+
+    private ObjectMapperRegistry() {}
+
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * @return the mapper of the CBOR format, which must not be reconfigured either
+     */
+    public static ObjectMapper getCborMapper() {
+        return CBOR_MAPPER;
+    }
+
+    public static ObjectReader getTaskReader() {
+        return TASK_READER;
+    }
+
+    public static ObjectReader getTaskListReader() {
+        return TASK_LIST_READER;
+    }
+
+    public static ObjectReader getMapReader() {
+        return MAP_READER;
+    }
+
+    public static ObjectWriter getTaskResultWriter() {
+        return TASK_RESULT_WRITER;
+    }
+
+    public static ObjectWriter getMapWriter() {
+        return MAP_WRITER;
+    }
+
+    /**
+     * @return the reader of a type, e.g. the response type of a request, created
+     *         once per type
+     */
+    public static ObjectReader readerFor(Type type) {
+        return READERS.computeIfAbsent(type,
+                t -> OBJECT_MAPPER.readerFor(OBJECT_MAPPER.getTypeFactory().constructType(t)));
+    }
+
+    /**
+     * @return the writer of a class, e.g. the class of a request body, created once
+     *         per class
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, OBJECT_MAPPER::writerFor);
+    }
+
+    /**
+     * @return the CBOR reader of a type, created once per type
+     */
+    public static ObjectReader cborReaderFor(Type type) {
+        return CBOR_READERS.computeIfAbsent(type,
+                t -> CBOR_MAPPER.readerFor(CBOR_MAPPER.getTypeFactory().constructType(t)));
+    }
+
+    /**
+     * @return the CBOR writer of a class, created once per class
+     */
+    public static ObjectWriter cborWriterFor(Class<?> type) {
+        return CBOR_WRITERS.computeIfAbsent(type, CBOR_MAPPER::writerFor);
+    }
+
+    /**
+     * Registers the accessor generation module selected by the
+     * <code>conductor.client.jackson.module</code> system property, Afterburner by
+     * default.
+     */
+    public static ObjectMapper registerAccessorModule(ObjectMapper objectMapper) {
+        String module = System.getProperty(MODULE_PROPERTY, "afterburner");
+        if (module.equals("none")) {
+            return objectMapper;
+        }
+        if (!module.equals("blackbird") || !registerBlackbird(objectMapper)) {
+            objectMapper.registerModule(new AfterburnerModule());
+        }
+        return objectMapper;
+    }
+
+    /**
+     * @return true if jackson-databind is 2.12 or newer, which no longer handles
+     *         the java.time types without the JavaTimeModule
+     */
+    public static boolean isNewerJacksonVersion() {
+        // https://github.com/FasterXML/jackson-databind/issues/2683
+        Version version = com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
+        return version.getMajorVersion() == 2 && version.getMinorVersion() >= 12;
+    }
+
+    /**
+     * @return false if the Blackbird module is not on the classpath
+     */
+    private static boolean registerBlackbird(ObjectMapper objectMapper) {
+        try {
+            objectMapper.registerModule(
+                    (Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance());
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("Jackson Blackbird module not found, using Afterburner", e);
+            return false;
+        }
+    }
+
+    private static ObjectMapper createObjectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
+        objectMapper.setDefaultPropertyInclusion(
+                JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.ALWAYS));
+        objectMapper.registerModule(new JsonProtoModule());
+        registerAccessorModule(objectMapper);
+
+        if (isNewerJacksonVersion()) {
+            objectMapper.registerModule(new JavaTimeModule());
+        }
+        return objectMapper;
+    }
+}
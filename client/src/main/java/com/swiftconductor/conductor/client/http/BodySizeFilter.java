@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Records the sizes of the request and response bodies sent by the Jersey
+ * client, as {@link ClientBase} does for the requests sent with a
+ * {@link HttpTransport}. Only the requests labeled with the {@link #ENDPOINT}
+ * property are recorded, the sizes are known once their bodies are closed.
+ */
+class BodySizeFilter extends ClientFilter {
+
+    /** The name of the request property holding the endpoint name of the metrics. */
+    static final String ENDPOINT = BodySizeFilter.class.getName() + ".endpoint";
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        String endpoint = (String) request.getProperties().get(ENDPOINT);
+        if (endpoint == null) {
+            return getNext().handle(request);
+        }
+        String method = request.getMethod();
+        if (request.getEntity() != null) {
+            request.setAdapter(new CountingAdapter(request.getAdapter(), endpoint));
+        }
+        ClientResponse response = getNext().handle(request);
+        InputStream body = response.getEntityInputStream();
+        if (body != null) {
+            response.setEntityInputStream(new CountingInputStream(body) {
+                private boolean closed = false;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        MetricsContainer.recordHttpResponseSize(endpoint, method, getByteCount());
+                    }
+                    super.close();
+                }
+            });
+        }
+        return response;
+    }
+
+    private static class CountingAdapter extends AbstractClientRequestAdapter {
+
+        private final String endpoint;
+
+        CountingAdapter(ClientRequestAdapter adapter, String endpoint) {
+            super(adapter);
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public OutputStream adapt(ClientRequest request, OutputStream out) throws IOException {
+            return new CountingOutputStream(getAdapter().adapt(request, out)) {
+                private boolean closed = false;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        MetricsContainer.recordHttpRequestSize(endpoint, request.getMethod(), getByteCount());
+                    }
+                    super.close();
+                }
+            };
+        }
+    }
+}
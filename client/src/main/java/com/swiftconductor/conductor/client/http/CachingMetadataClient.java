@@ -0,0 +1,433 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.config.ObjectMapperRegistry;
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskDef;
+import com.swiftconductor.conductor.common.metadata.workflow.WorkflowDef;
+
+/**
+ * A {@link MetadataClient} caching the workflow and task definitions read with
+ * another metadata client.
+ *
+ * <p>
+ * A definition is served from the cache during its time to live. During the
+ * following stale period, the cached definition is still served while it is
+ * read again in the background (stale-while-revalidate). Past it, the
+ * definition is read again before being returned. The least recently used
+ * definitions are evicted once the cache is full.
+ *
+ * <p>
+ * The definitions registered, updated or unregistered through this client are
+ * evicted right away, the ones changed by other clients are refreshed once
+ * their time to live elapsed.
+ *
+ * <p>
+ * The definitions are cached serialized, so that every caller gets its own copy
+ * which it is free to change.
+ */
+public class CachingMetadataClient extends MetadataClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingMetadataClient.class);
+
+    private static final String WORKFLOW_DEF = "workflowDef";
+    private static final String TASK_DEF = "taskDef";
+
+    private static final ExecutorService REFRESH_EXECUTOR = newRefreshExecutor();
+
+    private final MetadataClient delegate;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final Map<Key, CachedValue> cache;
+    private final Map<Key, CompletableFuture<byte[]>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong(0);
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * Caches up to 1000 definitions, for 1 minute, served stale for another
+     * minute while they are refreshed.
+     *
+     * @param delegate
+     *            the client reading the definitions from the server
+     */
+    public CachingMetadataClient(MetadataClient delegate) {
+        this(delegate, 60_000, 60_000, 1000);
+    }
+
+    /**
+     * @param delegate
+     *            the client reading the definitions from the server
+     * @param ttlMillis
+     *            time during which a definition is served from the cache
+     * @param staleMillis
+     *            time after the time to live during which a definition is still
+     *            served from the cache while it is refreshed, 0 to always read
+     *            expired definitions again before returning them
+     * @param maximumSize
+     *            # of definitions above which the least recently used ones are
+     *            evicted
+     */
+    public CachingMetadataClient(MetadataClient delegate, long ttlMillis, long staleMillis, int maximumSize) {
+        super(Validate.notNull(delegate, "Metadata client cannot be null").requestHandler);
+        Validate.isTrue(ttlMillis >= 0 && staleMillis >= 0, "Time to live and stale time cannot be negative");
+        Validate.isTrue(maximumSize > 0, "Maximum size must be greater than 0");
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMillis);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedValue> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public void setRootURI(String root) {
+        delegate.setRootURI(root);
+    }
+
+    @Override
+    public void setEndpointGroup(EndpointGroup endpointGroup) {
+        delegate.setEndpointGroup(endpointGroup);
+    }
+
+    @Override
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        delegate.setConcurrencyLimiter(concurrencyLimiter);
+    }
+
+    @Override
+    public void setTransport(HttpTransport transport) {
+        // also called by the constructor of the client, before the delegate is set
+        if (delegate != null) {
+            delegate.setTransport(transport);
+        }
+    }
+
+    /**
+     * @return # of definitions served from the cache, including the stale ones
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return # of definitions read from the server before being returned
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Evicts all the cached definitions.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            cache.clear();
+        }
+        loads.clear();
+    }
+
+    // Workflow Metadata Operations
+
+    @Override
+    public void registerWorkflowDef(WorkflowDef workflowDef) {
+        Validate.notNull(workflowDef, "Workflow definition cannot be null");
+        try {
+            delegate.registerWorkflowDef(workflowDef);
+        } finally {
+            invalidate(WORKFLOW_DEF, workflowDef.getName());
+        }
+    }
+
+    @Override
+    public void validateWorkflowDef(WorkflowDef workflowDef) {
+        delegate.validateWorkflowDef(workflowDef);
+    }
+
+    @Override
+    public void updateWorkflowDefs(List<WorkflowDef> workflowDefs) {
+        Validate.notNull(workflowDefs, "Workflow defs list cannot be null");
+        try {
+            delegate.updateWorkflowDefs(workflowDefs);
+        } finally {
+            workflowDefs.forEach(workflowDef -> invalidate(WORKFLOW_DEF, workflowDef.getName()));
+        }
+    }
+
+    /**
+     * Retrieve the workflow definition, from the cache if it was read recently
+     *
+     * @param name
+     *            the name of the workflow
+     * @param version
+     *            the version of the workflow def, null for the latest version
+     * @return Workflow definition for the given workflow and version
+     */
+    @Override
+    public WorkflowDef getWorkflowDef(String name, Integer version) {
+        Validate.notBlank(name, "name cannot be blank");
+        return get(new Key(WORKFLOW_DEF, name, version), WorkflowDef.class,
+                () -> delegate.getWorkflowDef(name, version));
+    }
+
+    @Override
+    public List<WorkflowDef> getAllWorkflowsWithLatestVersions() {
+        return delegate.getAllWorkflowsWithLatestVersions();
+    }
+
+    @Override
+    public void unregisterWorkflowDef(String name, Integer version) {
+        try {
+            delegate.unregisterWorkflowDef(name, version);
+        } finally {
+            invalidate(WORKFLOW_DEF, name);
+        }
+    }
+
+    // Task Metadata Operations
+
+    @Override
+    public void registerTaskDefs(List<TaskDef> taskDefs) {
+        Validate.notNull(taskDefs, "Task defs list cannot be null");
+        try {
+            delegate.registerTaskDefs(taskDefs);
+        } finally {
+            taskDefs.forEach(taskDef -> invalidate(TASK_DEF, taskDef.getName()));
+        }
+    }
+
+    @Override
+    public void updateTaskDef(TaskDef taskDef) {
+        Validate.notNull(taskDef, "Task definition cannot be null");
+        try {
+            delegate.updateTaskDef(taskDef);
+        } finally {
+            invalidate(TASK_DEF, taskDef.getName());
+        }
+    }
+
+    /**
+     * Retrieve the task definition of a given task type, from the cache if it was
+     * read recently
+     *
+     * @param taskType
+     *            type of task for which to retrieve the definition
+     * @return Task Definition for the given task type
+     */
+    @Override
+    public TaskDef getTaskDef(String taskType) {
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        return get(new Key(TASK_DEF, taskType, null), TaskDef.class, () -> delegate.getTaskDef(taskType));
+    }
+
+    @Override
+    public void unregisterTaskDef(String taskType) {
+        try {
+            delegate.unregisterTaskDef(taskType);
+        } finally {
+            invalidate(TASK_DEF, taskType);
+        }
+    }
+
+    private <T> T get(Key key, Class<T> type, Supplier<T> reader) {
+        CachedValue cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            long age = System.nanoTime() - cached.readTime;
+            if (age < ttlNanos) {
+                recordHit(key);
+                return copy(cached.json, type);
+            }
+            if (age - ttlNanos < staleNanos) {
+                recordHit(key);
+                refresh(key, cached, reader);
+                return copy(cached.json, type);
+            }
+        }
+        missCount.incrementAndGet();
+        MetricsContainer.incrementMetadataCacheMissCount(key.type);
+        return copy(load(key, reader), type);
+    }
+
+    private void recordHit(Key key) {
+        hitCount.incrementAndGet();
+        MetricsContainer.incrementMetadataCacheHitCount(key.type);
+    }
+
+    /**
+     * Reads a definition missing from the cache, concurrent misses of the same
+     * definition wait for the same read.
+     */
+    private byte[] load(Key key, Supplier<?> reader) {
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> pendingLoad = loads.putIfAbsent(key, load);
+        if (pendingLoad != null) {
+            try {
+                return pendingLoad.join();
+            } catch (CompletionException e) {
+                Throwable cause = unwrap(e);
+                throw (cause instanceof RuntimeException) ? (RuntimeException) cause : e;
+            }
+        }
+        try {
+            byte[] json = read(key, reader);
+            load.complete(json);
+            return json;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private void refresh(Key key, CachedValue cached, Supplier<?> reader) {
+        if (!cached.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        REFRESH_EXECUTOR.execute(() -> {
+            try {
+                read(key, reader);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to refresh the {} {}, serving the cached one until it expires", key.type,
+                        key.name, e);
+            } finally {
+                cached.refreshing.set(false);
+            }
+        });
+    }
+
+    private byte[] read(Key key, Supplier<?> reader) {
+        long readGeneration = generation.get();
+        long readTime = System.nanoTime();
+        Object value = reader.get();
+        byte[] json;
+        try {
+            json = (value == null) ? null : ObjectMapperRegistry.writerFor(value.getClass()).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new ClientException(String.format("Unable to cache the %s %s", key.type, key.name), e);
+        }
+        synchronized (cache) {
+            // a definition changed during the read may have been read before the change
+            if (generation.get() == readGeneration) {
+                cache.put(key, new CachedValue(json, readTime));
+            }
+        }
+        return json;
+    }
+
+    private static <T> T copy(byte[] json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return ObjectMapperRegistry.readerFor(type).readValue(json);
+        } catch (IOException e) {
+            throw new ClientException("Unable to read the cached " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Evicts all the versions of a definition.
+     */
+    private void invalidate(String type, String name) {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.matches(type, name));
+        }
+        loads.keySet().removeIf(key -> key.matches(type, name));
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("conductor-metadata-refresh-%d").daemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Key {
+
+        private final String type;
+        private final String name;
+        private final Integer version;
+
+        Key(String type, String name, Integer version) {
+            this.type = type;
+            this.name = name;
+            this.version = version;
+        }
+
+        boolean matches(String type, String name) {
+            return this.type.equals(type) && Objects.equals(this.name, name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return type.equals(key.type) && name.equals(key.name) && Objects.equals(version, key.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name, version);
+        }
+    }
+
+    private static final class CachedValue {
+
+        private final byte[] json;
+        private final long readTime;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CachedValue(byte[] json, long readTime) {
+            this.json = json;
+            this.readTime = readTime;
+        }
+    }
+}
@@ -16,21 +16,40 @@ package com.swiftconductor.conductor.client.http;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 
 import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.GenericType;
@@ -38,8 +57,9 @@ import com.sun.jersey.api.client.UniformInterfaceException;
 import com.sun.jersey.api.client.WebResource.Builder;
 import com.swiftconductor.conductor.client.config.AbstractClientConfiguration;
 import com.swiftconductor.conductor.client.config.DefaultClientConfiguration;
+import com.swiftconductor.conductor.client.config.ObjectMapperRegistry;
 import com.swiftconductor.conductor.client.exception.ClientException;
-import com.swiftconductor.conductor.common.config.ObjectMapperProvider;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
 import com.swiftconductor.conductor.common.model.BulkResponse;
 import com.swiftconductor.conductor.common.run.ExternalStorageLocation;
 import com.swiftconductor.conductor.common.utils.ExternalPayloadStorage;
@@ -50,33 +70,86 @@ public abstract class ClientBase {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientBase.class);
 
+    private static final String ACCEPT = MediaType.APPLICATION_JSON + ", " + MediaType.TEXT_PLAIN;
+
+    private static final String CBOR = "application/cbor";
+
+    private static final Pattern PATH_VARIABLE = Pattern.compile("/\\{[^}]*}");
+
+    private static final String CBOR_ACCEPT = CBOR + ", " + MediaType.APPLICATION_JSON + ";q=0.9, "
+            + MediaType.TEXT_PLAIN + ";q=0.8";
+
     protected ClientRequestHandler requestHandler;
 
+    protected HttpTransport transport;
+
     protected String root = "";
 
+    protected EndpointGroup endpointGroup;
+
+    protected ConcurrencyLimiter concurrencyLimiter;
+
     protected ObjectMapper objectMapper;
 
     protected PayloadStorage payloadStorage;
 
     protected AbstractClientConfiguration conductorClientConfiguration;
 
-    protected ClientBase(ClientRequestHandler requestHandler, AbstractClientConfiguration clientConfiguration) {
-        this.objectMapper = new ObjectMapperProvider().getObjectMapper();
-
-        // https://github.com/FasterXML/jackson-databind/issues/2683
-        if (isNewerJacksonVersion()) {
-            objectMapper.registerModule(new JavaTimeModule());
-        }
+    private volatile boolean cborRejected = false;
 
+    protected ClientBase(ClientRequestHandler requestHandler, AbstractClientConfiguration clientConfiguration) {
+        this.objectMapper = ObjectMapperRegistry.getObjectMapper();
         this.requestHandler = requestHandler;
         this.conductorClientConfiguration = ObjectUtils.defaultIfNull(clientConfiguration, new DefaultClientConfiguration());
         this.payloadStorage = new PayloadStorage(this);
+        setTransport(null);
     }
 
     public void setRootURI(String root) {
         this.root = root;
     }
 
+    /**
+     * Spreads the requests over several servers, instead of sending them to the
+     * root URI.
+     *
+     * @param endpointGroup
+     *            the servers, can be shared by several clients
+     */
+    public void setEndpointGroup(EndpointGroup endpointGroup) {
+        this.endpointGroup = endpointGroup;
+    }
+
+    /**
+     * Bounds the # of concurrent requests sent to the server.
+     *
+     * @param concurrencyLimiter
+     *            the limiter, shared by the clients whose requests are bounded
+     *            together, null to send the requests without limit
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Sends the requests with a {@link HttpTransport}, e.g.
+     * {@link JdkHttpTransport}, instead of the Jersey client of the request
+     * handler.
+     *
+     * @param transport
+     *            the transport, can be shared by several clients, null to use the
+     *            Jersey client
+     */
+    public void setTransport(HttpTransport transport) {
+        if (transport == null && (conductorClientConfiguration.isCompressionEnabled()
+                || conductorClientConfiguration.isCborEnabled())) {
+            // the Jersey request builders only send JSON, send the encoded bodies with the Jersey client instead
+            this.transport = requestHandler;
+        } else {
+            this.transport = transport;
+        }
+    }
+
     protected void delete(String url, Object... uriVariables) {
         deleteWithUriVariables(null, url, uriVariables);
     }
@@ -90,27 +163,38 @@ public abstract class ClientBase {
     }
 
     private BulkResponse delete(Object[] queryParams, String url, Object[] uriVariables, Object body) {
-        URI uri = null;
-        BulkResponse response = null;
-        try {
-            uri = getURIBuilder(root + url, queryParams).build(uriVariables);
-            response = requestHandler.delete(uri, body);
-        } catch (UniformInterfaceException e) {
-            handleUniformInterfaceException(e, uri);
-        } catch (RuntimeException e) {
-            handleRuntimeException(e, uri);
-        }
-        return response;
+        return invoke(HttpMethod.DELETE, url, rootURI -> {
+            URI uri = null;
+            BulkResponse response = null;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+                if (transport != null) {
+                    return exchange(HttpMethod.DELETE, uri, url, body, (body == null) ? null : BulkResponse.class);
+                }
+                response = requestHandler.delete(uri, body, getEndpointName(url));
+            } catch (UniformInterfaceException e) {
+                handleUniformInterfaceException(e, uri);
+            } catch (RuntimeException e) {
+                handleRuntimeException(e, uri);
+            }
+            return response;
+        }, false);
     }
 
     protected void put(String url, Object[] queryParams, Object request, Object... uriVariables) {
-        URI uri = null;
-        try {
-            uri = getURIBuilder(root + url, queryParams).build(uriVariables);
-            requestHandler.getWebResourceBuilder(uri, request).put();
-        } catch (RuntimeException e) {
-            handleException(uri, e);
-        }
+        invoke(HttpMethod.PUT, url, rootURI -> {
+            URI uri = null;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+                if (transport != null) {
+                    return exchange(HttpMethod.PUT, uri, url, request, null);
+                }
+                requestHandler.getWebResourceBuilder(uri, request, getEndpointName(url)).put();
+            } catch (RuntimeException e) {
+                handleException(uri, e);
+            }
+            return null;
+        }, false);
     }
 
     protected void postForEntityWithRequestOnly(String url, Object request) {
@@ -131,56 +215,593 @@ public abstract class ClientBase {
 
     protected <T> T postForEntity(String url, Object request, Object[] queryParams, GenericType<T> responseType,
             Object... uriVariables) {
-        return postForEntity(url, request, queryParams, responseType, builder -> builder.post(responseType),
-                uriVariables);
+        return postForEntity(url, request, queryParams, (responseType == null) ? null : responseType.getType(),
+                builder -> builder.post(responseType), uriVariables);
     }
 
-    private <T> T postForEntity(String url, Object request, Object[] queryParams, Object responseType,
+    private <T> T postForEntity(String url, Object request, Object[] queryParams, Type responseType,
             Function<Builder, T> postWithEntity, Object... uriVariables) {
-        URI uri = null;
-        try {
-            uri = getURIBuilder(root + url, queryParams).build(uriVariables);
-            Builder webResourceBuilder = requestHandler.getWebResourceBuilder(uri, request);
-            if (responseType == null) {
-                webResourceBuilder.post();
-                return null;
+        return invoke(HttpMethod.POST, url, rootURI -> {
+            URI uri = null;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+                if (transport != null) {
+                    return exchange(HttpMethod.POST, uri, url, request, responseType);
+                }
+                Builder webResourceBuilder = requestHandler.getWebResourceBuilder(uri, request, getEndpointName(url));
+                if (responseType == null) {
+                    webResourceBuilder.post();
+                    return null;
+                }
+                return postWithEntity.apply(webResourceBuilder);
+            } catch (UniformInterfaceException e) {
+                handleUniformInterfaceException(e, uri);
+            } catch (RuntimeException e) {
+                handleRuntimeException(e, uri);
             }
-            return postWithEntity.apply(webResourceBuilder);
-        } catch (UniformInterfaceException e) {
-            handleUniformInterfaceException(e, uri);
-        } catch (RuntimeException e) {
-            handleRuntimeException(e, uri);
-        }
-        return null;
+            return null;
+        }, false);
     }
 
     protected <T> T getForEntity(String url, Object[] queryParams, Class<T> responseType, Object... uriVariables) {
-        return getForEntity(url, queryParams, response -> response.getEntity(responseType), uriVariables);
+        return getForEntity(url, queryParams, responseType, response -> response.getEntity(responseType),
+                uriVariables);
     }
 
     protected <T> T getForEntity(String url, Object[] queryParams, GenericType<T> responseType,
             Object... uriVariables) {
-        return getForEntity(url, queryParams, response -> response.getEntity(responseType), uriVariables);
+        return getForEntity(url, queryParams, responseType.getType(), response -> response.getEntity(responseType),
+                uriVariables);
+    }
+
+    private <T> T getForEntity(String url, Object[] queryParams, Type responseType,
+            Function<ClientResponse, T> entityProvider, Object... uriVariables) {
+        return invoke(HttpMethod.GET, url, rootURI -> {
+            URI uri = null;
+            ClientResponse clientResponse;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+                if (transport != null) {
+                    return exchange(HttpMethod.GET, uri, url, null, responseType);
+                }
+                clientResponse = requestHandler.get(uri, getEndpointName(url));
+                if (clientResponse.getStatus() < 300) {
+                    return entityProvider.apply(clientResponse);
+                } else {
+                    throw new UniformInterfaceException(clientResponse);
+                }
+            } catch (UniformInterfaceException e) {
+                handleUniformInterfaceException(e, uri);
+            } catch (RuntimeException e) {
+                handleRuntimeException(e, uri);
+            }
+            return null;
+        }, true);
+    }
+
+    /**
+     * Gets a JSON array and hands its elements to the consumer one at a time, as
+     * soon as each of them is parsed, without reading the whole array in memory.
+     * The consumer is called on the calling thread and must not throw. A failed
+     * request only fails over to another endpoint before the first element is
+     * handed to the consumer, so that no element is delivered twice.
+     *
+     * @return the # of elements handed to the consumer
+     */
+    protected <T> int getForEntityStream(String url, Object[] queryParams, Class<T> elementType,
+            Consumer<? super T> consumer, Object... uriVariables) {
+        AtomicBoolean delivered = new AtomicBoolean(false);
+        Consumer<T> deliveringConsumer = element -> {
+            delivered.set(true);
+            consumer.accept(element);
+        };
+        return invoke(HttpMethod.GET, url, rootURI -> {
+            URI uri = null;
+            ClientResponse clientResponse = null;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+                if (transport != null) {
+                    try (TransportResponse response = execute(HttpMethod.GET, uri, url, null, elementType)) {
+                        Compression.CountingInputStream body = new Compression.CountingInputStream(
+                                Compression.decompress(response), null);
+                        try {
+                            if (response.getStatus() >= 300) {
+                                handleErrorResponse(response.getStatus(),
+                                        errorMessage(response, body.readAllBytes()), uri);
+                            }
+                            return readArray(body, elementType, deliveringConsumer, isCbor(response));
+                        } finally {
+                            MetricsContainer.recordHttpResponseSize(getEndpointName(url), HttpMethod.GET,
+                                    body.getCount());
+                        }
+                    } catch (IOException e) {
+                        throw newTransportException(e, uri);
+                    }
+                }
+                clientResponse = requestHandler.get(uri, getEndpointName(url));
+                if (clientResponse.getStatus() >= 300) {
+                    throw new UniformInterfaceException(clientResponse);
+                }
+                return readArray(clientResponse.getEntityInputStream(), elementType, deliveringConsumer, false);
+            } catch (IOException e) {
+                handleClientHandlerException(new ClientHandlerException(e), uri);
+            } catch (UniformInterfaceException e) {
+                handleUniformInterfaceException(e, uri);
+            } catch (RuntimeException e) {
+                handleRuntimeException(e, uri);
+            } finally {
+                if (clientResponse != null) {
+                    clientResponse.close();
+                }
+            }
+            return 0;
+        }, () -> !delivered.get());
+    }
+
+    private <T> int readArray(InputStream body, Class<T> elementType, Consumer<? super T> consumer, boolean cbor)
+            throws IOException {
+        if (body == null) {
+            return 0;
+        }
+        ObjectReader reader = cbor ? ObjectMapperRegistry.cborReaderFor(elementType) : readerFor(elementType);
+        int count = 0;
+        try (JsonParser parser = reader.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array");
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected a JSON object or null in the array");
+                }
+                consumer.accept(reader.readValue(parser));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    protected CompletableFuture<Void> deleteWithUriVariablesAsync(Object[] queryParams, String url,
+            Object... uriVariables) {
+        return sendAsync(HttpMethod.DELETE, url, queryParams, null, null, false, uriVariables);
     }
 
-    private <T> T getForEntity(String url, Object[] queryParams, Function<ClientResponse, T> entityProvider,
+    protected <T> CompletableFuture<T> postForEntityAsync(String url, Object request, Object[] queryParams,
+            Class<T> responseType, Object... uriVariables) {
+        return sendAsync(HttpMethod.POST, url, queryParams, request, responseType, false, uriVariables);
+    }
+
+    protected <T> CompletableFuture<T> getForEntityAsync(String url, Object[] queryParams, Class<T> responseType,
             Object... uriVariables) {
-        URI uri = null;
-        ClientResponse clientResponse;
+        return sendAsync(HttpMethod.GET, url, queryParams, null, responseType, true, uriVariables);
+    }
+
+    protected <T> CompletableFuture<T> getForEntityAsync(String url, Object[] queryParams,
+            GenericType<T> responseType, Object... uriVariables) {
+        return sendAsync(HttpMethod.GET, url, queryParams, null, responseType.getType(), true, uriVariables);
+    }
+
+    /**
+     * Sends a request to the root URI, or to an endpoint of the endpoint group if
+     * there is one, within the limit of the concurrency limiter if there is one,
+     * and times it.
+     *
+     * @param url
+     *            the URL template of the request, deciding its endpoint class and
+     *            the endpoint it is timed for
+     * @param request
+     *            sends the request to the given root URI
+     * @param idempotent
+     *            if true, the request is sent again to another endpoint when the
+     *            server is unreachable or fails with a server error
+     */
+    private <T> T invoke(String method, String url, Function<String, T> request, boolean idempotent) {
+        return invoke(method, url, request, () -> idempotent);
+    }
+
+    /**
+     * Sends a request like {@link #invoke(String, String, Function, boolean)},
+     * deciding whether it can be sent again after each failure.
+     */
+    private <T> T invoke(String method, String url, Function<String, T> request, BooleanSupplier idempotent) {
+        ConcurrencyLimiter limiter = concurrencyLimiter;
+        ConcurrencyLimiter.EndpointClass endpointClass = getEndpointClass(url);
+        ConcurrencyLimiter.Permit permit = (limiter == null) ? null : limiter.acquire(endpointClass, true);
+        long start = System.nanoTime();
+        T response;
         try {
-            uri = getURIBuilder(root + url, queryParams).build(uriVariables);
-            clientResponse = requestHandler.get(uri);
-            if (clientResponse.getStatus() < 300) {
-                return entityProvider.apply(clientResponse);
-            } else {
-                throw new UniformInterfaceException(clientResponse);
-            }
-        } catch (UniformInterfaceException e) {
-            handleUniformInterfaceException(e, uri);
+            response = invoke(request, idempotent, endpointClass);
         } catch (RuntimeException e) {
-            handleRuntimeException(e, uri);
+            onCompletion(method, url, start, permit, e);
+            throw e;
+        }
+        onCompletion(method, url, start, permit, null);
+        return response;
+    }
+
+    private <T> T invoke(Function<String, T> request, BooleanSupplier idempotent,
+            ConcurrencyLimiter.EndpointClass endpointClass) {
+        if (endpointGroup == null) {
+            return request.apply(root);
+        }
+        List<EndpointGroup.Endpoint> failedEndpoints = new ArrayList<>(1);
+        while (true) {
+            EndpointGroup.Endpoint endpoint = endpointGroup.select(failedEndpoints);
+            long start = System.nanoTime();
+            try {
+                T response = request.apply(endpoint.getRootURI());
+                onSuccess(endpoint, endpointClass, start);
+                return response;
+            } catch (ClientException e) {
+                if (isRejected(e)) {
+                    onSuccess(endpoint, endpointClass, start);
+                    throw e;
+                }
+                endpoint.onFailure();
+                failedEndpoints.add(endpoint);
+                if (!idempotent.getAsBoolean() || failedEndpoints.size() >= endpointGroup.size()) {
+                    throw e;
+                }
+                MetricsContainer.incrementEndpointFailoverCount(endpoint.getRootURI());
+                LOGGER.warn("Request to endpoint {} failed, failing over to another endpoint",
+                        endpoint.getRootURI());
+            } catch (RuntimeException e) {
+                endpoint.onFailure();
+                throw e;
+            }
         }
-        return null;
+    }
+
+    /**
+     * Sends a request like {@link #invoke(String, String, Function, boolean)}
+     * without waiting for the response. A request over the limit of the
+     * concurrency limiter fails right away.
+     */
+    private <T> CompletableFuture<T> invokeAsync(String method, String url,
+            Function<String, CompletableFuture<T>> request, boolean idempotent) {
+        ConcurrencyLimiter limiter = concurrencyLimiter;
+        ConcurrencyLimiter.EndpointClass endpointClass = getEndpointClass(url);
+        ConcurrencyLimiter.Permit permit;
+        try {
+            permit = (limiter == null) ? null : limiter.acquire(endpointClass, false);
+        } catch (ClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        return invokeAsync(request, idempotent, endpointClass).whenComplete((response, error) -> onCompletion(method,
+                url, start, permit, (error == null) ? null : unwrap(error)));
+    }
+
+    private <T> CompletableFuture<T> invokeAsync(Function<String, CompletableFuture<T>> request,
+            boolean idempotent, ConcurrencyLimiter.EndpointClass endpointClass) {
+        if (endpointGroup == null) {
+            return request.apply(root);
+        }
+        return invokeAsync(request, idempotent, endpointClass, new ArrayList<>(1));
+    }
+
+    private <T> CompletableFuture<T> invokeAsync(Function<String, CompletableFuture<T>> request, boolean idempotent,
+            ConcurrencyLimiter.EndpointClass endpointClass, List<EndpointGroup.Endpoint> failedEndpoints) {
+        EndpointGroup.Endpoint endpoint = endpointGroup.select(failedEndpoints);
+        long start = System.nanoTime();
+        return request.apply(endpoint.getRootURI()).handle((response, error) -> {
+            if (error == null) {
+                onSuccess(endpoint, endpointClass, start);
+                return CompletableFuture.completedFuture(response);
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof ClientException && isRejected((ClientException) cause)) {
+                onSuccess(endpoint, endpointClass, start);
+                return CompletableFuture.<T>failedFuture(cause);
+            }
+            endpoint.onFailure();
+            failedEndpoints.add(endpoint);
+            if (!(cause instanceof ClientException) || !idempotent
+                    || failedEndpoints.size() >= endpointGroup.size()) {
+                return CompletableFuture.<T>failedFuture(cause);
+            }
+            MetricsContainer.incrementEndpointFailoverCount(endpoint.getRootURI());
+            LOGGER.warn("Request to endpoint {} failed, failing over to another endpoint", endpoint.getRootURI());
+            return invokeAsync(request, idempotent, endpointClass, failedEndpoints);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Times a completed request and gives its slot back to the concurrency limiter.
+     *
+     * @param permit
+     *            the slot of the request, null if there is no concurrency limiter
+     * @param error
+     *            the failure of the request, null if it succeeded
+     */
+    private void onCompletion(String method, String url, long start, ConcurrencyLimiter.Permit permit,
+            Throwable error) {
+        if (permit != null) {
+            permit.release(error);
+        }
+        String status;
+        if (error == null) {
+            status = "2xx";
+        } else if (error instanceof ClientException && ((ClientException) error).getStatus() > 0) {
+            status = (((ClientException) error).getStatus() / 100) + "xx";
+        } else {
+            // the server could not be reached, or its response could not be read
+            status = "none";
+        }
+        MetricsContainer.getHttpRequestTimer(getEndpointName(url), method, status).record(System.nanoTime() - start,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the URL template without its path variables, e.g. task/poll/batch
+     *         for task/poll/batch/{taskType}
+     */
+    static String getEndpointName(String url) {
+        return PATH_VARIABLE.matcher(url).replaceAll("");
+    }
+
+    /**
+     * Records a request which reached the endpoint. The latency of a long poll is
+     * set by its timeout rather than by the load of the server, so it is left
+     * out of the latency the endpoints are balanced by.
+     */
+    private static void onSuccess(EndpointGroup.Endpoint endpoint, ConcurrencyLimiter.EndpointClass endpointClass,
+            long start) {
+        if (endpointClass == ConcurrencyLimiter.EndpointClass.POLL) {
+            endpoint.onSuccess();
+        } else {
+            endpoint.onSuccess(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return true if the server is healthy and rejected the request, false if it
+     *         could not be reached or failed with a server error
+     */
+    private static boolean isRejected(ClientException e) {
+        return e.getStatus() > 0 && e.getStatus() < 500;
+    }
+
+    /**
+     * Sends a request without waiting for the response, with the transport if
+     * there is one, or else the request handler (see
+     * {@link ClientRequestHandler#executeAsync}).
+     *
+     * @param idempotent
+     *            if true, the request fails over to another endpoint of the
+     *            endpoint group
+     */
+    private <T> CompletableFuture<T> sendAsync(String method, String url, Object[] queryParams, Object body,
+            Type responseType, boolean idempotent, Object... uriVariables) {
+        HttpTransport asyncTransport = (transport == null) ? requestHandler : transport;
+        return invokeAsync(method, url, rootURI -> {
+            URI uri;
+            try {
+                uri = getURIBuilder(rootURI + url, queryParams).build(uriVariables);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(new ClientException(
+                        String.format("Unable to invoke Conductor API with url: %s, invalid uri", url), e));
+            }
+            return exchangeAsync(asyncTransport, method, uri, url, body, responseType);
+        }, idempotent);
+    }
+
+    /**
+     * Sends a request with the transport.
+     *
+     * @param body
+     *            the request body, null if there is none
+     * @param responseType
+     *            the type of the response body, null to ignore it
+     * @return the response body, null if there is none
+     */
+    private <T> T exchange(String method, URI uri, String url, Object body, Type responseType) {
+        try (TransportResponse response = execute(method, uri, url, body, responseType)) {
+            return readResponse(response, method, uri, url, responseType);
+        } catch (IOException e) {
+            throw newTransportException(e, uri);
+        }
+    }
+
+    /**
+     * Sends a request with the transport, and sends it again in JSON if the server
+     * rejected it in CBOR.
+     */
+    private TransportResponse execute(String method, URI uri, String url, Object body, Type responseType)
+            throws IOException {
+        TransportRequest request = newTransportRequest(method, uri, url, body, responseType);
+        TransportResponse response = transport.execute(request);
+        if (isCborRejected(request, response)) {
+            response.close();
+            response = transport.execute(newTransportRequest(method, uri, url, body, responseType));
+        }
+        return response;
+    }
+
+    /**
+     * Sends a request with the given transport, without waiting for the response.
+     * The future fails with the {@link ClientException} the blocking request would
+     * throw.
+     */
+    private <T> CompletableFuture<T> exchangeAsync(HttpTransport transport, String method, URI uri, String url,
+            Object body, Type responseType) {
+        TransportRequest request;
+        try {
+            request = newTransportRequest(method, uri, url, body, responseType);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(newTransportException(e, uri));
+        }
+        return transport.executeAsync(request).thenCompose(response -> {
+            if (!isCborRejected(request, response)) {
+                return CompletableFuture.completedFuture(response);
+            }
+            try {
+                response.close();
+                return transport.executeAsync(newTransportRequest(method, uri, url, body, responseType));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                throw (cause instanceof ClientException) ? (ClientException) cause : newTransportException(cause, uri);
+            }
+            try (response) {
+                return readResponse(response, method, uri, url, responseType);
+            } catch (IOException e) {
+                throw newTransportException(e, uri);
+            }
+        });
+    }
+
+    /**
+     * @param url
+     *            the URL template of the request, the endpoints listed by
+     *            {@link #isCborEndpoint(String)} are sent in CBOR if enabled
+     * @param responseType
+     *            the type of the response body, null if it is ignored
+     */
+    private TransportRequest newTransportRequest(String method, URI uri, String url, Object body, Type responseType)
+            throws IOException {
+        boolean cbor = conductorClientConfiguration.isCborEnabled() && !cborRejected && isCborEndpoint(url);
+        Map<String, String> headers = new LinkedHashMap<>();
+        // text responses, e.g. the id of an updated task, are labeled with the first accepted type
+        boolean acceptCbor = cbor && responseType != null && responseType != Void.class
+                && responseType != String.class;
+        headers.put(HttpHeaders.ACCEPT, acceptCbor ? CBOR_ACCEPT : ACCEPT);
+        boolean compressionEnabled = conductorClientConfiguration.isCompressionEnabled();
+        if (compressionEnabled) {
+            headers.put(HttpHeaders.ACCEPT_ENCODING, Compression.GZIP);
+        }
+        byte[] requestBody = null;
+        if (body != null && cbor && !(body instanceof String)) {
+            headers.put(HttpHeaders.CONTENT_TYPE, CBOR);
+            requestBody = ObjectMapperRegistry.cborWriterFor(body.getClass()).writeValueAsBytes(body);
+        } else if (body != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+            requestBody = (body instanceof String)
+                    ? ((String) body).getBytes(StandardCharsets.UTF_8)
+                    : writerFor(body.getClass()).writeValueAsBytes(body);
+        }
+        if (requestBody != null) {
+            MetricsContainer.recordHttpRequestSize(getEndpointName(url), method, requestBody.length);
+            if (compressionEnabled
+                    && requestBody.length > conductorClientConfiguration.getRequestCompressionThresholdKB() * 1024L) {
+                headers.put(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+                requestBody = Compression.compress(requestBody);
+            }
+        }
+        return new TransportRequest(method, uri, headers, requestBody);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readResponse(TransportResponse response, String method, URI uri, String url, Type responseType)
+            throws IOException {
+        byte[] responseBody;
+        try (InputStream body = Compression.decompress(response)) {
+            responseBody = body.readAllBytes();
+        }
+        MetricsContainer.recordHttpResponseSize(getEndpointName(url), method, responseBody.length);
+        if (response.getStatus() >= 300) {
+            handleErrorResponse(response.getStatus(), errorMessage(response, responseBody), uri);
+        }
+        if (responseType == null || responseType == Void.class || responseBody.length == 0) {
+            return null;
+        }
+        if (responseType == String.class) {
+            return (T) new String(responseBody, StandardCharsets.UTF_8);
+        }
+        if (isCbor(response)) {
+            return ObjectMapperRegistry.cborReaderFor(responseType).readValue(responseBody);
+        }
+        return readerFor(responseType).readValue(responseBody);
+    }
+
+    /**
+     * @return the class of endpoints of the URL template, whose requests share a
+     *         limit of the concurrency limiter
+     */
+    protected ConcurrencyLimiter.EndpointClass getEndpointClass(String url) {
+        return ConcurrencyLimiter.EndpointClass.OTHER;
+    }
+
+    /**
+     * @return true for the URL templates of the requests worth sending in CBOR
+     *         when {@link AbstractClientConfiguration#isCborEnabled()}, e.g. the
+     *         task polls and updates
+     */
+    protected boolean isCborEndpoint(String url) {
+        return false;
+    }
+
+    /**
+     * @return true if the server does not support a request sent in CBOR, in
+     *         which case the client sends all its requests in JSON from now on
+     */
+    private boolean isCborRejected(TransportRequest request, TransportResponse response) {
+        int status = response.getStatus();
+        if (status != 406 && status != 415) {
+            return false;
+        }
+        Map<String, String> headers = request.getHeaders();
+        if (!CBOR.equals(headers.get(HttpHeaders.CONTENT_TYPE))
+                && !CBOR_ACCEPT.equals(headers.get(HttpHeaders.ACCEPT))) {
+            return false;
+        }
+        if (!cborRejected) {
+            cborRejected = true;
+            LOGGER.warn("Server rejected a CBOR request with status {}, falling back to JSON", status);
+        }
+        return true;
+    }
+
+    private static boolean isCbor(TransportResponse response) {
+        return StringUtils.startsWithIgnoreCase(response.getHeader(HttpHeaders.CONTENT_TYPE), CBOR);
+    }
+
+    /**
+     * @return the body of an error response, converted to JSON if it is in CBOR
+     */
+    private String errorMessage(TransportResponse response, byte[] responseBody) throws IOException {
+        if (isCbor(response) && responseBody.length > 0) {
+            return objectMapper.writeValueAsString(ObjectMapperRegistry.getCborMapper().readTree(responseBody));
+        }
+        return new String(responseBody, StandardCharsets.UTF_8);
+    }
+
+    private ObjectReader readerFor(Type type) {
+        if (objectMapper == ObjectMapperRegistry.getObjectMapper()) {
+            return ObjectMapperRegistry.readerFor(type);
+        }
+        return objectMapper.readerFor(objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private ObjectWriter writerFor(Class<?> type) {
+        if (objectMapper == ObjectMapperRegistry.getObjectMapper()) {
+            return ObjectMapperRegistry.writerFor(type);
+        }
+        return objectMapper.writerFor(type);
+    }
+
+    private ClientException newTransportException(Throwable cause, URI uri) {
+        String errorMessage = String
+                .format("Unable to invoke Conductor API with uri: %s, failure to process request or response", uri);
+        LOGGER.error(errorMessage, cause);
+        return new ClientException(errorMessage, cause);
+    }
+
+    /**
+     * @return the cause of an exception a future completed with, e.g. the
+     *         {@link ClientException} of a failed request
+     */
+    protected static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
     }
 
     /**
@@ -259,9 +880,12 @@ public abstract class ClientBase {
         return builder;
     }
 
+    /**
+     * @deprecated use {@link ObjectMapperRegistry#isNewerJacksonVersion()}
+     */
+    @Deprecated
     protected boolean isNewerJacksonVersion() {
-        Version version = com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
-        return version.getMajorVersion() == 2 && version.getMinorVersion() >= 12;
+        return ObjectMapperRegistry.isNewerJacksonVersion();
     }
 
     private void handleClientHandlerException(ClientHandlerException exception, URI uri) {
@@ -272,6 +896,9 @@ public abstract class ClientBase {
     }
 
     private void handleRuntimeException(RuntimeException exception, URI uri) {
+        if (exception instanceof ClientException) {
+            throw (ClientException) exception;
+        }
         String errorMessage = String.format("Unable to invoke Conductor API with uri: %s, runtime exception occurred",
                 uri);
         LOGGER.error(errorMessage, exception);
@@ -287,17 +914,7 @@ public abstract class ClientBase {
             if (clientResponse.getStatus() < 300) {
                 return;
             }
-            String errorMessage = clientResponse.getEntity(String.class);
-            LOGGER.warn(
-                    "Unable to invoke Conductor API with uri: {}, unexpected response from server: statusCode={}, responseBody='{}'.",
-                    uri, clientResponse.getStatus(), errorMessage);
-            ErrorResponse errorResponse;
-            try {
-                errorResponse = objectMapper.readValue(errorMessage, ErrorResponse.class);
-            } catch (IOException e) {
-                throw new ClientException(clientResponse.getStatus(), errorMessage);
-            }
-            throw new ClientException(clientResponse.getStatus(), errorResponse);
+            handleErrorResponse(clientResponse.getStatus(), clientResponse.getEntity(String.class), uri);
         } catch (ClientException e) {
             throw e;
         } catch (ClientHandlerException e) {
@@ -309,6 +926,19 @@ public abstract class ClientBase {
         }
     }
 
+    private void handleErrorResponse(int status, String errorMessage, URI uri) {
+        LOGGER.warn(
+                "Unable to invoke Conductor API with uri: {}, unexpected response from server: statusCode={}, responseBody='{}'.",
+                uri, status, errorMessage);
+        ErrorResponse errorResponse;
+        try {
+            errorResponse = objectMapper.readValue(errorMessage, ErrorResponse.class);
+        } catch (IOException e) {
+            throw new ClientException(status, errorMessage);
+        }
+        throw new ClientException(status, errorResponse);
+    }
+
     private void handleException(URI uri, RuntimeException e) {
         if (e instanceof UniformInterfaceException) {
             handleUniformInterfaceException(((UniformInterfaceException) e), uri);
@@ -13,35 +13,37 @@
  */
 package com.swiftconductor.conductor.client.http;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.MediaType;
 
-import com.fasterxml.jackson.core.Version;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientHandler;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.filter.ClientFilter;
-import com.swiftconductor.conductor.common.config.ObjectMapperProvider;
+import com.swiftconductor.conductor.client.config.ObjectMapperRegistry;
 import com.swiftconductor.conductor.common.model.BulkResponse;
 
-public class ClientRequestHandler {
+public class ClientRequestHandler implements HttpTransport {
     private final Client client;
+    private final boolean customized;
 
     public ClientRequestHandler(ClientConfig config, ClientHandler handler, ClientFilter... filters) {
-        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
-
-        // https://github.com/FasterXML/jackson-databind/issues/2683
-        if (isNewerJacksonVersion()) {
-            objectMapper.registerModule(new JavaTimeModule());
-        }
-
-        JacksonJsonProvider provider = new JacksonJsonProvider(objectMapper);
+        JacksonJsonProvider provider = new JacksonJsonProvider(ObjectMapperRegistry.getObjectMapper());
         config.getSingletons().add(provider);
 
         if (handler == null) {
@@ -53,28 +55,123 @@ public class ClientRequestHandler {
         for (ClientFilter filter : filters) {
             this.client.addFilter(filter);
         }
+        this.client.addFilter(new BodySizeFilter());
+        this.customized = handler != null || filters.length > 0
+                || config.getProperty(ClientConfig.PROPERTY_CONNECT_TIMEOUT) != null
+                || config.getProperty(ClientConfig.PROPERTY_READ_TIMEOUT) != null;
     }
 
     public BulkResponse delete(URI uri, Object body) {
+        return delete(uri, body, null);
+    }
+
+    /**
+     * @param endpoint
+     *            the endpoint the sizes of the request and response bodies are
+     *            recorded for, null not to record them
+     */
+    public BulkResponse delete(URI uri, Object body, String endpoint) {
         if (body != null) {
-            return client.resource(uri).type(MediaType.APPLICATION_JSON_TYPE).delete(BulkResponse.class, body);
+            return resource(uri, endpoint).type(MediaType.APPLICATION_JSON_TYPE).delete(BulkResponse.class, body);
         } else {
-            client.resource(uri).delete();
+            resource(uri, endpoint).delete();
         }
         return null;
     }
 
     public ClientResponse get(URI uri) {
-        return client.resource(uri).accept(MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN).get(ClientResponse.class);
+        return get(uri, null);
+    }
+
+    /**
+     * @param endpoint
+     *            the endpoint the size of the response body is recorded for, null
+     *            not to record it
+     */
+    public ClientResponse get(URI uri, String endpoint) {
+        return resource(uri, endpoint).accept(MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN)
+                .get(ClientResponse.class);
     }
 
     public WebResource.Builder getWebResourceBuilder(URI URI, Object entity) {
-        return client.resource(URI).type(MediaType.APPLICATION_JSON).entity(entity).accept(MediaType.TEXT_PLAIN,
+        return getWebResourceBuilder(URI, entity, null);
+    }
+
+    /**
+     * @param endpoint
+     *            the endpoint the sizes of the request and response bodies are
+     *            recorded for, null not to record them
+     */
+    public WebResource.Builder getWebResourceBuilder(URI URI, Object entity, String endpoint) {
+        return resource(URI, endpoint).type(MediaType.APPLICATION_JSON).entity(entity).accept(MediaType.TEXT_PLAIN,
                 MediaType.APPLICATION_JSON);
     }
 
-    private boolean isNewerJacksonVersion() {
-        Version version = com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
-        return version.getMajorVersion() == 2 && version.getMinorVersion() >= 12;
+    private WebResource resource(URI uri, String endpoint) {
+        WebResource resource = client.resource(uri);
+        if (endpoint != null) {
+            resource.setProperty(BodySizeFilter.ENDPOINT, endpoint);
+        }
+        return resource;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        WebResource.Builder builder = client.resource(request.getUri()).getRequestBuilder();
+        request.getHeaders().forEach(builder::header);
+        try {
+            ClientResponse response = (request.getBody() == null)
+                    ? builder.method(request.getMethod(), ClientResponse.class)
+                    : builder.method(request.getMethod(), ClientResponse.class, request.getBody());
+            return new TransportResponse(response.getStatus(), response.getHeaders(),
+                    response.getEntityInputStream());
+        } catch (ClientHandlerException e) {
+            throw new IOException("Unable to send " + request, e);
+        }
+    }
+
+    /**
+     * Sends a request without blocking the caller. Unless the Jersey client was
+     * created with a custom handler, filters or timeouts, the request is sent by a
+     * shared {@link JdkHttpTransport}. Otherwise it is executed by Jersey on a
+     * bounded thread pool, and the returned future fails immediately with an
+     * {@link IOException} once too many requests are queued.
+     */
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        if (!customized) {
+            return DefaultAsyncTransport.INSTANCE.executeAsync(request);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return execute(request);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, BlockingAsyncExecutor.INSTANCE);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IOException("Too many pending requests to send " + request, e));
+        }
+    }
+
+    /** Created on first use, so clients that never send async requests don't start an HttpClient. */
+    private static class DefaultAsyncTransport {
+        static final JdkHttpTransport INSTANCE = new JdkHttpTransport();
+    }
+
+    private static class BlockingAsyncExecutor {
+        static final int THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        static final int QUEUE_SIZE = 1024;
+        static final Executor INSTANCE = createExecutor();
+
+        private static Executor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(QUEUE_SIZE),
+                    new BasicThreadFactory.Builder().namingPattern("conductor-client-async-%d").daemon(true).build(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Gzip compression of the request and response bodies, counting the bytes
+ * saved.
+ */
+final class Compression {
+
+    static final String GZIP = "gzip";
+
+    static final String REQUEST = "request";
+    static final String RESPONSE = "response";
+
+    private Compression() {
+    }
+
+    static byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        MetricsContainer.incrementHttpCompressionBytes(REQUEST, body.length, compressed.size());
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return the body of the response, decompressed if the server compressed it
+     */
+    static InputStream decompress(TransportResponse response) throws IOException {
+        if (!GZIP.equalsIgnoreCase(response.getHeader("Content-Encoding"))) {
+            return response.getBody();
+        }
+        // a response without body can still have a Content-Encoding header
+        PushbackInputStream body = new PushbackInputStream(response.getBody());
+        int first = body.read();
+        if (first == -1) {
+            return body;
+        }
+        body.unread(first);
+        CountingInputStream compressed = new CountingInputStream(body, null);
+        return new CountingInputStream(new GZIPInputStream(compressed), compressed);
+    }
+
+    /**
+     * Counts the bytes read, the counter of a decompressed stream records the
+     * compressed and uncompressed sizes once closed.
+     */
+    static class CountingInputStream extends FilterInputStream {
+
+        private final CountingInputStream compressed;
+        private long count = 0;
+        private boolean closed = false;
+
+        CountingInputStream(InputStream in, CountingInputStream compressed) {
+            super(in);
+            this.compressed = compressed;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed && compressed != null) {
+                MetricsContainer.incrementHttpCompressionBytes(RESPONSE, count, compressed.count);
+            }
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * Bounds the # of concurrent requests sent to the server, so that the clients
+ * do not pile up blocked requests on a slow server and make it slower.
+ *
+ * <p>
+ * Each endpoint class has its own limit, adapted to the responses with AIMD
+ * (additive increase, multiplicative decrease). The limit decreases when a
+ * request fails to reach the server, fails with a server error or 429, or
+ * takes much longer than the usual round-trip time of its endpoint class, and
+ * otherwise increases while the requests in flight use at least half of it.
+ * The round-trip time of the polls is not considered, as a long poll takes
+ * longer when the task queue is empty.
+ *
+ * <p>
+ * A blocking request over the limit waits for a slot for a short while, an
+ * asynchronous request over the limit fails right away, with a
+ * {@link ClientException} in both cases.
+ *
+ * @see ClientBase#setConcurrencyLimiter(ConcurrencyLimiter)
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * The classes of endpoints with separate limits.
+     */
+    public enum EndpointClass {
+        POLL, UPDATE, OTHER
+    }
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double RTT_EWMA_ALPHA = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final long queueTimeoutNanos;
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+
+    /**
+     * Starts at 20 concurrent requests per endpoint class, adapted between 1 and
+     * 200, with blocking requests waiting up to 100 ms for a slot.
+     */
+    public ConcurrencyLimiter() {
+        this(20, 1, 200, 2.0, 100);
+    }
+
+    /**
+     * @param initialLimit
+     *            # of concurrent requests per endpoint class until the limits
+     *            adapt
+     * @param minLimit
+     *            # of concurrent requests always allowed per endpoint class
+     * @param maxLimit
+     *            # of concurrent requests never exceeded per endpoint class
+     * @param rttTolerance
+     *            ratio of the usual round-trip time above which a request is
+     *            considered slow and decreases the limit
+     * @param queueTimeoutMillis
+     *            time during which a blocking request over the limit waits for a
+     *            slot, 0 to fail right away
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+            long queueTimeoutMillis) {
+        Validate.isTrue(minLimit > 0 && minLimit <= initialLimit && initialLimit <= maxLimit,
+                "Limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        Validate.isTrue(rttTolerance >= 1, "RTT tolerance must be at least 1");
+        Validate.isTrue(queueTimeoutMillis >= 0, "Queue timeout cannot be negative");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, new Limit(endpointClass, initialLimit));
+        }
+    }
+
+    /**
+     * @return the current # of concurrent requests allowed for the endpoint class
+     */
+    public int getLimit(EndpointClass endpointClass) {
+        return limits.get(endpointClass).getLimit();
+    }
+
+    /**
+     * @return the # of requests of the endpoint class in flight
+     */
+    public int getInFlightRequests(EndpointClass endpointClass) {
+        return limits.get(endpointClass).getInFlightRequests();
+    }
+
+    /**
+     * Takes a slot for a request.
+     *
+     * @param wait
+     *            if true, waits for a slot up to the queue timeout when the limit
+     *            is reached
+     * @return the slot, the caller must report the outcome of the request with
+     *         {@link Permit#release(Throwable)}
+     * @throws LimitExceededException
+     *             if the limit is reached
+     */
+    Permit acquire(EndpointClass endpointClass, boolean wait) {
+        Limit limit = limits.get(endpointClass);
+        try {
+            if (limit.tryAcquire(wait ? queueTimeoutNanos : 0)) {
+                return new Permit(limit, System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        MetricsContainer.incrementConcurrencyLimitRejectedCount(endpointClass.name());
+        throw new LimitExceededException(String.format(
+                "Unable to invoke Conductor API, limit of %d concurrent %s requests reached", limit.getLimit(),
+                endpointClass.name().toLowerCase()));
+    }
+
+    /**
+     * Thrown when a request is rejected locally because the limit of its endpoint
+     * class is reached, without being sent to the server.
+     */
+    public static class LimitExceededException extends ClientException {
+
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A slot taken by a request in flight.
+     */
+    class Permit {
+
+        private final Limit limit;
+        private final long startTime;
+
+        private Permit(Limit limit, long startTime) {
+            this.limit = limit;
+            this.startTime = startTime;
+        }
+
+        /**
+         * Gives the slot back and adapts the limit to the outcome of the request.
+         *
+         * @param error
+         *            the failure of the request, null if it succeeded
+         */
+        void release(Throwable error) {
+            if (error == null) {
+                limit.release(startTime, false, true);
+            } else if (error instanceof ClientException) {
+                int status = ((ClientException) error).getStatus();
+                // a request rejected by a healthy server still tells its round-trip time
+                boolean dropped = status == 0 || status == 429 || status >= 500;
+                limit.release(startTime, dropped, true);
+            } else {
+                limit.release(startTime, false, false);
+            }
+        }
+    }
+
+    /**
+     * The state of a limit is guarded by a {@link ReentrantLock} rather than a
+     * monitor, so that waiting for a slot does not pin a virtual thread to its
+     * carrier.
+     */
+    private class Limit {
+
+        private final EndpointClass endpointClass;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotAvailable = lock.newCondition();
+        private double limit;
+        private int inFlightRequests = 0;
+        private double rttEwma = 0;
+        private long lastDecreaseTime;
+
+        Limit(EndpointClass endpointClass, int initialLimit) {
+            this.endpointClass = endpointClass;
+            this.limit = initialLimit;
+            this.lastDecreaseTime = System.nanoTime();
+            MetricsContainer.recordConcurrencyLimit(endpointClass.name(), initialLimit);
+        }
+
+        int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getInFlightRequests() {
+            lock.lock();
+            try {
+                return inFlightRequests;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+            long remainingNanos = timeoutNanos;
+            lock.lockInterruptibly();
+            try {
+                while (inFlightRequests >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = slotAvailable.awaitNanos(remainingNanos);
+                }
+                inFlightRequests++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(long startTime, boolean dropped, boolean sampled) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                int inFlight = inFlightRequests--;
+                slotAvailable.signalAll();
+                if (!sampled) {
+                    return;
+                }
+
+                boolean slow = false;
+                if (endpointClass != EndpointClass.POLL && !dropped) {
+                    long rtt = now - startTime;
+                    slow = rttEwma > 0 && rtt > rttTolerance * rttEwma;
+                    rttEwma = (rttEwma == 0) ? rtt : rttEwma + RTT_EWMA_ALPHA * (rtt - rttEwma);
+                }
+
+                int previousLimit = (int) limit;
+                if (dropped || slow) {
+                    // the requests sent before the last decrease already saw the congestion which caused it
+                    if (startTime - lastDecreaseTime > 0) {
+                        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                        lastDecreaseTime = now;
+                    }
+                } else if (inFlight * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+                if ((int) limit != previousLimit) {
+                    MetricsContainer.recordConcurrencyLimit(endpointClass.name(), (int) limit);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+
+/**
+ * A group of Conductor server endpoints a client spreads its requests over,
+ * without a load balancer in front of the servers.
+ *
+ * <p>
+ * Each request goes to the better of two endpoints picked at random (power of
+ * two choices), the one with the lowest exponentially weighted moving average
+ * latency, weighted by its requests in flight. An endpoint failing several
+ * requests in a row (unreachable or answering with a server error) is ejected
+ * for a while. Idempotent requests, including polls, fail over to the other
+ * endpoints.
+ *
+ * @see ClientBase#setEndpointGroup(EndpointGroup)
+ */
+public class EndpointGroup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointGroup.class);
+
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int failureThreshold;
+    private final long ejectionNanos;
+
+    /**
+     * Ejects an endpoint for 30 seconds after 3 consecutive failures.
+     *
+     * @param rootURIs
+     *            the root URI of each server, e.g. http://conductor-1:8080/api/
+     */
+    public EndpointGroup(String... rootURIs) {
+        this(3, 30_000, rootURIs);
+    }
+
+    /**
+     * @param failureThreshold
+     *            # of consecutive failures after which an endpoint is ejected
+     * @param ejectionMillis
+     *            time during which an ejected endpoint gets no requests, unless
+     *            all endpoints are ejected
+     * @param rootURIs
+     *            the root URI of each server, e.g. http://conductor-1:8080/api/
+     */
+    public EndpointGroup(int failureThreshold, long ejectionMillis, String... rootURIs) {
+        Validate.notEmpty(rootURIs, "At least one root URI is required");
+        Validate.isTrue(failureThreshold > 0, "Failure threshold must be greater than 0");
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+        for (String rootURI : rootURIs) {
+            endpoints.add(new Endpoint(rootURI));
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    /**
+     * Picks the endpoint of the next request.
+     *
+     * @param excluded
+     *            endpoints which already failed the request, never picked unless
+     *            there is no other endpoint
+     * @return the endpoint, the caller must report the outcome of the request
+     *         with {@link Endpoint#onSuccess(long)}, {@link Endpoint#onSuccess()}
+     *         or {@link Endpoint#onFailure()}
+     */
+    Endpoint select(Collection<Endpoint> excluded) {
+        long now = System.nanoTime();
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!excluded.contains(endpoint) && !endpoint.isEjected(now)) {
+                candidates.add(endpoint);
+            }
+        }
+
+        Endpoint selected;
+        if (candidates.isEmpty()) {
+            // all endpoints are ejected or failed, try the one ejected first
+            selected = null;
+            for (Endpoint endpoint : endpoints) {
+                if (!excluded.contains(endpoint)
+                        && (selected == null || endpoint.ejectedUntil.get() - selected.ejectedUntil.get() < 0)) {
+                    selected = endpoint;
+                }
+            }
+            if (selected == null) {
+                selected = endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size()));
+            }
+        } else if (candidates.size() == 1) {
+            selected = candidates.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Endpoint a = candidates.get(first);
+            Endpoint b = candidates.get(second);
+            selected = (a.getLoad() <= b.getLoad()) ? a : b;
+        }
+        selected.inFlightRequests.incrementAndGet();
+        return selected;
+    }
+
+    /**
+     * A server of the group, with its latency and health.
+     */
+    public class Endpoint {
+
+        private final String rootURI;
+        private final AtomicLong latencyEwma = new AtomicLong(Double.doubleToLongBits(0));
+        private final AtomicInteger inFlightRequests = new AtomicInteger(0);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+        private final AtomicLong ejectedUntil = new AtomicLong(System.nanoTime());
+
+        Endpoint(String rootURI) {
+            this.rootURI = rootURI;
+        }
+
+        public String getRootURI() {
+            return rootURI;
+        }
+
+        /**
+         * @return the moving average of the request latency in nanoseconds, 0 until
+         *         a request completed
+         */
+        public double getLatencyEwma() {
+            return Double.longBitsToDouble(latencyEwma.get());
+        }
+
+        public int getInFlightRequests() {
+            return inFlightRequests.get();
+        }
+
+        public boolean isEjected() {
+            return isEjected(System.nanoTime());
+        }
+
+        /**
+         * Records a request which reached the server, including the ones answered
+         * with a client error.
+         */
+        void onSuccess(long latencyNanos) {
+            onSuccess();
+            long current;
+            double updated;
+            do {
+                current = latencyEwma.get();
+                double ewma = Double.longBitsToDouble(current);
+                updated = (ewma == 0) ? latencyNanos : ewma + EWMA_ALPHA * (latencyNanos - ewma);
+            } while (!latencyEwma.compareAndSet(current, Double.doubleToLongBits(updated)));
+        }
+
+        /**
+         * Records a request which reached the server without sampling its latency,
+         * for long polls whose latency is set by the poll timeout rather than by
+         * the load of the server.
+         */
+        void onSuccess() {
+            inFlightRequests.decrementAndGet();
+            consecutiveFailures.set(0);
+        }
+
+        /**
+         * Records a request which did not reach the server or failed with a server
+         * error.
+         */
+        void onFailure() {
+            inFlightRequests.decrementAndGet();
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                consecutiveFailures.set(0);
+                ejectedUntil.set(System.nanoTime() + ejectionNanos);
+                MetricsContainer.incrementEndpointEjectedCount(rootURI);
+                LOGGER.warn("Ejecting endpoint {} for {} ms after {} consecutive failures", rootURI,
+                        TimeUnit.NANOSECONDS.toMillis(ejectionNanos), failureThreshold);
+            }
+        }
+
+        private boolean isEjected(long now) {
+            return now - ejectedUntil.get() < 0;
+        }
+
+        private double getLoad() {
+            return getLatencyEwma() * (inFlightRequests.get() + 1);
+        }
+
+        @Override
+        public String toString() {
+            return rootURI;
+        }
+    }
+}
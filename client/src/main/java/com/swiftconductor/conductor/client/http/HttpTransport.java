@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends the HTTP requests of the clients to the server.
+ *
+ * <p>
+ * The clients serialize the request bodies and deserialize the response
+ * bodies, a transport only moves bytes. {@link ClientRequestHandler} sends the
+ * requests with Jersey and {@link JdkHttpTransport} with the JDK HTTP client,
+ * over HTTP/2 where the server supports it.
+ *
+ * @see ClientBase#setTransport(HttpTransport)
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends a request and waits for the response.
+     *
+     * @return the response, which must be closed by the caller
+     * @throws IOException
+     *             if the server could not be reached or the exchange failed
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Sends a request without waiting for the response.
+     *
+     * <p>
+     * The default implementation runs {@link #execute(TransportRequest)} on the
+     * common pool, transports with non-blocking I/O should override it and only
+     * complete the response once its body is received, so that the callbacks of
+     * the response never block on reading it.
+     *
+     * @return the response, which must be closed by the caller
+     */
+    default CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A {@link HttpTransport} built on the JDK {@link HttpClient}.
+ *
+ * <p>
+ * Requests are multiplexed over a single HTTP/2 connection per server when the
+ * server supports it, and sent over pooled, kept alive HTTP/1.1 connections
+ * otherwise. The asynchronous requests do not block any thread while waiting
+ * for the server.
+ *
+ * <p>
+ * The HTTP/1.1 connection pool of the JDK client is configured by the
+ * <code>jdk.httpclient.connectionPoolSize</code> and
+ * <code>jdk.httpclient.keepalive.timeout</code> system properties, which are
+ * read once per JVM. {@link Builder#withConnectionPoolSize(int)} and
+ * {@link Builder#withKeepAliveSeconds(int)} set them unless they were set
+ * already, and therefore only apply if called before the first JDK HTTP client
+ * is created.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+    static final String CONNECTION_POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    static final String KEEP_ALIVE_TIMEOUT_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    // set by the client, the JDK client rejects them
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "upgrade");
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a transport with the default settings of {@link Builder}.
+     */
+    public JdkHttpTransport() {
+        this(new Builder());
+    }
+
+    private JdkHttpTransport(Builder builder) {
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder().version(builder.version)
+                .connectTimeout(builder.connectTimeout).followRedirects(HttpClient.Redirect.NORMAL);
+        if (builder.executor != null) {
+            clientBuilder.executor(builder.executor);
+        }
+        this.httpClient = clientBuilder.build();
+        this.requestTimeout = builder.requestTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        try {
+            return toResponse(httpClient.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException exception = new InterruptedIOException("Interrupted while sending " + request);
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        // the body is received without blocking, reading it in the callbacks would block a thread of the client
+        return httpClient.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> new TransportResponse(response.statusCode(), response.headers().map(),
+                        new ByteArrayInputStream(response.body())));
+    }
+
+    private HttpRequest toHttpRequest(TransportRequest request) {
+        HttpRequest.BodyPublisher bodyPublisher = (request.getBody() == null)
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(request.getBody());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri()).method(request.getMethod(),
+                bodyPublisher);
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        request.getHeaders().forEach((name, value) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                builder.header(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    private TransportResponse toResponse(HttpResponse<InputStream> response) {
+        return new TransportResponse(response.statusCode(), response.headers().map(), response.body());
+    }
+
+    public static class Builder {
+
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout;
+        private Executor executor;
+
+        /**
+         * @param version
+         *            the preferred HTTP version, HTTP/2 by default with a fallback to
+         *            HTTP/1.1
+         */
+        public Builder withVersion(HttpClient.Version version) {
+            this.version = Validate.notNull(version, "version cannot be null");
+            return this;
+        }
+
+        /**
+         * @param connectTimeout
+         *            the time allowed to open a connection, 10 seconds by default
+         */
+        public Builder withConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = Validate.notNull(connectTimeout, "connectTimeout cannot be null");
+            return this;
+        }
+
+        /**
+         * @param requestTimeout
+         *            the time allowed to receive the response headers, unlimited by
+         *            default
+         */
+        public Builder withRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * @param executor
+         *            the executor of the asynchronous tasks of the client, a cached
+         *            thread pool of the client by default
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param connectionPoolSize
+         *            the max # of kept alive HTTP/1.1 connections, 0 for no limit
+         *            (default). JVM wide, see {@link JdkHttpTransport}.
+         */
+        public Builder withConnectionPoolSize(int connectionPoolSize) {
+            Validate.isTrue(connectionPoolSize >= 0, "connectionPoolSize cannot be negative");
+            setPropertyIfAbsent(CONNECTION_POOL_SIZE_PROPERTY, connectionPoolSize);
+            return this;
+        }
+
+        /**
+         * @param keepAliveSeconds
+         *            the time an idle connection is kept open, 1200 seconds by
+         *            default. JVM wide, see {@link JdkHttpTransport}.
+         */
+        public Builder withKeepAliveSeconds(int keepAliveSeconds) {
+            Validate.isTrue(keepAliveSeconds > 0, "keepAliveSeconds must be greater than 0");
+            setPropertyIfAbsent(KEEP_ALIVE_TIMEOUT_PROPERTY, keepAliveSeconds);
+            return this;
+        }
+
+        public JdkHttpTransport build() {
+            return new JdkHttpTransport(this);
+        }
+
+        private static void setPropertyIfAbsent(String name, int value) {
+            if (System.getProperty(name) == null) {
+                System.setProperty(name, String.valueOf(value));
+            }
+        }
+    }
+}
@@ -15,14 +15,25 @@ package com.swiftconductor.conductor.client.http;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +58,12 @@ import com.swiftconductor.conductor.common.utils.ExternalPayloadStorage.PayloadT
 /**
  * Client for conductor task management including polling for task, updating
  * task status etc.
+ *
+ * <p>
+ * The methods suffixed with <code>Async</code> return without waiting for the
+ * server, their futures fail with the {@link ClientException} the blocking
+ * methods throw. They do not block any thread when the client uses a
+ * non-blocking transport such as {@link JdkHttpTransport}.
  */
 public class TaskClient extends ClientBase {
 
@@ -70,6 +87,10 @@ public class TaskClient extends ClientBase {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskClient.class);
 
+    private static final Set<String> CBOR_ENDPOINTS = Set.of("task", "task/poll/batch/{taskType}");
+
+    private static final ExecutorService PAYLOAD_DOWNLOAD_EXECUTOR = newPayloadDownloadExecutor();
+
     /** Creates a default task client */
     public TaskClient() {
         this(new DefaultClientConfig(), new DefaultClientConfiguration(), null);
@@ -128,6 +149,27 @@ public class TaskClient extends ClientBase {
         super(requestHandler, null);
     }
 
+    /**
+     * The task polls and updates are sent in CBOR when
+     * {@link AbstractClientConfiguration#isCborEnabled()}.
+     */
+    @Override
+    protected boolean isCborEndpoint(String url) {
+        return CBOR_ENDPOINTS.contains(url);
+    }
+
+    /**
+     * The task polls and updates have their own limits in the
+     * {@link ConcurrencyLimiter}.
+     */
+    @Override
+    protected ConcurrencyLimiter.EndpointClass getEndpointClass(String url) {
+        if (url.startsWith("task/poll/")) {
+            return ConcurrencyLimiter.EndpointClass.POLL;
+        }
+        return "task".equals(url) ? ConcurrencyLimiter.EndpointClass.UPDATE : ConcurrencyLimiter.EndpointClass.OTHER;
+    }
+
     /**
      * Perform a poll for a task of a specific task type.
      *
@@ -150,6 +192,21 @@ public class TaskClient extends ClientBase {
         return task;
     }
 
+    /**
+     * Asynchronous counterpart of {@link #pollTask(String, String, String)}.
+     */
+    public CompletableFuture<Task> pollTaskAsync(String taskType, String workerId, String domain) {
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        Validate.notBlank(workerId, "Worker id cannot be blank");
+
+        Object[] params = new Object[] { "workerid", workerId, "domain", domain };
+        return getForEntityAsync("task/poll/{taskType}", params, Task.class, taskType).thenApply(polledTask -> {
+            Task task = ObjectUtils.defaultIfNull(polledTask, new Task());
+            populateTaskPayloads(task);
+            return task;
+        });
+    }
+
     /**
      * Perform a batch poll for tasks by task type. Batch size is configurable by
      * count.
@@ -206,6 +263,118 @@ public class TaskClient extends ClientBase {
         return tasks;
     }
 
+    /**
+     * Batch poll for tasks in a domain, handing each task to the consumer as soon
+     * as it is parsed from the response, instead of once the whole batch was read.
+     * The first tasks of a large batch can then start while the others are still
+     * being received, and the batch is never held in memory at once. The tasks
+     * stored in external payload storage are downloaded in parallel, and handed to
+     * the consumer from the download threads.
+     *
+     * @param taskType
+     *            Type of task to poll for
+     * @param domain
+     *            The domain of the task type
+     * @param workerId
+     *            Name of the client worker. Used for logging.
+     * @param count
+     *            Maximum number of tasks to be returned. Actual number of tasks
+     *            returned can be less than this number.
+     * @param timeoutInMillisecond
+     *            Long poll wait timeout.
+     * @param taskConsumer
+     *            Receives the tasks awaiting to be executed, must be thread safe
+     *            and must not throw
+     * @return the # of tasks handed to the consumer, once they all were
+     */
+    public int batchPollTasksInDomain(String taskType, String domain, String workerId, int count,
+            int timeoutInMillisecond, Consumer<Task> taskConsumer) {
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        Validate.notBlank(workerId, "Worker id cannot be blank");
+        Validate.isTrue(count > 0, "Count must be greater than 0");
+        Validate.notNull(taskConsumer, "Task consumer cannot be null");
+
+        Object[] params = new Object[] { "workerid", workerId, "count", count, "timeout", timeoutInMillisecond,
+                "domain", domain };
+        AtomicInteger polledTasks = new AtomicInteger(0);
+        List<CompletableFuture<Void>> downloads = new ArrayList<>();
+        RuntimeException failure = null;
+        try {
+            getForEntityStream("task/poll/batch/{taskType}", params, Task.class, task -> {
+                polledTasks.incrementAndGet();
+                if (StringUtils.isBlank(task.getExternalInputPayloadStoragePath())
+                        && StringUtils.isBlank(task.getExternalOutputPayloadStoragePath())) {
+                    taskConsumer.accept(task);
+                    return;
+                }
+                downloads.add(CompletableFuture.runAsync(() -> {
+                    populateTaskPayloads(task);
+                    taskConsumer.accept(task);
+                }, PAYLOAD_DOWNLOAD_EXECUTOR));
+            }, taskType);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        // the consumer must not receive any task once the poll returned, even if it failed
+        for (CompletableFuture<Void> download : downloads) {
+            try {
+                download.join();
+            } catch (CompletionException e) {
+                Throwable cause = unwrap(e);
+                if (failure == null) {
+                    failure = (cause instanceof RuntimeException)
+                            ? (RuntimeException) cause
+                            : new ClientException(cause.getMessage(), cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return polledTasks.get();
+    }
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #batchPollTasksByTaskType(String, String, int, int)}.
+     */
+    public CompletableFuture<List<Task>> batchPollTasksByTaskTypeAsync(String taskType, String workerId, int count,
+            int timeoutInMillisecond) {
+        return batchPollTasksInDomainAsync(taskType, null, workerId, count, timeoutInMillisecond);
+    }
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #batchPollTasksInDomain(String, String, String, int, int)}.
+     */
+    public CompletableFuture<List<Task>> batchPollTasksInDomainAsync(String taskType, String domain, String workerId,
+            int count, int timeoutInMillisecond) {
+        Validate.notBlank(taskType, "Task type cannot be blank");
+        Validate.notBlank(workerId, "Worker id cannot be blank");
+        Validate.isTrue(count > 0, "Count must be greater than 0");
+
+        Object[] params = new Object[] { "workerid", workerId, "count", count, "timeout", timeoutInMillisecond,
+                "domain", domain };
+        return getForEntityAsync("task/poll/batch/{taskType}", params, taskList, taskType).thenApply(tasks -> {
+            tasks.forEach(this::populateTaskPayloads);
+            return tasks;
+        });
+    }
+
+    /**
+     * @return the daemon threads downloading the external payloads of streamed
+     *         polls, shared by all the task clients
+     */
+    private static ExecutorService newPayloadDownloadExecutor() {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("conductor-payload-download-%d").daemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Populates the task input/output from external payload storage if the external
      * storage path is specified.
@@ -245,6 +414,14 @@ public class TaskClient extends ClientBase {
         postForEntityWithRequestOnly("task", taskResult);
     }
 
+    /**
+     * Asynchronous counterpart of {@link #updateTask(TaskResult)}.
+     */
+    public CompletableFuture<Void> updateTaskAsync(TaskResult taskResult) {
+        Validate.notNull(taskResult, "Task result cannot be null");
+        return postForEntityAsync("task", taskResult, null, Void.class);
+    }
+
     public Optional<String> evaluateAndUploadLargePayload(Map<String, Object> taskOutputData, String taskType) {
         try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
             objectMapper.writeValue(byteArrayOutputStream, taskOutputData);
@@ -303,7 +480,7 @@ public class TaskClient extends ClientBase {
      */
     public void logMessageForTask(String taskId, String logMessage) {
         Validate.notBlank(taskId, "Task id cannot be blank");
-        postForEntityWithRequestOnly("task/" + taskId + "/log", logMessage);
+        postForEntity("task/{taskId}/log", logMessage, null, (Class<?>) null, taskId);
     }
 
     /**
@@ -329,6 +506,14 @@ public class TaskClient extends ClientBase {
         return getForEntity("task/{taskId}", null, Task.class, taskId);
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getTaskDetails(String)}.
+     */
+    public CompletableFuture<Task> getTaskDetailsAsync(String taskId) {
+        Validate.notBlank(taskId, "Task id cannot be blank");
+        return getForEntityAsync("task/{taskId}", null, Task.class, taskId);
+    }
+
     /**
      * Removes a task from a taskType queue
      *
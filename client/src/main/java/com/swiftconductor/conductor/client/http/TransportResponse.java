@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A response received by a {@link HttpTransport}. The body must be consumed or
+ * the response closed, so that the connection can be reused.
+ */
+public class TransportResponse implements Closeable {
+
+    private final int status;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+
+    /**
+     * @param status
+     *            the HTTP status code
+     * @param headers
+     *            the response headers
+     * @param body
+     *            the response body, empty if there is none
+     */
+    public TransportResponse(int status, Map<String, List<String>> headers, InputStream body) {
+        this.status = status;
+        // header names are case insensitive
+        Map<String, List<String>> caseInsensitiveHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.forEach((name, values) -> {
+            if (name != null) {
+                caseInsensitiveHeaders.put(name, values);
+            }
+        });
+        this.headers = Collections.unmodifiableMap(caseInsensitiveHeaders);
+        this.body = (body == null) ? InputStream.nullInputStream() : body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the first value of a header, null if the response does not have it
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return (values == null || values.isEmpty()) ? null : values.get(0);
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -16,6 +16,7 @@ package com.swiftconductor.conductor.client.http;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -128,6 +129,47 @@ public class WorkflowClient extends ClientBase {
      *             if {@link StartWorkflowRequest#getName()} is empty.
      */
     public String startWorkflow(StartWorkflowRequest startWorkflowRequest) {
+        String version = prepareStartWorkflowRequest(startWorkflowRequest);
+        try {
+            return postForEntity("workflow", startWorkflowRequest, null, String.class, startWorkflowRequest.getName());
+        } catch (ClientException e) {
+            String errorMsg = String.format("Unable to send start workflow request:%s, version:%s",
+                    startWorkflowRequest.getName(), version);
+            LOGGER.error(errorMsg, e);
+            MetricsContainer.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #startWorkflow(StartWorkflowRequest)}.
+     * The request is validated, and its input uploaded to
+     * {@link ExternalPayloadStorage} if needed, before this method returns.
+     *
+     * @return the future id of the workflow instance, which fails with a
+     *         {@link ClientException} if the server rejects the request
+     */
+    public CompletableFuture<String> startWorkflowAsync(StartWorkflowRequest startWorkflowRequest) {
+        String version = prepareStartWorkflowRequest(startWorkflowRequest);
+        return postForEntityAsync("workflow", startWorkflowRequest, null, String.class,
+                startWorkflowRequest.getName()).whenComplete((workflowId, error) -> {
+                    if (error != null) {
+                        String errorMsg = String.format("Unable to send start workflow request:%s, version:%s",
+                                startWorkflowRequest.getName(), version);
+                        LOGGER.error(errorMsg, unwrap(error));
+                        MetricsContainer.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(),
+                                unwrap(error));
+                    }
+                });
+    }
+
+    /**
+     * Validates a request to start a workflow and uploads its input to
+     * {@link ExternalPayloadStorage} if it is too large.
+     *
+     * @return the version of the workflow, for logging
+     */
+    private String prepareStartWorkflowRequest(StartWorkflowRequest startWorkflowRequest) {
         Validate.notNull(startWorkflowRequest, "StartWorkflowRequest cannot be null");
         Validate.notBlank(startWorkflowRequest.getName(), "Workflow name cannot be null or empty");
         Validate.isTrue(StringUtils.isBlank(startWorkflowRequest.getExternalInputPayloadStoragePath()),
@@ -165,15 +207,7 @@ public class WorkflowClient extends ClientBase {
             MetricsContainer.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
             throw new ClientException(errorMsg, e);
         }
-        try {
-            return postForEntity("workflow", startWorkflowRequest, null, String.class, startWorkflowRequest.getName());
-        } catch (ClientException e) {
-            String errorMsg = String.format("Unable to send start workflow request:%s, version:%s",
-                    startWorkflowRequest.getName(), version);
-            LOGGER.error(errorMsg, e);
-            MetricsContainer.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
-            throw e;
-        }
+        return version;
     }
 
     /**
@@ -193,6 +227,18 @@ public class WorkflowClient extends ClientBase {
         return workflow;
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getWorkflow(String, boolean)}.
+     */
+    public CompletableFuture<Workflow> getWorkflowAsync(String workflowId, boolean includeTasks) {
+        Validate.notBlank(workflowId, "workflow id cannot be blank");
+        return getForEntityAsync("workflow/{workflowId}", new Object[] { "includeTasks", includeTasks },
+                Workflow.class, workflowId).thenApply(workflow -> {
+                    populateWorkflowOutput(workflow);
+                    return workflow;
+                });
+    }
+
     /**
      * Retrieve all workflows for a given correlation id and name
      *
@@ -430,6 +476,17 @@ public class WorkflowClient extends ClientBase {
                 "workflow/{workflowId}", workflowId);
     }
 
+    /**
+     * Asynchronous counterpart of {@link #terminateWorkflow(String, String, boolean)}.
+     */
+    public CompletableFuture<Void> terminateWorkflowAsync(String workflowId, String reason,
+            boolean triggerFailureWorkflow) {
+        Validate.notBlank(workflowId, "workflow id cannot be blank");
+        return deleteWithUriVariablesAsync(
+                new Object[] { "reason", reason, "triggerFailureWorkflow", triggerFailureWorkflow },
+                "workflow/{workflowId}", workflowId);
+    }
+
     /**
      * Search for workflows based on payload
      *
@@ -22,43 +22,87 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.netflix.spectator.api.BasicTag;
 import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DistributionSummary;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Spectator;
 import com.netflix.spectator.api.Tag;
 import com.netflix.spectator.api.Timer;
+import com.netflix.spectator.api.histogram.PercentileDistributionSummary;
+import com.netflix.spectator.api.histogram.PercentileTimer;
 import com.netflix.spectator.api.patterns.PolledMeter;
 
 public class MetricsContainer {
 
     private static final String TASK_TYPE = "taskType";
+    private static final String DOMAIN = "domain";
     private static final String WORKFLOW_TYPE = "workflowType";
     private static final String WORKFLOW_VERSION = "version";
     private static final String EXCEPTION = "exception";
     private static final String ENTITY_NAME = "entityName";
+    private static final String ENDPOINT = "endpoint";
     private static final String OPERATION = "operation";
     private static final String PAYLOAD_TYPE = "payload_type";
+    private static final String DIRECTION = "direction";
+    private static final String METADATA_TYPE = "metadataType";
+    private static final String ENDPOINT_CLASS = "endpointClass";
+    private static final String METHOD = "method";
+    private static final String STATUS = "status";
 
     private static final String TASK_EXECUTION_QUEUE_FULL = "task_execution_queue_full";
     private static final String TASK_POLL_ERROR = "task_poll_error";
     private static final String TASK_PAUSED = "task_paused";
     private static final String TASK_EXECUTE_ERROR = "task_execute_error";
+    private static final String TASK_EXECUTE_TIMEOUT = "task_execute_timeout";
     private static final String TASK_ACK_FAILED = "task_ack_failed";
     private static final String TASK_ACK_ERROR = "task_ack_error";
     private static final String TASK_UPDATE_ERROR = "task_update_error";
     private static final String TASK_LEASE_EXTEND_ERROR = "task_lease_extend_error";
     private static final String TASK_LEASE_EXTEND_COUNTER = "task_lease_extend_counter";
+    private static final String TASK_LEASE_TRACKED = "task_lease_tracked";
+    private static final String TASK_LEASE_EXTEND_LAG = "task_lease_extend_lag";
     private static final String TASK_POLL_COUNTER = "task_poll_counter";
     private static final String TASK_EXECUTE_TIME = "task_execute_time";
     private static final String TASK_POLL_TIME = "task_poll_time";
+    private static final String TASK_UPDATE_TIME = "task_update_time";
+    private static final String TASK_UPDATE_QUEUE_DEPTH = "task_update_queue_depth";
+    private static final String TASK_UPDATE_BACKPRESSURE = "task_update_backpressure";
+    private static final String TASK_POLL_INTERVAL = "task_poll_interval";
+    private static final String TASK_THREAD_ALLOCATION = "task_thread_allocation";
+    private static final String TASK_SCALE_UP = "task_scale_up";
+    private static final String TASK_SCALE_DOWN = "task_scale_down";
+    private static final String TASK_PREFETCH_BUFFER_SIZE = "task_prefetch_buffer_size";
+    private static final String TASK_PREFETCH_RELEASED = "task_prefetch_released";
+    private static final String TASK_THROTTLE_TIME = "task_throttle_time";
+    private static final String TASK_THROTTLED = "task_throttled";
+    private static final String TASK_DOMAIN_POLL = "task_domain_poll";
+    private static final String TASK_DOMAIN_POLL_HIT = "task_domain_poll_hit";
+    private static final String TASK_POLL_SUPPRESSED = "task_poll_suppressed";
+    private static final String CIRCUIT_BREAKER_STATE = "circuit_breaker_state";
+    private static final String TASK_DRAIN_PHASE = "task_drain_phase";
+    private static final String TASK_DRAIN_IN_FLIGHT = "task_drain_in_flight";
+    private static final String TASK_DRAIN_PENDING_UPDATES = "task_drain_pending_updates";
+    private static final String TASK_DRAIN_RELEASED = "task_drain_released";
     private static final String TASK_RESULT_SIZE = "task_result_size";
     private static final String WORKFLOW_INPUT_SIZE = "workflow_input_size";
     private static final String EXTERNAL_PAYLOAD_USED = "external_payload_used";
     private static final String WORKFLOW_START_ERROR = "workflow_start_error";
+    private static final String ENDPOINT_EJECTED = "endpoint_ejected";
+    private static final String ENDPOINT_FAILOVER = "endpoint_failover";
+    private static final String HTTP_UNCOMPRESSED_BYTES = "http_uncompressed_bytes";
+    private static final String HTTP_COMPRESSED_BYTES = "http_compressed_bytes";
+    private static final String HTTP_REQUEST_TIME = "http_request_time";
+    private static final String HTTP_REQUEST_SIZE = "http_request_size";
+    private static final String HTTP_RESPONSE_SIZE = "http_response_size";
+    private static final String HTTP_CONCURRENCY_LIMIT = "http_concurrency_limit";
+    private static final String HTTP_CONCURRENCY_LIMIT_REJECTED = "http_concurrency_limit_rejected";
+    private static final String METADATA_CACHE_HIT = "metadata_cache_hit";
+    private static final String METADATA_CACHE_MISS = "metadata_cache_miss";
     private static final String THREAD_UNCAUGHT_EXCEPTION = "thread_uncaught_exceptions";
 
     private static final Registry REGISTRY = Spectator.globalRegistry();
     private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, DistributionSummary> DISTRIBUTION_SUMMARIES = new ConcurrentHashMap<>();
     private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
     private static final Map<String, AtomicLong> GAUGES = new ConcurrentHashMap<>();
     private static final String CLASS_NAME = MetricsContainer.class.getSimpleName();
@@ -74,6 +118,29 @@ public class MetricsContainer {
         return getTimer(TASK_EXECUTE_TIME, TASK_TYPE, taskType);
     }
 
+    public static Timer getTaskUpdateTimer(String taskType) {
+        return getTimer(TASK_UPDATE_TIME, TASK_TYPE, taskType);
+    }
+
+    public static Timer getTaskThrottleTimer(String taskType) {
+        return getTimer(TASK_THROTTLE_TIME, TASK_TYPE, taskType);
+    }
+
+    /**
+     * @return the timer of the requests to an endpoint of the server, with
+     *         percentiles
+     */
+    public static Timer getHttpRequestTimer(String endpoint, String method, String status) {
+        String[] additionalTags = { ENDPOINT, endpoint, METHOD, method, STATUS, status };
+        String key = CLASS_NAME + "." + HTTP_REQUEST_TIME + "." + String.join(",", additionalTags);
+        return TIMERS.computeIfAbsent(key, k -> {
+            List<Tag> tagList = getTags(additionalTags);
+            tagList.add(new BasicTag("unit", TimeUnit.MILLISECONDS.name()));
+            return PercentileTimer.builder(REGISTRY).withId(REGISTRY.createId(HTTP_REQUEST_TIME, tagList))
+                    .withRange(1, 60_000, TimeUnit.MILLISECONDS).build();
+        });
+    }
+
     private static Timer getTimer(String name, String... additionalTags) {
         String key = CLASS_NAME + "." + name + "." + String.join(",", additionalTags);
         return TIMERS.computeIfAbsent(key, k -> {
@@ -94,6 +161,14 @@ public class MetricsContainer {
         return tagList;
     }
 
+    private static DistributionSummary getPercentileDistributionSummary(String name, String... additionalTags) {
+        String key = CLASS_NAME + "." + name + "." + String.join(",", additionalTags);
+        return DISTRIBUTION_SUMMARIES.computeIfAbsent(key, k -> {
+            Id id = REGISTRY.createId(name, getTags(additionalTags));
+            return PercentileDistributionSummary.builder(REGISTRY).withId(id).withRange(0, 64L * 1024 * 1024).build();
+        });
+    }
+
     private static void incrementCount(String name, String... additionalTags) {
         getCounter(name, additionalTags).increment();
     }
@@ -118,6 +193,14 @@ public class MetricsContainer {
         incrementCount(TASK_EXECUTION_QUEUE_FULL, TASK_TYPE, taskType);
     }
 
+    public static void incrementEndpointEjectedCount(String endpoint) {
+        incrementCount(ENDPOINT_EJECTED, ENDPOINT, endpoint);
+    }
+
+    public static void incrementEndpointFailoverCount(String endpoint) {
+        incrementCount(ENDPOINT_FAILOVER, ENDPOINT, endpoint);
+    }
+
     public static void incrementUncaughtExceptionCount() {
         incrementCount(THREAD_UNCAUGHT_EXCEPTION);
     }
@@ -134,6 +217,10 @@ public class MetricsContainer {
         incrementCount(TASK_EXECUTE_ERROR, TASK_TYPE, taskType, EXCEPTION, e.getClass().getSimpleName());
     }
 
+    public static void incrementTaskExecutionTimeoutCount(String taskType) {
+        incrementCount(TASK_EXECUTE_TIMEOUT, TASK_TYPE, taskType);
+    }
+
     public static void incrementTaskAckFailedCount(String taskType) {
         incrementCount(TASK_ACK_FAILED, TASK_TYPE, taskType);
     }
@@ -146,10 +233,86 @@ public class MetricsContainer {
         getGauge(TASK_RESULT_SIZE, TASK_TYPE, taskType).getAndSet(payloadSize);
     }
 
+    public static void recordTaskPollInterval(String taskType, long pollInterval) {
+        getGauge(TASK_POLL_INTERVAL, TASK_TYPE, taskType).getAndSet(pollInterval);
+    }
+
     public static void incrementTaskUpdateErrorCount(String taskType, Throwable t) {
         incrementCount(TASK_UPDATE_ERROR, TASK_TYPE, taskType, EXCEPTION, t.getClass().getSimpleName());
     }
 
+    public static void recordTaskThreadAllocation(String taskType, long threadCount) {
+        getGauge(TASK_THREAD_ALLOCATION, TASK_TYPE, taskType).getAndSet(threadCount);
+    }
+
+    public static void incrementTaskScaleUpCount(String taskType) {
+        incrementCount(TASK_SCALE_UP, TASK_TYPE, taskType);
+    }
+
+    public static void incrementTaskScaleDownCount(String taskType) {
+        incrementCount(TASK_SCALE_DOWN, TASK_TYPE, taskType);
+    }
+
+    public static void recordTaskPrefetchBufferSize(String taskType, long bufferSize) {
+        getGauge(TASK_PREFETCH_BUFFER_SIZE, TASK_TYPE, taskType).getAndSet(bufferSize);
+    }
+
+    public static void incrementTaskPrefetchReleasedCount(String taskType) {
+        incrementCount(TASK_PREFETCH_RELEASED, TASK_TYPE, taskType);
+    }
+
+    public static void incrementTaskThrottledCount(String taskType) {
+        incrementCount(TASK_THROTTLED, TASK_TYPE, taskType);
+    }
+
+    public static void recordTaskUpdateQueueDepth(long queueDepth) {
+        getGauge(TASK_UPDATE_QUEUE_DEPTH).getAndSet(queueDepth);
+    }
+
+    public static void incrementTaskUpdateBackpressureCount(String taskType) {
+        incrementCount(TASK_UPDATE_BACKPRESSURE, TASK_TYPE, taskType);
+    }
+
+    public static void incrementTaskDomainPollCount(String taskType, String domain) {
+        incrementCount(TASK_DOMAIN_POLL, TASK_TYPE, taskType, DOMAIN, domain);
+    }
+
+    public static void incrementTaskDomainPollHitCount(String taskType, String domain) {
+        incrementCount(TASK_DOMAIN_POLL_HIT, TASK_TYPE, taskType, DOMAIN, domain);
+    }
+
+    public static void incrementTaskPollSuppressedCount(String taskType) {
+        incrementCount(TASK_POLL_SUPPRESSED, TASK_TYPE, taskType);
+    }
+
+    public static void recordCircuitBreakerState(long state) {
+        getGauge(CIRCUIT_BREAKER_STATE).getAndSet(state);
+    }
+
+    public static void recordTaskDrainPhase(long phase) {
+        getGauge(TASK_DRAIN_PHASE).getAndSet(phase);
+    }
+
+    public static void recordTaskDrainInFlightCount(long inFlightTasks) {
+        getGauge(TASK_DRAIN_IN_FLIGHT).getAndSet(inFlightTasks);
+    }
+
+    public static void recordTaskDrainPendingUpdates(long pendingUpdates) {
+        getGauge(TASK_DRAIN_PENDING_UPDATES).getAndSet(pendingUpdates);
+    }
+
+    public static void incrementTaskDrainReleasedCount(String taskType) {
+        incrementCount(TASK_DRAIN_RELEASED, TASK_TYPE, taskType);
+    }
+
+    public static void recordTaskLeaseTrackedCount(long trackedLeases) {
+        getGauge(TASK_LEASE_TRACKED).getAndSet(trackedLeases);
+    }
+
+    public static void recordTaskLeaseExtendLag(long lagMillis) {
+        getGauge(TASK_LEASE_EXTEND_LAG).getAndSet(lagMillis);
+    }
+
     public static void incrementTaskLeaseExtendErrorCount(String taskType, Throwable t) {
         incrementCount(TASK_LEASE_EXTEND_ERROR, TASK_TYPE, taskType, EXCEPTION, t.getClass().getSimpleName());
     }
@@ -173,4 +336,33 @@ public class MetricsContainer {
     public static void incrementWorkflowStartErrorCount(String workflowType, Throwable t) {
         incrementCount(WORKFLOW_START_ERROR, WORKFLOW_TYPE, workflowType, EXCEPTION, t.getClass().getSimpleName());
     }
+
+    public static void incrementHttpCompressionBytes(String direction, long uncompressedBytes, long compressedBytes) {
+        getCounter(HTTP_UNCOMPRESSED_BYTES, DIRECTION, direction).increment(uncompressedBytes);
+        getCounter(HTTP_COMPRESSED_BYTES, DIRECTION, direction).increment(compressedBytes);
+    }
+
+    public static void incrementMetadataCacheHitCount(String metadataType) {
+        incrementCount(METADATA_CACHE_HIT, METADATA_TYPE, metadataType);
+    }
+
+    public static void incrementMetadataCacheMissCount(String metadataType) {
+        incrementCount(METADATA_CACHE_MISS, METADATA_TYPE, metadataType);
+    }
+
+    public static void recordConcurrencyLimit(String endpointClass, long limit) {
+        getGauge(HTTP_CONCURRENCY_LIMIT, ENDPOINT_CLASS, endpointClass).getAndSet(limit);
+    }
+
+    public static void incrementConcurrencyLimitRejectedCount(String endpointClass) {
+        incrementCount(HTTP_CONCURRENCY_LIMIT_REJECTED, ENDPOINT_CLASS, endpointClass);
+    }
+
+    public static void recordHttpRequestSize(String endpoint, String method, long bytes) {
+        getPercentileDistributionSummary(HTTP_REQUEST_SIZE, ENDPOINT, endpoint, METHOD, method).record(bytes);
+    }
+
+    public static void recordHttpResponseSize(String endpoint, String method, long bytes) {
+        getPercentileDistributionSummary(HTTP_RESPONSE_SIZE, ENDPOINT, endpoint, METHOD, method).record(bytes);
+    }
 }
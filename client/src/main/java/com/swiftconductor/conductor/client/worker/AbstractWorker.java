@@ -96,10 +96,59 @@ public interface AbstractWorker {
         return PropertyFactory.getInteger(getTaskDefName(), "pollInterval", 1000);
     }
 
+    /**
+     * Override this method to adapt the interval between polls to the load of the
+     * task queue, e.g. with an
+     * {@link com.swiftconductor.conductor.client.automation.AdaptivePollingPolicy}.
+     * The method is called once when polling starts.
+     *
+     * @return the policy deciding the interval between polls, or null to poll at
+     *         {@link #getPollingInterval()}
+     */
+    default PollingPolicy getPollingPolicy() {
+        return null;
+    }
+
     default boolean leaseExtendEnabled() {
         return PropertyFactory.getBoolean(getTaskDefName(), "leaseExtendEnabled", false);
     }
 
+    /**
+     * Override this method to stop waiting for the tasks which run for longer than
+     * their execution timeout. A timed out task is interrupted, its slot is given
+     * to another task and its result is dropped, as the server schedules it again
+     * once its response timeout elapsed.
+     *
+     * @return true if the execution timeout is enforced
+     * @see #getExecutionTimeoutSeconds()
+     */
+    default boolean executionTimeoutEnabled() {
+        return PropertyFactory.getBoolean(getTaskDefName(), "executionTimeoutEnabled", false);
+    }
+
+    /**
+     * Override this method to change the execution timeout.
+     *
+     * @return seconds after which the execution of a task times out, or 0 to use
+     *         the response timeout of the task, unless its lease is extended
+     */
+    default int getExecutionTimeoutSeconds() {
+        return PropertyFactory.getInteger(getTaskDefName(), "executionTimeoutSeconds", 0);
+    }
+
+    /**
+     * Override this method to start each polled task as soon as it is parsed from
+     * the poll response, instead of once the whole batch was received. Worth it
+     * for large batches of tasks with large inputs.
+     *
+     * @return true if the polls are streamed
+     * @see com.swiftconductor.conductor.client.http.TaskClient#batchPollTasksInDomain(String,
+     *      String, String, int, int, java.util.function.Consumer)
+     */
+    default boolean streamingPollEnabled() {
+        return PropertyFactory.getBoolean(getTaskDefName(), "streamingPollEnabled", false);
+    }
+
     default int getBatchPollTimeoutInMS() {
         return PropertyFactory.getInteger(getTaskDefName(), "batchPollTimeoutInMS", 1000);
     }
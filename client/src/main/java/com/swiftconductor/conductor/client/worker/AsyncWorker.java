@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.worker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+/**
+ * A worker which executes tasks asynchronously, e.g. with a non-blocking IO
+ * library.
+ *
+ * <p>
+ * The execution thread is released as soon as {@link #executeAsync(Task)}
+ * returns. The task keeps its slot, and its lease is extended, until the
+ * future completes, then the result is reported to the server. The thread count
+ * of the task type therefore limits the number of tasks in flight, while only a
+ * few threads (up to the number of processors) are used to start tasks and
+ * report their results.
+ */
+public interface AsyncWorker extends AbstractWorker {
+
+    /**
+     * Starts the execution of a task.
+     *
+     * @param task
+     *            Task to be executed.
+     * @return a future completed with the {@link TaskResult}, or completed
+     *         exceptionally if the execution failed. If the task is not completed
+     *         yet, complete it with the status as IN_PROGRESS.
+     */
+    CompletableFuture<TaskResult> executeAsync(Task task);
+
+    /**
+     * Executes a task and waits for its result.
+     */
+    @Override
+    default TaskResult execute(Task task) {
+        return executeAsync(task).join();
+    }
+
+    static AsyncWorker create(String taskType, Function<Task, CompletableFuture<TaskResult>> executor) {
+        return new AsyncWorker() {
+
+            @Override
+            public String getTaskDefName() {
+                return taskType;
+            }
+
+            @Override
+            public CompletableFuture<TaskResult> executeAsync(Task task) {
+                return executor.apply(task);
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.worker;
+
+/**
+ * Decides how long the
+ * {@link com.swiftconductor.conductor.client.automation.WorkerHost} waits
+ * between two polls of a task type, based on the outcome of the previous polls.
+ *
+ * <p>
+ * An instance is used by a single task type and is notified after every poll.
+ *
+ * @see AbstractWorker#getPollingPolicy()
+ * @see com.swiftconductor.conductor.client.automation.AdaptivePollingPolicy
+ */
+public interface PollingPolicy {
+
+    /**
+     * Records the outcome of a poll.
+     *
+     * @param requestedTasks
+     *            the number of tasks asked for in the poll
+     * @param receivedTasks
+     *            the number of tasks returned by the server, 0 if the poll
+     *            failed
+     */
+    void onPoll(int requestedTasks, int receivedTasks);
+
+    /**
+     * @return the time in milliseconds to wait before the next poll
+     */
+    long getCurrentInterval();
+}
@@ -13,6 +13,9 @@
  */
 package com.swiftconductor.conductor.client.http
 
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CompletableFuture
+
 import com.swiftconductor.conductor.common.config.ObjectMapperProvider
 
 import com.fasterxml.jackson.databind.ObjectMapper
@@ -26,6 +29,12 @@ abstract class ClientSpecification extends Specification {
         URI.create(ROOT_URL + path)
     }
 
+    protected static CompletableFuture<TransportResponse> asyncResponse(int status, String contentType, String body) {
+        Map<String, List<String>> headers = contentType ? ['Content-Type': [contentType]] : [:]
+        InputStream stream = new ByteArrayInputStream((body ?: '').getBytes(StandardCharsets.UTF_8))
+        CompletableFuture.completedFuture(new TransportResponse(status, headers, stream))
+    }
+
     protected ClientRequestHandler requestHandler
     protected ObjectMapper objectMapper
 
@@ -39,7 +39,7 @@ class EventClientSpec extends ClientSpecification {
         eventClient.registerEventHandler(handler)
 
         then:
-        1 * requestHandler.getWebResourceBuilder(uri, handler) >> Mock(WebResource.Builder.class)
+        1 * requestHandler.getWebResourceBuilder(uri, handler, _) >> Mock(WebResource.Builder.class)
     }
 
     def "update event handler"() {
@@ -51,7 +51,7 @@ class EventClientSpec extends ClientSpecification {
         eventClient.updateEventHandler(handler)
 
         then:
-        1 * requestHandler.getWebResourceBuilder(uri, handler) >> Mock(WebResource.Builder.class)
+        1 * requestHandler.getWebResourceBuilder(uri, handler, _) >> Mock(WebResource.Builder.class)
     }
 
     def "unregister event handler"() {
@@ -63,7 +63,7 @@ class EventClientSpec extends ClientSpecification {
         eventClient.unregisterEventHandler(eventName)
 
         then:
-        1 * requestHandler.delete(uri, null)
+        1 * requestHandler.delete(uri, null, _)
     }
 
     @Unroll
@@ -78,7 +78,7 @@ class EventClientSpec extends ClientSpecification {
 
         then:
         eventHandlers && eventHandlers.size() == 2
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> handlers
         }
 
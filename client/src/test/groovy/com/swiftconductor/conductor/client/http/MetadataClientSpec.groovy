@@ -39,7 +39,7 @@ class MetadataClientSpec extends ClientSpecification {
         metadataClient.unregisterWorkflowDef(workflowName, version)
 
         then:
-        1 * requestHandler.delete(uri, null)
+        1 * requestHandler.delete(uri, null, _)
     }
 
     def "workflow delete throws exception"() {
@@ -52,7 +52,7 @@ class MetadataClientSpec extends ClientSpecification {
         metadataClient.unregisterWorkflowDef(workflowName, version)
 
         then:
-        1 * requestHandler.delete(uri, null) >> { throw new RuntimeException(clientResponse) }
+        1 * requestHandler.delete(uri, null, _) >> { throw new RuntimeException(clientResponse) }
         def ex = thrown(ClientException.class)
         ex.message == "Unable to invoke Conductor API with uri: $uri, runtime exception occurred"
     }
@@ -88,7 +88,7 @@ class MetadataClientSpec extends ClientSpecification {
         metadataClient.getAllWorkflowsWithLatestVersions()
 
         then:
-        1 * requestHandler.get(uri) >>  Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >>  Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
     }
@@ -13,6 +13,10 @@
  */
 package com.swiftconductor.conductor.client.http
 
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import com.swiftconductor.conductor.client.exception.ClientException
 import com.swiftconductor.conductor.common.metadata.tasks.Task
 import com.swiftconductor.conductor.common.run.SearchResult
 import com.swiftconductor.conductor.common.run.TaskSummary
@@ -43,7 +47,7 @@ class TaskClientSpec extends ClientSpecification {
         SearchResult<TaskSummary> searchResult = taskClient.search(query)
 
         then:
-        1 * requestHandler.get(uri) >>  Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >>  Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -65,7 +69,7 @@ class TaskClientSpec extends ClientSpecification {
         SearchResult<Task> searchResult = taskClient.searchV2('my_complex_query')
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -91,7 +95,7 @@ class TaskClientSpec extends ClientSpecification {
         SearchResult<TaskSummary> searchResult = taskClient.search(start, size, sort, freeText, query)
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -117,7 +121,7 @@ class TaskClientSpec extends ClientSpecification {
         SearchResult<Task> searchResult = taskClient.searchV2(start, size, sort, freeText, query)
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -125,4 +129,62 @@ class TaskClientSpec extends ClientSpecification {
         searchResult.results && searchResult.results.size() == 1
         searchResult.results[0] instanceof Task
     }
+
+    def "pollTaskAsync"() {
+        given:
+        URI uri = createURI("task/poll/test?workerid=worker&domain=domain")
+
+        when:
+        Task task = taskClient.pollTaskAsync('test', 'worker', 'domain').get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync({ it.method == 'GET' && it.uri == uri }) >> asyncResponse(200,
+                'application/json', '{"taskId":"t1","taskType":"test","status":"IN_PROGRESS"}')
+
+        task.taskId == 't1'
+        task.status == Task.Status.IN_PROGRESS
+    }
+
+    def "pollTaskAsync without a task"() {
+        given:
+        URI uri = createURI("task/poll/test?workerid=worker")
+
+        when:
+        Task task = taskClient.pollTaskAsync('test', 'worker', null).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync({ it.uri == uri }) >> asyncResponse(204, null, null)
+
+        task != null
+        task.taskId == null
+    }
+
+    def "batchPollTasksByTaskTypeAsync"() {
+        given:
+        URI uri = createURI("task/poll/batch/test?workerid=worker&count=2&timeout=100")
+
+        when:
+        List<Task> tasks = taskClient.batchPollTasksByTaskTypeAsync('test', 'worker', 2, 100)
+                .get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync({ it.method == 'GET' && it.uri == uri }) >> asyncResponse(200,
+                'application/json', '[{"taskId":"t1","taskType":"test"},{"taskId":"t2","taskType":"test"}]')
+
+        tasks*.taskId == ['t1', 't2']
+    }
+
+    def "batchPollTasksByTaskTypeAsync with an error response"() {
+        when:
+        taskClient.batchPollTasksByTaskTypeAsync('test', 'worker', 2, 100).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync(_) >> asyncResponse(400, 'application/json',
+                '{"status":400,"message":"Invalid task type"}')
+
+        ExecutionException e = thrown()
+        e.cause instanceof ClientException
+        ((ClientException) e.cause).status == 400
+        e.cause.message == 'Invalid task type'
+    }
 }
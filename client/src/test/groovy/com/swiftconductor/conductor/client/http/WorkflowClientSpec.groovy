@@ -13,11 +13,19 @@
  */
 package com.swiftconductor.conductor.client.http
 
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import com.swiftconductor.conductor.client.exception.ClientException
+import com.swiftconductor.conductor.common.metadata.workflow.StartWorkflowRequest
 import com.swiftconductor.conductor.common.metadata.workflow.WorkflowDef
 import com.swiftconductor.conductor.common.run.SearchResult
 import com.swiftconductor.conductor.common.run.Workflow
 import com.swiftconductor.conductor.common.run.WorkflowSummary
 
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spectator.api.Registry
+import com.netflix.spectator.api.Spectator
 import com.sun.jersey.api.client.ClientResponse
 import spock.lang.Subject
 
@@ -44,7 +52,7 @@ class WorkflowClientSpec extends ClientSpecification {
         SearchResult<WorkflowSummary> searchResult = workflowClient.search(query)
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -66,7 +74,7 @@ class WorkflowClientSpec extends ClientSpecification {
         SearchResult<Workflow> searchResult = workflowClient.searchV2('my_complex_query')
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -92,7 +100,7 @@ class WorkflowClientSpec extends ClientSpecification {
         SearchResult<WorkflowSummary> searchResult = workflowClient.search(start, size, sort, freeText, query)
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -118,7 +126,7 @@ class WorkflowClientSpec extends ClientSpecification {
         SearchResult<Workflow> searchResult = workflowClient.searchV2(start, size, sort, freeText, query)
 
         then:
-        1 * requestHandler.get(uri) >> Mock(ClientResponse.class) {
+        1 * requestHandler.get(uri, _) >> Mock(ClientResponse.class) {
             getEntity(_) >> result
         }
 
@@ -126,4 +134,69 @@ class WorkflowClientSpec extends ClientSpecification {
         searchResult.results && searchResult.results.size() == 1
         searchResult.results[0] instanceof Workflow
     }
+
+    def "startWorkflowAsync"() {
+        given:
+        StartWorkflowRequest request = new StartWorkflowRequest(name: 'test', input: [key: 'value'])
+
+        when:
+        String workflowId = workflowClient.startWorkflowAsync(request).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync({
+            it.method == 'POST' && it.uri == createURI('workflow') && new String(it.body).contains('"key":"value"')
+        }) >> asyncResponse(200, 'text/plain', 'wf-1')
+
+        workflowId == 'wf-1'
+    }
+
+    def "startWorkflowAsync with an error response"() {
+        given:
+        Registry registry = new DefaultRegistry()
+        Spectator.globalRegistry().add(registry)
+        StartWorkflowRequest request = new StartWorkflowRequest(name: 'test_async_error')
+
+        when:
+        workflowClient.startWorkflowAsync(request).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync(_) >> asyncResponse(500, 'application/json',
+                '{"status":500,"message":"Unable to start workflow"}')
+
+        ExecutionException e = thrown()
+        e.cause instanceof ClientException
+        ((ClientException) e.cause).status == 500
+        registry.counter('workflow_start_error', 'class', 'MetricsContainer', 'workflowType', 'test_async_error',
+                'exception', 'ClientException').count() == 1
+        registry.timer('http_request_time', 'class', 'MetricsContainer', 'endpoint', 'workflow', 'method', 'POST',
+                'status', '5xx', 'unit', 'MILLISECONDS').count() == 1
+
+        cleanup:
+        Spectator.globalRegistry().remove(registry)
+    }
+
+    def "terminateWorkflowAsync"() {
+        given:
+        String workflowId = 'wf-1'
+        URI uri = createURI("workflow/$workflowId?reason=testing&triggerFailureWorkflow=true")
+
+        when:
+        workflowClient.terminateWorkflowAsync(workflowId, 'testing', true).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync({ it.method == 'DELETE' && it.uri == uri && it.body == null }) >>
+                asyncResponse(200, null, null)
+    }
+
+    def "terminateWorkflowAsync with an error response"() {
+        when:
+        workflowClient.terminateWorkflowAsync('missing', 'testing', false).get(5, TimeUnit.SECONDS)
+
+        then:
+        1 * requestHandler.executeAsync(_) >> asyncResponse(404, 'application/json',
+                '{"status":404,"message":"Workflow not found"}')
+
+        ExecutionException e = thrown()
+        ((ClientException) e.cause).status == 404
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptivePollingPolicyTest {
+
+    @Test
+    public void testBackoffOnEmptyPolls() {
+        AdaptivePollingPolicy pollingPolicy = new AdaptivePollingPolicy(100, 1000, 2.0, 0);
+        assertEquals(100, pollingPolicy.getCurrentInterval());
+
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(100, pollingPolicy.getCurrentInterval());
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(200, pollingPolicy.getCurrentInterval());
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(400, pollingPolicy.getCurrentInterval());
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(800, pollingPolicy.getCurrentInterval());
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(1000, pollingPolicy.getCurrentInterval());
+    }
+
+    @Test
+    public void testRampUpOnBusyQueue() {
+        AdaptivePollingPolicy pollingPolicy = new AdaptivePollingPolicy(100, 1000, 2.0, 0);
+        pollingPolicy.onPoll(5, 0);
+        pollingPolicy.onPoll(5, 0);
+
+        pollingPolicy.onPoll(5, 5);
+        assertEquals(0, pollingPolicy.getCurrentInterval());
+
+        pollingPolicy.onPoll(5, 2);
+        assertEquals(100, pollingPolicy.getCurrentInterval());
+
+        // the backoff starts over after tasks were received
+        pollingPolicy.onPoll(5, 0);
+        assertEquals(100, pollingPolicy.getCurrentInterval());
+    }
+
+    @Test
+    public void testJitterStaysWithinBounds() {
+        AdaptivePollingPolicy pollingPolicy = new AdaptivePollingPolicy(100, 1000);
+        for (int i = 0; i < 20; i++) {
+            pollingPolicy.onPoll(1, 0);
+            long interval = pollingPolicy.getCurrentInterval();
+            assertTrue(interval >= 80 && interval <= 1000);
+        }
+    }
+}
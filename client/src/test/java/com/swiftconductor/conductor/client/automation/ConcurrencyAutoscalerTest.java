@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.http.TaskClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyAutoscalerTest {
+
+    private static final String TASK_TYPE = "test_task";
+
+    private TaskClient taskClient;
+    private Map<String, PollingSemaphore> pollingSemaphores;
+    private ThreadPoolExecutor executorService;
+    private ConcurrencyAutoscaler autoscaler;
+
+    @Before
+    public void setUp() {
+        taskClient = mock(TaskClient.class);
+        pollingSemaphores = new HashMap<>();
+        pollingSemaphores.put(TASK_TYPE, new PollingSemaphore(8));
+        executorService = (ThreadPoolExecutor) Executors.newFixedThreadPool(8);
+
+        Map<String, Integer> maxThreadCount = new HashMap<>();
+        maxThreadCount.put(TASK_TYPE, 20);
+        autoscaler = new ConcurrencyAutoscaler(taskClient, new HashMap<>(), maxThreadCount, 10000);
+        autoscaler.start(pollingSemaphores, taskType -> Collections.singletonList(null), executorService,
+                (taskType, threadCount) -> threadCount);
+    }
+
+    @After
+    public void tearDown() {
+        autoscaler.shutdown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testScaleUpToDrainBacklog() {
+        when(taskClient.getQueueSizeForTask(eq(TASK_TYPE), any(), any(), any())).thenReturn(150);
+        autoscaler.onExecuted(TASK_TYPE, 1000);
+
+        autoscaler.scale();
+
+        // 150 tasks of 1 second each take 15 threads to drain within 10 seconds
+        assertEquals(15, autoscaler.getThreadCount(TASK_TYPE));
+        assertEquals(15, executorService.getCorePoolSize());
+        assertEquals(15, executorService.getMaximumPoolSize());
+
+        autoscaler.onExecuted(TASK_TYPE, 1000);
+        when(taskClient.getQueueSizeForTask(eq(TASK_TYPE), any(), any(), any())).thenReturn(1000);
+        autoscaler.scale();
+        assertEquals(20, autoscaler.getThreadCount(TASK_TYPE));
+    }
+
+    @Test
+    public void testScaleDownGradually() {
+        when(taskClient.getQueueSizeForTask(eq(TASK_TYPE), any(), any(), any())).thenReturn(0);
+
+        autoscaler.scale();
+        assertEquals(4, autoscaler.getThreadCount(TASK_TYPE));
+        autoscaler.scale();
+        assertEquals(2, autoscaler.getThreadCount(TASK_TYPE));
+        autoscaler.scale();
+        assertEquals(1, autoscaler.getThreadCount(TASK_TYPE));
+        autoscaler.scale();
+        assertEquals(1, autoscaler.getThreadCount(TASK_TYPE));
+        assertEquals(1, executorService.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testScaleOnHitRateWithoutQueueDepth() {
+        when(taskClient.getQueueSizeForTask(eq(TASK_TYPE), any(), any(), any()))
+                .thenThrow(new ClientException("server unavailable"));
+
+        autoscaler.onPoll(TASK_TYPE, 8, 8);
+        autoscaler.scale();
+        assertEquals(16, autoscaler.getThreadCount(TASK_TYPE));
+
+        // no poll since the last interval, keep the thread count
+        autoscaler.scale();
+        assertEquals(16, autoscaler.getThreadCount(TASK_TYPE));
+
+        autoscaler.onPoll(TASK_TYPE, 16, 0);
+        autoscaler.scale();
+        assertEquals(8, autoscaler.getThreadCount(TASK_TYPE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinThreadCountAboveMax() {
+        Map<String, Integer> minThreadCount = new HashMap<>();
+        minThreadCount.put(TASK_TYPE, 10);
+        Map<String, PollingSemaphore> semaphores = new HashMap<>();
+        semaphores.put(TASK_TYPE, new PollingSemaphore(2));
+
+        // the max thread count defaults to the initial thread count, below the min
+        new ConcurrencyAutoscaler(taskClient, minThreadCount, new HashMap<>(), 10000).start(semaphores,
+                taskType -> Collections.singletonList(null), executorService,
+                (taskType, threadCount) -> threadCount);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DomainSelectorTest {
+
+    private static final String TASK_TYPE = "multi_domain_task";
+
+    @Test
+    public void testParsesWeightedDomains() {
+        assertFalse(DomainSelector.isWeighted(null));
+        assertFalse(DomainSelector.isWeighted("tenant_a"));
+        assertTrue(DomainSelector.isWeighted("tenant_a,tenant_b"));
+        assertTrue(DomainSelector.isWeighted("tenant_a:2"));
+
+        DomainSelector domainSelector = new DomainSelector(TASK_TYPE, " tenant_a:3, tenant_b ,NO_DOMAIN:x,,c:0");
+        assertEquals(Arrays.asList("tenant_a", "tenant_b", null), domainSelector.getDomains());
+    }
+
+    @Test
+    public void testSpreadsPollsByWeight() {
+        DomainSelector domainSelector = new DomainSelector(TASK_TYPE, "tenant_a:3,tenant_b,NO_DOMAIN:2");
+        List<String> polled = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            polled.add(domainSelector.next());
+        }
+        assertEquals(6, Collections.frequency(polled, "tenant_a"));
+        assertEquals(2, Collections.frequency(polled, "tenant_b"));
+        assertEquals(4, Collections.frequency(polled, null));
+        // smooth round-robin does not poll the heaviest domain in a row
+        assertEquals(Arrays.asList("tenant_a", null, "tenant_a", "tenant_b", null, "tenant_a"),
+                polled.subList(0, 6));
+    }
+
+    @Test
+    public void testSkipsDomainsReturningEmpty() {
+        DomainSelector domainSelector = new DomainSelector(TASK_TYPE, "tenant_a,tenant_b");
+        for (int i = 0; i < 3; i++) {
+            domainSelector.onPoll("tenant_a", 0);
+        }
+        domainSelector.onPoll("tenant_b", 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("tenant_b", domainSelector.next());
+        }
+
+        // all the domains backing off are polled rather than none
+        domainSelector.onPoll("tenant_b", 0);
+        domainSelector.onPoll("tenant_b", 0);
+        List<String> polled = Arrays.asList(domainSelector.next(), domainSelector.next());
+        assertTrue(polled.contains("tenant_a"));
+        assertTrue(polled.contains("tenant_b"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FairShareSchedulerTest {
+
+    @Test
+    public void testInitialAllocationByWeight() {
+        Map<String, Integer> minThreadCount = new HashMap<>();
+        minThreadCount.put("a", 0);
+        minThreadCount.put("b", 0);
+        Map<String, Integer> weight = new HashMap<>();
+        weight.put("b", 3);
+
+        FairShareScheduler scheduler = new FairShareScheduler(8, Arrays.asList("a", "b"), minThreadCount, weight);
+
+        assertEquals(2, scheduler.getAllocation("a"));
+        assertEquals(6, scheduler.getAllocation("b"));
+        assertEquals(6, scheduler.getPollingSemaphores().get("b").availableSlots());
+    }
+
+    @Test
+    public void testIdleCapacityFlowsToBusyTaskType() {
+        FairShareScheduler scheduler = new FairShareScheduler(8, Arrays.asList("a", "b"), new HashMap<>(),
+                new HashMap<>());
+        assertEquals(4, scheduler.getAllocation("a"));
+        assertEquals(4, scheduler.getAllocation("b"));
+
+        scheduler.onPoll("a", 4, 4);
+        scheduler.onPoll("b", 4, 0);
+        scheduler.rebalance();
+        assertEquals(7, scheduler.getAllocation("a"));
+        assertEquals(1, scheduler.getAllocation("b"));
+
+        scheduler.onPoll("a", 7, 0);
+        scheduler.onPoll("b", 1, 1);
+        scheduler.rebalance();
+        assertEquals(1, scheduler.getAllocation("a"));
+        assertEquals(7, scheduler.getAllocation("b"));
+    }
+
+    @Test
+    public void testBusyTaskTypesShareByWeight() {
+        Map<String, Integer> weight = new HashMap<>();
+        weight.put("a", 2);
+        FairShareScheduler scheduler = new FairShareScheduler(10, Arrays.asList("a", "b", "c"), new HashMap<>(),
+                weight);
+
+        scheduler.onPoll("a", 1, 1);
+        scheduler.onPoll("b", 1, 1);
+        scheduler.onPoll("c", 1, 0);
+        scheduler.rebalance();
+        assertEquals(6, scheduler.getAllocation("a"));
+        assertEquals(3, scheduler.getAllocation("b"));
+        assertEquals(1, scheduler.getAllocation("c"));
+    }
+
+    @Test
+    public void testShrinkWaitsForRunningTasks() {
+        FairShareScheduler scheduler = new FairShareScheduler(4, Arrays.asList("a", "b"), new HashMap<>(),
+                new HashMap<>());
+        PollingSemaphore semaphore = scheduler.getPollingSemaphores().get("a");
+        assertTrue(semaphore.acquireSlots(2));
+
+        scheduler.onPoll("b", 2, 2);
+        scheduler.rebalance();
+        // a is using all of its slots, so it keeps them
+        assertEquals(2, scheduler.getAllocation("a"));
+
+        semaphore.complete(2);
+        scheduler.onPoll("a", 2, 0);
+        scheduler.rebalance();
+        assertEquals(1, scheduler.getAllocation("a"));
+        assertEquals(3, scheduler.getAllocation("b"));
+
+        semaphore.setSlots(0);
+        assertFalse(semaphore.acquireSlots(1));
+    }
+
+    @Test
+    public void testFewerSlotsThanTaskTypes() {
+        List<String> taskTypes = Arrays.asList("a", "b", "c", "d");
+        FairShareScheduler scheduler = new FairShareScheduler(2, taskTypes, new HashMap<>(), new HashMap<>());
+
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            int allocated = 0;
+            for (String taskType : taskTypes) {
+                allocated += scheduler.getAllocation(taskType);
+                if (scheduler.getAllocation(taskType) > 0) {
+                    served.add(taskType);
+                }
+            }
+            assertEquals(2, allocated);
+            scheduler.rebalance();
+        }
+        // the idle task types take turns
+        assertEquals(4, served.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinThreadCountExceedsCapacity() {
+        Map<String, Integer> minThreadCount = new HashMap<>();
+        minThreadCount.put("a", 5);
+        new FairShareScheduler(4, Arrays.asList("a", "b"), minThreadCount, new HashMap<>());
+    }
+}
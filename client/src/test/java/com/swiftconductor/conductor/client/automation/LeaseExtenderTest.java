@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LeaseExtenderTest {
+
+    @Test
+    public void testExtendUntilCancelled() throws Exception {
+        LeaseExtender leaseExtender = new LeaseExtender(10, 8, 1, false);
+        AtomicInteger extensions = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        leaseExtender.track("task-1", 20, () -> {
+            extensions.incrementAndGet();
+            latch.countDown();
+        });
+        assertTrue(leaseExtender.isTracked("task-1"));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        leaseExtender.cancel("task-1");
+        assertFalse(leaseExtender.isTracked("task-1"));
+        Thread.sleep(100);
+        int count = extensions.get();
+        Thread.sleep(200);
+        assertEquals(count, extensions.get());
+        leaseExtender.shutdown(1);
+    }
+
+    @Test
+    public void testIntervalLongerThanWheel() throws Exception {
+        LeaseExtender leaseExtender = new LeaseExtender(10, 4, 2, false);
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        leaseExtender.track("task-1", 150, latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 140);
+        assertEquals(1, leaseExtender.getTrackedLeases());
+        leaseExtender.shutdown(1);
+        assertEquals(0, leaseExtender.getTrackedLeases());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PrefetchBufferTest {
+
+    private static final long NO_DEADLINE = TimeUnit.DAYS.toNanos(1);
+
+    @Test
+    public void testBoundedFifo() {
+        PrefetchBuffer prefetchBuffer = new PrefetchBuffer(3);
+        Task task1 = task("1");
+        Task task2 = task("2");
+
+        assertTrue(prefetchBuffer.offer(task1, System.nanoTime() + NO_DEADLINE));
+        assertTrue(prefetchBuffer.offer(task2, System.nanoTime() + NO_DEADLINE));
+        assertTrue(prefetchBuffer.offer(task("3"), System.nanoTime() + NO_DEADLINE));
+        assertFalse(prefetchBuffer.offer(task("4"), System.nanoTime() + NO_DEADLINE));
+        assertEquals(0, prefetchBuffer.remainingCapacity());
+
+        assertSame(task1, prefetchBuffer.poll(task -> {
+        }));
+        assertSame(task2, prefetchBuffer.poll(task -> {
+        }));
+        assertEquals(1, prefetchBuffer.size());
+        assertEquals(2, prefetchBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void testExpiredTasksSkipped() {
+        PrefetchBuffer prefetchBuffer = new PrefetchBuffer(2);
+        Task expiredTask = task("1");
+        Task task = task("2");
+        prefetchBuffer.offer(expiredTask, System.nanoTime() - 1);
+        prefetchBuffer.offer(task, System.nanoTime() + NO_DEADLINE);
+
+        List<Task> expiredTasks = new ArrayList<>();
+        assertSame(task, prefetchBuffer.poll(expiredTasks::add));
+        assertEquals(Collections.singletonList(expiredTask), expiredTasks);
+        assertNull(prefetchBuffer.poll(expiredTasks::add));
+    }
+
+    @Test
+    public void testConcurrentOfferAndPoll() throws InterruptedException {
+        PrefetchBuffer prefetchBuffer = new PrefetchBuffer(16);
+        int producers = 4;
+        int tasksPerProducer = 10000;
+        Set<String> taken = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(producers * 2);
+        CountDownLatch latch = new CountDownLatch(producers * 2);
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executorService.execute(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    Task task = task(producer + "-" + i);
+                    while (!prefetchBuffer.offer(task, System.nanoTime() + NO_DEADLINE)) {
+                        Thread.yield();
+                    }
+                }
+                latch.countDown();
+            });
+            executorService.execute(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    Task task;
+                    while ((task = prefetchBuffer.poll(t -> {
+                    })) == null) {
+                        Thread.yield();
+                    }
+                    assertTrue(taken.add(task.getTaskId()));
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(producers * tasksPerProducer, taken.size());
+        assertEquals(0, prefetchBuffer.size());
+        executorService.shutdown();
+    }
+
+    private Task task(String taskId) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        return task;
+    }
+}
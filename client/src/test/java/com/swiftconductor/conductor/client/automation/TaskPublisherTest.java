@@ -0,0 +1,391 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.swiftconductor.conductor.client.http.TaskClient;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the {@link TaskPublisher} against the rules of the Reactive Streams
+ * specification, referenced by their number.
+ */
+public class TaskPublisherTest {
+
+    private static final String TASK_TYPE = "reactive_task";
+
+    private TaskClient taskClient;
+    private TaskPublisher publisher;
+
+    @Before
+    public void setUp() {
+        taskClient = mock(TaskClient.class);
+        // the server returns as many tasks as requested
+        when(taskClient.batchPollTasksInDomain(eq(TASK_TYPE), any(), any(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> tasks(invocation.getArgument(3)));
+        publisher = new TaskPublisher(taskClient, TASK_TYPE, null, "test-worker", 100, 10, 10, 2);
+    }
+
+    @After
+    public void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    public void rule_1_1_onNextNeverExceedsDemand() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.request(3);
+
+        subscriber.awaitTasks(3);
+        Thread.sleep(100);
+        assertEquals(3, subscriber.tasks.size());
+        verify(taskClient).batchPollTasksInDomain(eq(TASK_TYPE), any(), any(), eq(3), anyInt());
+    }
+
+    @Test
+    public void rule_1_3_signalsAreSerialized() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    subscriber.request(1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        subscriber.awaitTasks(400);
+        assertFalse("signals overlapped", subscriber.concurrentSignal);
+    }
+
+    @Test
+    public void rule_1_3_noSignalBeforeOnSubscribeReturns() throws InterruptedException {
+        AtomicBoolean inOnSubscribe = new AtomicBoolean(false);
+        TestSubscriber subscriber = new TestSubscriber() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                inOnSubscribe.set(true);
+                super.onSubscribe(subscription);
+                subscription.request(5);
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inOnSubscribe.set(false);
+            }
+
+            @Override
+            public void onNext(Task task) {
+                if (inOnSubscribe.get()) {
+                    concurrentSignal = true;
+                }
+                super.onNext(task);
+            }
+        };
+        publisher.subscribe(subscriber);
+
+        subscriber.awaitTasks(5);
+        assertFalse("onNext overlapped onSubscribe", subscriber.concurrentSignal);
+    }
+
+    @Test
+    public void rule_1_6_closeCompletesOnce() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        publisher.close();
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        subscriber.request(1);
+        Thread.sleep(50);
+        assertEquals(1, subscriber.terminalSignals.get());
+        assertTrue(subscriber.tasks.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rule_1_9_nullSubscriberRejected() {
+        publisher.subscribe(null);
+    }
+
+    @Test
+    public void rule_1_9_onSubscribeSignalledFirst() throws InterruptedException {
+        publisher.close();
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("onSubscribe", subscriber.signals.get(0));
+        assertEquals("onComplete", subscriber.signals.get(1));
+    }
+
+    @Test
+    public void rule_2_13_throwingSubscriberIsCancelled() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        publisher.subscribe(new TestSubscriber() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(10);
+            }
+
+            @Override
+            public void onNext(Task task) {
+                latch.countDown();
+                throw new IllegalStateException("failed to handle task");
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+        verify(taskClient, times(1)).batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt());
+        // the failed task and the rest of the batch are handed back
+        verify(taskClient, timeout(1000).times(10)).updateTask(any(TaskResult.class));
+    }
+
+    @Test
+    public void rule_3_7_cancelFromOnNextReleasesUndeliveredTasks() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber() {
+
+            @Override
+            public void onNext(Task task) {
+                super.onNext(task);
+                subscription.cancel();
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.request(5);
+
+        subscriber.awaitTasks(1);
+        verify(taskClient, timeout(1000).times(4)).updateTask(any(TaskResult.class));
+        Thread.sleep(50);
+        assertEquals(1, subscriber.tasks.size());
+    }
+
+    @Test
+    public void rule_3_3_requestFromOnNextDoesNotRecurse() throws InterruptedException {
+        AtomicInteger depth = new AtomicInteger(0);
+        AtomicInteger maxDepth = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(20);
+        publisher.subscribe(new TestSubscriber() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Task task) {
+                maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+                latch.countDown();
+                subscription.request(1);
+                depth.decrementAndGet();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxDepth.get());
+    }
+
+    @Test
+    public void rule_3_6_requestAfterCancelIsNoop() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.cancel();
+        subscriber.request(10);
+
+        Thread.sleep(100);
+        assertTrue(subscriber.tasks.isEmpty());
+        assertEquals(0, subscriber.terminalSignals.get());
+    }
+
+    @Test
+    public void rule_3_9_nonPositiveRequestSignalsError() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.request(0);
+
+        assertTrue(subscriber.failed.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void rule_3_17_unboundedDemand() throws InterruptedException {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.request(Long.MAX_VALUE);
+
+        subscriber.awaitTasks(500);
+        assertNull(subscriber.error);
+        // the demand is split in batches of the max batch size
+        verify(taskClient, atLeastOnce()).batchPollTasksInDomain(eq(TASK_TYPE), any(), any(), eq(100), anyInt());
+    }
+
+    @Test
+    public void testResultsReportedWithBackpressure() throws Exception {
+        TaskResultSubscriber resultSubscriber = new TaskResultSubscriber(taskClient, TASK_TYPE, 2);
+        try (SubmissionPublisher<TaskResult> results = new SubmissionPublisher<>()) {
+            results.subscribe(resultSubscriber);
+            for (Task task : tasks(5)) {
+                TaskResult result = new TaskResult(task);
+                result.setStatus(TaskResult.Status.COMPLETED);
+                results.submit(result);
+            }
+        }
+        verify(taskClient, timeout(5000).times(5)).updateTask(any());
+    }
+
+    @Test
+    public void testResultUpdateRetriedWithBackoff() throws Exception {
+        List<Long> attempts = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            attempts.add(System.nanoTime());
+            if (attempts.size() < 3) {
+                throw new IllegalStateException("Server unavailable");
+            }
+            return null;
+        }).when(taskClient).updateTask(any());
+        TaskResultSubscriber resultSubscriber = new TaskResultSubscriber(taskClient, TASK_TYPE, 3, 50);
+        try (SubmissionPublisher<TaskResult> results = new SubmissionPublisher<>()) {
+            results.subscribe(resultSubscriber);
+            TaskResult result = new TaskResult(tasks(1).get(0));
+            result.setStatus(TaskResult.Status.COMPLETED);
+            results.submit(result);
+        }
+        verify(taskClient, timeout(5000).times(3)).updateTask(any());
+
+        // 50ms then 100ms, give or take the jitter
+        assertTrue(attempts.get(1) - attempts.get(0) >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertTrue(attempts.get(2) - attempts.get(1) >= TimeUnit.MILLISECONDS.toNanos(80));
+    }
+
+    private static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTaskId(UUID.randomUUID().toString());
+            task.setTaskDefName(TASK_TYPE);
+            task.setStatus(Task.Status.IN_PROGRESS);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<Task> {
+
+        final List<Task> tasks = new CopyOnWriteArrayList<>();
+        final List<String> signals = new CopyOnWriteArrayList<>();
+        final AtomicInteger terminalSignals = new AtomicInteger(0);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch failed = new CountDownLatch(1);
+        private final AtomicInteger activeSignals = new AtomicInteger(0);
+        volatile boolean concurrentSignal = false;
+        volatile Throwable error;
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            signals.add("onSubscribe");
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Task task) {
+            enter();
+            tasks.add(task);
+            exit();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            enter();
+            signals.add("onError");
+            error = throwable;
+            terminalSignals.incrementAndGet();
+            failed.countDown();
+            exit();
+        }
+
+        @Override
+        public void onComplete() {
+            enter();
+            signals.add("onComplete");
+            terminalSignals.incrementAndGet();
+            completed.countDown();
+            exit();
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        void awaitTasks(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (tasks.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue("received " + tasks.size() + " of " + count + " tasks", tasks.size() >= count);
+        }
+
+        private void enter() {
+            if (activeSignals.incrementAndGet() > 1) {
+                concurrentSignal = true;
+            }
+        }
+
+        private void exit() {
+            activeSignals.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.netflix.config.ConfigurationManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskRateLimiterTest {
+
+    private static final String TASK_TYPE = "rate_limited_task";
+    private static final String RATE_LIMIT_PROPERTY = "conductor.worker." + TASK_TYPE + ".rateLimitPerSecond";
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(RATE_LIMIT_PROPERTY);
+    }
+
+    @Test
+    public void testUnlimitedByDefault() throws InterruptedException {
+        TaskRateLimiter rateLimiter = new TaskRateLimiter();
+        assertEquals(100, rateLimiter.acquire(TASK_TYPE, 100, 0));
+        assertEquals(100, rateLimiter.acquire(TASK_TYPE, 100, 0));
+    }
+
+    @Test
+    public void testTokensLimitPolledTasks() throws InterruptedException {
+        ConfigurationManager.getConfigInstance().setProperty(RATE_LIMIT_PROPERTY, 5);
+        TaskRateLimiter rateLimiter = new TaskRateLimiter();
+
+        // the bucket starts with one second worth of tokens
+        assertEquals(5, rateLimiter.acquire(TASK_TYPE, 10, 0));
+        assertEquals(0, rateLimiter.acquire(TASK_TYPE, 1, 0));
+
+        long start = System.nanoTime();
+        assertEquals(1, rateLimiter.acquire(TASK_TYPE, 1, 1000));
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("waited " + waitedMillis + " ms", waitedMillis >= 150);
+
+        // unused tokens are given back
+        rateLimiter.release(TASK_TYPE, 3);
+        assertEquals(3, rateLimiter.acquire(TASK_TYPE, 3, 0));
+    }
+
+    @Test
+    public void testRateLimitChangedAtRuntime() throws InterruptedException {
+        ConfigurationManager.getConfigInstance().setProperty(RATE_LIMIT_PROPERTY, 2);
+        TaskRateLimiter rateLimiter = new TaskRateLimiter();
+        assertEquals(2, rateLimiter.acquire(TASK_TYPE, 10, 0));
+        assertEquals(0, rateLimiter.acquire(TASK_TYPE, 10, 0));
+
+        ConfigurationManager.getConfigInstance().setProperty(RATE_LIMIT_PROPERTY, 0);
+        assertEquals(10, rateLimiter.acquire(TASK_TYPE, 10, 0));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.automation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskUpdatePipelineTest {
+
+    @Test
+    public void testRetryUntilSuccess() throws Exception {
+        TaskUpdatePipeline pipeline = new TaskUpdatePipeline(1, 10, 3, 10);
+        AtomicInteger attempts = new AtomicInteger(0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        pipeline.submit("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("failed attempt");
+            }
+        }, failure::set);
+
+        assertTrue(pipeline.awaitFlush(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertNull(failure.get());
+        assertEquals(0, pipeline.getPendingUpdates());
+        pipeline.shutdown(1);
+    }
+
+    @Test
+    public void testFailureAfterExhaustedRetries() throws Exception {
+        TaskUpdatePipeline pipeline = new TaskUpdatePipeline(1, 10, 2, 10);
+        AtomicInteger attempts = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        pipeline.submit("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("failed attempt");
+        }, t -> latch.countDown());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(pipeline.awaitFlush(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        pipeline.shutdown(1);
+    }
+
+    @Test
+    public void testBackpressureWhenFull() throws Exception {
+        TaskUpdatePipeline pipeline = new TaskUpdatePipeline(1, 2, 1, 10);
+        CountDownLatch blocker = new CountDownLatch(1);
+        Runnable blockedUpdate = () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        pipeline.submit("test", blockedUpdate, t -> {
+        });
+        assertFalse(pipeline.isFull());
+        pipeline.submit("test", blockedUpdate, t -> {
+        });
+        assertTrue(pipeline.isFull());
+
+        blocker.countDown();
+        assertTrue(pipeline.awaitFlush(5, TimeUnit.SECONDS));
+        assertFalse(pipeline.isFull());
+        pipeline.shutdown(1);
+    }
+}
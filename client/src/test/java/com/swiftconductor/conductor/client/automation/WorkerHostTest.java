@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -34,6 +35,7 @@ import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
 import static com.swiftconductor.conductor.common.metadata.tasks.TaskResult.Status.COMPLETED;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doAnswer;
@@ -193,6 +195,40 @@ public class WorkerHostTest {
         assertEquals(1, task2Counter.get());
     }
 
+    @Test
+    public void testContinuousPolling() throws Exception {
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getPollingInterval()).thenReturn(3000);
+        when(worker.getBatchPollTimeoutInMS()).thenReturn(100);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.getIdentity()).thenReturn("worker");
+        when(worker.execute(any())).thenAnswer(invocation -> {
+            TaskResult taskResult = new TaskResult();
+            taskResult.setStatus(COMPLETED);
+            return taskResult;
+        });
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> Collections.singletonList(testTask(TEST_TASK_DEF_NAME)));
+
+        CountDownLatch latch = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        WorkerHost configurer = new WorkerHost.Builder(taskClient, Collections.singletonList(worker))
+                .withThreadCount(1).withContinuousPolling(true).build();
+        assertTrue(configurer.isContinuousPolling());
+        configurer.init();
+
+        // with fixed delay scheduling three tasks would take at least three polling
+        // intervals
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        configurer.shutdown();
+    }
+
     private Task testTask(String taskDefName) {
         Task task = new Task();
         task.setTaskId(UUID.randomUUID().toString());
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -34,6 +35,7 @@ import com.netflix.discovery.EurekaClient;
 import com.swiftconductor.conductor.client.exception.ClientException;
 import com.swiftconductor.conductor.client.http.TaskClient;
 import com.swiftconductor.conductor.client.worker.AbstractWorker;
+import com.swiftconductor.conductor.client.worker.AsyncWorker;
 import com.swiftconductor.conductor.common.metadata.tasks.Task;
 import com.swiftconductor.conductor.common.metadata.tasks.TaskExecLog;
 import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
@@ -41,6 +43,7 @@ import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
 import static com.swiftconductor.conductor.common.metadata.tasks.TaskResult.Status.COMPLETED;
 import static com.swiftconductor.conductor.common.metadata.tasks.TaskResult.Status.IN_PROGRESS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -493,7 +496,7 @@ public class WorkerProcessTest {
                 TASK_THREAD_MAP);
         CountDownLatch latch = new CountDownLatch(1);
         doAnswer(invocation -> {
-            assertTrue(taskPollExecutor.leaseExtendMap.containsKey(task.getTaskId()));
+            assertTrue(taskPollExecutor.leaseExtender.isTracked(task.getTaskId()));
             latch.countDown();
             return null;
         }).when(taskClient).updateTask(any());
@@ -565,6 +568,409 @@ public class WorkerProcessTest {
         verify(taskClient, times(threadCount)).updateTask(any());
     }
 
+    @Test
+    public void testVirtualThreadExecution() throws InterruptedException {
+        Task task = testTask();
+
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenReturn(new TaskResult(task));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        // falls back to platform threads when the JVM does not support virtual threads
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options().withVirtualThreads(true));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("test-worker-"));
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        taskPollExecutor.pollAndExecute(worker);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(taskClient).updateTask(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testFairSchedulingExecution() throws InterruptedException {
+        Task task = testTask();
+
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenReturn(new TaskResult(task));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        FairShareScheduler fairShareScheduler = new FairShareScheduler(4,
+                Arrays.asList(TEST_TASK_DEF_NAME, "other_task"), new HashMap<>(), new HashMap<>());
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options().withFairShareScheduler(fairShareScheduler));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("test-worker-"));
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        taskPollExecutor.pollAndExecute(worker);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // the whole share of the task type was requested
+        verify(taskClient).batchPollTasksInDomain(any(), any(), any(), eq(2), anyInt());
+        verify(taskClient).updateTask(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testPrefetchedTasksExecutedWithoutPolling() throws InterruptedException {
+        Task task1 = testTask();
+        Task task2 = testTask();
+        Task task3 = testTask();
+
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenAnswer(invocation -> new TaskResult(invocation.getArgument(0)));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task1, task2, task3));
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withTaskPrefetchCount(Collections.singletonMap(TEST_TASK_DEF_NAME, 2)));
+        CountDownLatch latch = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        assertTrue(taskPollExecutor.pollAndExecute(worker) > 0);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // one slot and two prefetched tasks were requested in a single poll
+        verify(taskClient).batchPollTasksInDomain(any(), any(), any(), eq(3), anyInt());
+        verify(worker, times(3)).execute(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamingPoll() throws InterruptedException {
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.streamingPollEnabled()).thenReturn(true);
+        when(worker.execute(any())).thenAnswer(invocation -> new TaskResult(invocation.getArgument(0)));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<Task> consumer = invocation.getArgument(5);
+                    for (int i = 0; i < 3; i++) {
+                        consumer.accept(testTask());
+                    }
+                    return 3;
+                });
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withTaskPrefetchCount(Collections.singletonMap(TEST_TASK_DEF_NAME, 2)));
+        CountDownLatch latch = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        assertTrue(taskPollExecutor.pollAndExecute(worker) > 0);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(taskClient).batchPollTasksInDomain(any(), any(), any(), eq(3), anyInt(), any(Consumer.class));
+        verify(taskClient, never()).batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt());
+        verify(worker, times(3)).execute(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testAsyncWorkerExecution() throws InterruptedException {
+        Task task = testTask();
+        task.setResponseTimeoutSeconds(10);
+
+        CompletableFuture<TaskResult> future = new CompletableFuture<>();
+        AsyncWorker worker = AsyncWorker.create(TEST_TASK_DEF_NAME, t -> future);
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withAsyncTaskTypes(Collections.singleton(TEST_TASK_DEF_NAME)));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            TaskResult result = invocation.getArgument(0);
+            assertEquals(TaskResult.Status.COMPLETED, result.getStatus());
+            assertEquals(task.getTaskId(), result.getTaskId());
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        assertEquals(1, taskPollExecutor.pollAndExecute(worker));
+        // the slot is held until the future completes, without holding a thread
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+
+        TaskResult taskResult = new TaskResult(task);
+        taskResult.setStatus(TaskResult.Status.COMPLETED);
+        future.complete(taskResult);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(taskClient, times(1)).batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testAsyncWorkerFailure() throws InterruptedException {
+        Task task = testTask();
+        AsyncWorker worker = AsyncWorker.create(TEST_TASK_DEF_NAME,
+                t -> CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("downstream unavailable");
+                }));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withAsyncTaskTypes(Collections.singleton(TEST_TASK_DEF_NAME)));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            TaskResult result = invocation.getArgument(0);
+            assertEquals(TaskResult.Status.FAILED, result.getStatus());
+            assertTrue(result.getReasonForIncompletion().contains("downstream unavailable"));
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        taskPollExecutor.pollAndExecute(worker);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testAsyncTaskUpdate() throws InterruptedException {
+        Task task = testTask();
+
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenReturn(new TaskResult(task));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        TaskUpdatePipeline taskUpdatePipeline = new TaskUpdatePipeline(1, 10, 3, 10);
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 3, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options().withTaskUpdatePipeline(taskUpdatePipeline));
+        CountDownLatch latch = new CountDownLatch(1);
+        doThrow(new ClientException("server unavailable")).doAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("workflow-task-update-"));
+            latch.countDown();
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        taskPollExecutor.pollAndExecute(worker);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(taskClient, times(2)).updateTask(any());
+        verify(worker, never()).onErrorUpdate(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testDrainReleasesPrefetchedTasksAndFlushesResults() throws Exception {
+        Task task1 = testTask();
+        Task task2 = testTask();
+        Task task3 = testTask();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenAnswer(invocation -> {
+            started.countDown();
+            proceed.await();
+            TaskResult result = new TaskResult(invocation.getArgument(0));
+            result.setStatus(COMPLETED);
+            return result;
+        });
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task1, task2, task3));
+        List<TaskResult.Status> updates = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            TaskResult result = invocation.getArgument(0);
+            updates.add(result.getStatus());
+            return null;
+        }).when(taskClient).updateTask(any());
+
+        TaskUpdatePipeline taskUpdatePipeline = new TaskUpdatePipeline(1, 10, 3, 10);
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withTaskUpdatePipeline(taskUpdatePipeline)
+                        .withTaskPrefetchCount(Collections.singletonMap(TEST_TASK_DEF_NAME, 2)));
+
+        assertEquals(1, taskPollExecutor.pollAndExecute(worker));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(DrainStatus.Phase.RUNNING, taskPollExecutor.getDrainStatus().getPhase());
+
+        ScheduledExecutorService pollingExecutor = Executors.newSingleThreadScheduledExecutor();
+        CompletableFuture<DrainStatus> drain = CompletableFuture
+                .supplyAsync(() -> taskPollExecutor.drain(pollingExecutor, 5));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (taskPollExecutor.getDrainStatus().getPhase() != DrainStatus.Phase.AWAITING_IN_FLIGHT
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        DrainStatus drainStatus = taskPollExecutor.getDrainStatus();
+        assertEquals(DrainStatus.Phase.AWAITING_IN_FLIGHT, drainStatus.getPhase());
+        assertEquals(1, drainStatus.getInFlightTasks());
+        assertEquals(2, drainStatus.getReleasedTasks());
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+
+        proceed.countDown();
+        drainStatus = drain.get(5, TimeUnit.SECONDS);
+        assertTrue(drainStatus.isComplete());
+        assertTrue(pollingExecutor.isShutdown());
+        verify(worker, times(1)).execute(any());
+        verify(taskClient, times(1)).batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt());
+        assertEquals(3, updates.size());
+        assertEquals(2, Collections.frequency(updates, IN_PROGRESS));
+        assertEquals(1, Collections.frequency(updates, COMPLETED));
+    }
+
+    @Test
+    public void testCircuitBreakerSuspendsPolling() throws InterruptedException {
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenThrow(new ClientException("server unavailable"));
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1.0, 10, 60_000);
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options().withCircuitBreaker(circuitBreaker));
+
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+        assertEquals(-1, taskPollExecutor.pollAndExecute(worker));
+
+        verify(taskClient, times(2)).batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt());
+        // the slot is not held while polling is suspended
+        assertTrue(taskPollExecutor.awaitSlots(worker, 0));
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testExecutionTimeoutInterruptsTaskAndDropsResult() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.executionTimeoutEnabled()).thenReturn(true);
+        when(worker.getExecutionTimeoutSeconds()).thenReturn(1);
+        when(worker.execute(any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            TaskResult result = new TaskResult(invocation.getArgument(0));
+            result.setStatus(COMPLETED);
+            return result;
+        });
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(testTask()));
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP);
+        assertEquals(1, taskPollExecutor.pollAndExecute(worker));
+        assertFalse(taskPollExecutor.awaitSlots(worker, 0));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(taskPollExecutor.awaitSlots(worker, 1000));
+        Thread.sleep(200);
+        verify(taskClient, never()).updateTask(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testExecutionTimeoutCancelsAsyncTask() throws InterruptedException {
+        Task task = testTask();
+        task.setResponseTimeoutSeconds(1);
+
+        CompletableFuture<TaskResult> future = new CompletableFuture<>();
+        AsyncWorker worker = mock(AsyncWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.executionTimeoutEnabled()).thenReturn(true);
+        when(worker.executeAsync(any())).thenReturn(future);
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task));
+
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, new HashMap<>(), "test-worker-%d",
+                TASK_THREAD_MAP, new WorkerProcess.Options()
+                        .withAsyncTaskTypes(Collections.singleton(TEST_TASK_DEF_NAME)));
+        assertEquals(1, taskPollExecutor.pollAndExecute(worker));
+
+        // times out after the response timeout of the task
+        assertTrue(taskPollExecutor.awaitSlots(worker, 5000));
+        assertTrue(future.isCancelled());
+        Thread.sleep(200);
+        verify(taskClient, never()).updateTask(any());
+        taskPollExecutor.shutdown(1);
+    }
+
+    @Test
+    public void testPollsSpreadAcrossDomains() {
+        AbstractWorker worker = mock(AbstractWorker.class);
+        when(worker.getTaskDefName()).thenReturn(TEST_TASK_DEF_NAME);
+        when(worker.execute(any())).thenAnswer(invocation -> new TaskResult(invocation.getArgument(0)));
+
+        TaskClient taskClient = Mockito.mock(TaskClient.class);
+        when(taskClient.batchPollTasksInDomain(any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        Map<String, String> taskToDomain = new HashMap<>();
+        taskToDomain.put(TEST_TASK_DEF_NAME, "tenant_a:2,NO_DOMAIN");
+        WorkerProcess taskPollExecutor = new WorkerProcess(null, taskClient, 1, taskToDomain, "test-worker-%d",
+                TASK_THREAD_MAP);
+        for (int i = 0; i < 3; i++) {
+            taskPollExecutor.pollAndExecute(worker);
+        }
+
+        verify(taskClient, times(2)).batchPollTasksInDomain(eq(TEST_TASK_DEF_NAME), eq("tenant_a"), any(),
+                anyInt(), anyInt());
+        verify(taskClient, times(1)).batchPollTasksInDomain(eq(TEST_TASK_DEF_NAME), isNull(), any(), anyInt(),
+                anyInt());
+        taskPollExecutor.shutdown(1);
+    }
+
     private Task testTask() {
         Task task = new Task();
         task.setTaskId(UUID.randomUUID().toString());
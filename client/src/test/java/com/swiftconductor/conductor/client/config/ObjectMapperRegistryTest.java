@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.jersey.api.client.GenericType;
+import com.swiftconductor.conductor.common.config.ObjectMapperProvider;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ObjectMapperRegistryTest {
+
+    @Test
+    public void testSerializesLikeTheCommonObjectMapper() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+        Task task = new Task();
+        task.setTaskId("taskId");
+        task.setTaskType("test");
+        task.setStatus(Task.Status.IN_PROGRESS);
+        task.setInputData(Map.of("key", "value", "list", List.of(1, 2)));
+        TaskResult taskResult = new TaskResult(task);
+        taskResult.setStatus(TaskResult.Status.COMPLETED);
+        taskResult.log("done");
+
+        assertEquals(objectMapper.writeValueAsString(taskResult),
+                ObjectMapperRegistry.getTaskResultWriter().writeValueAsString(taskResult));
+        String json = objectMapper.writeValueAsString(List.of(task));
+        List<Task> tasks = ObjectMapperRegistry.getTaskListReader().readValue(json);
+        assertEquals(json, objectMapper.writeValueAsString(tasks));
+    }
+
+    @Test
+    public void testReadersAndWritersAreShared() {
+        GenericType<List<Task>> taskList = new GenericType<List<Task>>() {
+        };
+        assertSame(ObjectMapperRegistry.getTaskListReader(), ObjectMapperRegistry.readerFor(taskList.getType()));
+        assertSame(ObjectMapperRegistry.getTaskReader(), ObjectMapperRegistry.readerFor(Task.class));
+        assertSame(ObjectMapperRegistry.readerFor(TaskResult.class), ObjectMapperRegistry.readerFor(TaskResult.class));
+        assertSame(ObjectMapperRegistry.getTaskResultWriter(), ObjectMapperRegistry.writerFor(TaskResult.class));
+    }
+}
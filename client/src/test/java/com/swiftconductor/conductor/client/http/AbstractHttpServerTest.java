@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Starts a local server answering the task and workflow requests of the client
+ * tests, and records the requests it receives.
+ */
+public abstract class AbstractHttpServerTest {
+
+    protected HttpServer server;
+    protected final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/task/poll/batch/test", exchange -> respond(exchange, 200, "application/json",
+                "[{\"taskId\":\"t1\",\"taskType\":\"test\",\"status\":\"IN_PROGRESS\"},"
+                        + "{\"taskId\":\"t2\",\"taskType\":\"test\",\"status\":\"IN_PROGRESS\"}]"));
+        server.createContext("/api/task/t1/ack", exchange -> respond(exchange, 200, "text/plain", "true"));
+        server.createContext("/api/task/missing", exchange -> respond(exchange, 404, "application/json",
+                "{\"status\":404,\"message\":\"Task not found\"}"));
+        server.createContext("/api/task", exchange -> respond(exchange, 200, "text/plain", "t1"));
+        server.createContext("/api/workflow/wf-1", exchange -> respond(exchange, 200, "application/json",
+                "{\"workflowId\":\"wf-1\",\"status\":\"RUNNING\"}"));
+        server.createContext("/api/workflow", exchange -> respond(exchange, 200, "text/plain", "wf-1"));
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    protected String getRootURI() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/";
+    }
+
+    protected void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                + exchange.getRequestHeaders().getFirst("Accept") + " "
+                + new String(requestBody, StandardCharsets.UTF_8));
+        if (contentType != null) {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+        }
+        byte[] bytes = (body == null) ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, (bytes.length == 0) ? -1 : bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    protected void respondCompressed(HttpExchange exchange, String contentType, String body) throws IOException {
+        if (!"gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            respond(exchange, 406, null, null);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(bytes)) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, bytes.size());
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            bytes.writeTo(outputStream);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskDef;
+import com.swiftconductor.conductor.common.metadata.workflow.WorkflowDef;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingMetadataClientTest {
+
+    @Test
+    public void testServesCachedDefinitions() {
+        MetadataClient delegate = mock(MetadataClient.class);
+        WorkflowDef workflowDef = newWorkflowDef(1);
+        WorkflowDef latestWorkflowDef = newWorkflowDef(2);
+        TaskDef taskDef = new TaskDef("task");
+        when(delegate.getWorkflowDef("workflow", 1)).thenReturn(workflowDef);
+        when(delegate.getWorkflowDef("workflow", null)).thenReturn(latestWorkflowDef);
+        when(delegate.getTaskDef("task")).thenReturn(taskDef);
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(workflowDef, metadataClient.getWorkflowDef("workflow", 1));
+            assertEquals(latestWorkflowDef, metadataClient.getWorkflowDef("workflow", null));
+            assertEquals(taskDef, metadataClient.getTaskDef("task"));
+        }
+        verify(delegate, times(1)).getWorkflowDef("workflow", 1);
+        verify(delegate, times(1)).getWorkflowDef("workflow", null);
+        verify(delegate, times(1)).getTaskDef("task");
+        assertEquals(6, metadataClient.getHitCount());
+        assertEquals(3, metadataClient.getMissCount());
+    }
+
+    @Test
+    public void testReturnsCopiesOfCachedDefinitions() {
+        MetadataClient delegate = mock(MetadataClient.class);
+        TaskDef taskDef = new TaskDef("task", "cached");
+        when(delegate.getTaskDef("task")).thenReturn(taskDef);
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate);
+
+        TaskDef first = metadataClient.getTaskDef("task");
+        first.setDescription("changed by the caller");
+        TaskDef second = metadataClient.getTaskDef("task");
+
+        assertNotSame(taskDef, first);
+        assertNotSame(first, second);
+        assertEquals("cached", second.getDescription());
+        assertEquals("cached", taskDef.getDescription());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedDefinitions() {
+        MetadataClient delegate = mock(MetadataClient.class);
+        when(delegate.getTaskDef("a")).thenReturn(new TaskDef("a"));
+        when(delegate.getTaskDef("b")).thenReturn(new TaskDef("b"));
+        when(delegate.getTaskDef("c")).thenReturn(new TaskDef("c"));
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate, 60_000, 0, 2);
+
+        metadataClient.getTaskDef("a");
+        metadataClient.getTaskDef("b");
+        metadataClient.getTaskDef("a");
+        metadataClient.getTaskDef("c");
+        metadataClient.getTaskDef("a");
+        metadataClient.getTaskDef("b");
+
+        verify(delegate, times(1)).getTaskDef("a");
+        verify(delegate, times(2)).getTaskDef("b");
+        verify(delegate, times(1)).getTaskDef("c");
+    }
+
+    @Test
+    public void testServesStaleDefinitionsWhileRefreshing() throws InterruptedException {
+        MetadataClient delegate = mock(MetadataClient.class);
+        TaskDef staleTaskDef = new TaskDef("task", "stale");
+        TaskDef refreshedTaskDef = new TaskDef("task", "refreshed");
+        CountDownLatch refresh = new CountDownLatch(1);
+        when(delegate.getTaskDef("task")).thenReturn(staleTaskDef).thenAnswer(invocation -> {
+            refresh.await();
+            return refreshedTaskDef;
+        });
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate, 0, 60_000, 10);
+
+        assertEquals(staleTaskDef, metadataClient.getTaskDef("task"));
+        // a single refresh at a time, the stale definition is served meanwhile
+        assertEquals(staleTaskDef, metadataClient.getTaskDef("task"));
+        assertEquals(staleTaskDef, metadataClient.getTaskDef("task"));
+        verify(delegate, timeout(1000).times(2)).getTaskDef("task");
+
+        refresh.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!refreshedTaskDef.equals(metadataClient.getTaskDef("task"))) {
+            assertTrue("The definition was not refreshed", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        assertEquals(1, metadataClient.getMissCount());
+    }
+
+    @Test
+    public void testReadsExpiredDefinitionsAgain() {
+        MetadataClient delegate = mock(MetadataClient.class);
+        when(delegate.getTaskDef("task")).thenReturn(new TaskDef("task"))
+                .thenThrow(new ClientException("Server unavailable"));
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate, 0, 0, 10);
+
+        metadataClient.getTaskDef("task");
+        try {
+            metadataClient.getTaskDef("task");
+            fail("The expired definition was served");
+        } catch (ClientException e) {
+            assertEquals("Server unavailable", e.getMessage());
+        }
+        assertEquals(0, metadataClient.getHitCount());
+        assertEquals(2, metadataClient.getMissCount());
+    }
+
+    @Test
+    public void testInvalidatesChangedDefinitions() {
+        MetadataClient delegate = mock(MetadataClient.class);
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName("workflow");
+        TaskDef taskDef = new TaskDef("task");
+        when(delegate.getWorkflowDef("workflow", 1)).thenReturn(workflowDef);
+        when(delegate.getWorkflowDef("workflow", null)).thenReturn(workflowDef);
+        when(delegate.getTaskDef("task")).thenReturn(taskDef);
+        CachingMetadataClient metadataClient = new CachingMetadataClient(delegate);
+
+        metadataClient.getWorkflowDef("workflow", 1);
+        metadataClient.getWorkflowDef("workflow", null);
+        metadataClient.getTaskDef("task");
+        metadataClient.registerWorkflowDef(workflowDef);
+        metadataClient.getWorkflowDef("workflow", 1);
+        metadataClient.getWorkflowDef("workflow", null);
+        metadataClient.getTaskDef("task");
+        verify(delegate, times(2)).getWorkflowDef("workflow", 1);
+        verify(delegate, times(2)).getWorkflowDef("workflow", null);
+        verify(delegate, times(1)).getTaskDef("task");
+
+        metadataClient.updateWorkflowDefs(Collections.singletonList(workflowDef));
+        metadataClient.getWorkflowDef("workflow", 1);
+        metadataClient.unregisterWorkflowDef("workflow", 1);
+        metadataClient.getWorkflowDef("workflow", 1);
+        verify(delegate, times(4)).getWorkflowDef("workflow", 1);
+
+        metadataClient.updateTaskDef(taskDef);
+        metadataClient.getTaskDef("task");
+        metadataClient.registerTaskDefs(Collections.singletonList(taskDef));
+        metadataClient.getTaskDef("task");
+        metadataClient.unregisterTaskDef("task");
+        metadataClient.getTaskDef("task");
+        verify(delegate, times(4)).getTaskDef("task");
+        verify(delegate).registerWorkflowDef(workflowDef);
+        verify(delegate).unregisterTaskDef("task");
+    }
+
+    private static WorkflowDef newWorkflowDef(int version) {
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName("workflow");
+        workflowDef.setVersion(version);
+        return workflowDef;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.swiftconductor.conductor.client.config.DefaultClientConfiguration;
+import com.swiftconductor.conductor.client.config.ObjectMapperRegistry;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CborTest extends AbstractHttpServerTest {
+
+    @Test
+    public void testCbor() throws Exception {
+        ObjectMapper cborMapper = ObjectMapperRegistry.getCborMapper();
+        Task polledTask = new Task();
+        polledTask.setTaskId("t1");
+        polledTask.setTaskType("cbor");
+        polledTask.setStatus(Task.Status.IN_PROGRESS);
+        byte[] pollResponse = cborMapper.writeValueAsBytes(List.of(polledTask));
+        server.createContext("/api/task/poll/batch/cbor", exchange -> {
+            requests.add(exchange.getRequestHeaders().getFirst("Accept"));
+            exchange.getResponseHeaders().add("Content-Type", "application/cbor");
+            exchange.sendResponseHeaders(200, pollResponse.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(pollResponse);
+            }
+        });
+        List<String> updates = new CopyOnWriteArrayList<>();
+        server.removeContext("/api/task");
+        server.createContext("/api/task", exchange -> {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            TaskResult result = "application/cbor".equals(contentType)
+                    ? cborMapper.readValue(body, TaskResult.class)
+                    : ObjectMapperRegistry.getObjectMapper().readValue(body, TaskResult.class);
+            updates.add(contentType + " " + result.getTaskId() + " " + result.getOutputData().get("key"));
+            respond(exchange, 200, "text/plain", result.getTaskId());
+        });
+
+        TaskClient client = newCborTaskClient();
+        for (HttpTransport transport : List.of(client.requestHandler, new JdkHttpTransport())) {
+            requests.clear();
+            updates.clear();
+            client.setTransport(transport);
+            List<Task> tasks = client.batchPollTasksInDomain("cbor", null, "worker", 1, 100);
+            assertEquals("t1", tasks.get(0).getTaskId());
+            List<String> taskIds = new CopyOnWriteArrayList<>();
+            client.batchPollTasksInDomain("cbor", null, "worker", 1, 100, task -> taskIds.add(task.getTaskId()));
+            assertEquals(List.of("t1"), taskIds);
+            assertTrue(requests.get(0).startsWith("application/cbor, application/json"));
+
+            TaskResult result = new TaskResult(tasks.get(0));
+            result.setStatus(TaskResult.Status.COMPLETED);
+            result.getOutputData().put("key", "value");
+            client.updateTask(result);
+            client.updateTaskAsync(result).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("application/cbor t1 value", "application/cbor t1 value"), updates);
+        }
+    }
+
+    @Test
+    public void testCborFallsBackToJson() throws Exception {
+        List<String> updates = new CopyOnWriteArrayList<>();
+        server.removeContext("/api/task");
+        server.createContext("/api/task", exchange -> {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            updates.add(contentType);
+            if ("application/cbor".equals(contentType)) {
+                respond(exchange, 415, "application/json", "{\"status\":415,\"message\":\"Unsupported\"}");
+            } else {
+                respond(exchange, 200, "text/plain", "t1");
+            }
+        });
+
+        TaskClient client = newCborTaskClient();
+        TaskResult result = new TaskResult();
+        result.setTaskId("t1");
+        result.setStatus(TaskResult.Status.COMPLETED);
+        client.updateTask(result);
+        client.updateTask(result);
+        assertEquals(List.of("application/cbor", "application/json", "application/json"), updates);
+
+        updates.clear();
+        client = newCborTaskClient();
+        client.setTransport(new JdkHttpTransport());
+        client.updateTaskAsync(result).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("application/cbor", "application/json"), updates);
+    }
+
+    private TaskClient newCborTaskClient() {
+        TaskClient client = new TaskClient(new DefaultClientConfig(), new DefaultClientConfiguration() {
+            @Override
+            public boolean isCborEnabled() {
+                return true;
+            }
+        }, null);
+        client.setRootURI(getRootURI());
+        return client;
+    }
+}
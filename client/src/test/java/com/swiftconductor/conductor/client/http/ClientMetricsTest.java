@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.DistributionSummary;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Spectator;
+import com.netflix.spectator.api.Timer;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.telemetry.MetricsContainer;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClientMetricsTest extends AbstractHttpServerTest {
+
+    private TaskClient taskClient;
+
+    @Before
+    public void setup() {
+        taskClient = new TaskClient();
+        taskClient.setRootURI(getRootURI());
+        taskClient.setTransport(new JdkHttpTransport());
+    }
+
+    @Test
+    public void testRequestMetrics() {
+        Registry registry = new DefaultRegistry();
+        Spectator.globalRegistry().add(registry);
+        try {
+            pollUpdateAndAck();
+            try {
+                taskClient.getTaskDetails("missing");
+                fail("Expected a ClientException");
+            } catch (ClientException e) {
+                assertEquals(404, e.getStatus());
+            }
+
+            Timer pollTimer = MetricsContainer.getHttpRequestTimer("task/poll/batch", "GET", "2xx");
+            assertEquals(1, pollTimer.count());
+            assertTrue(((PercentileTimer) pollTimer).percentile(99) > 0);
+            assertEquals(1, MetricsContainer.getHttpRequestTimer("task", "POST", "2xx").count());
+            assertEquals(1, MetricsContainer.getHttpRequestTimer("task/ack", "POST", "2xx").count());
+            assertEquals(1, MetricsContainer.getHttpRequestTimer("task", "GET", "4xx").count());
+
+            DistributionSummary responseSize = registry.distributionSummary(registry.createId("http_response_size")
+                    .withTags("class", "MetricsContainer", "endpoint", "task/poll/batch", "method", "GET"));
+            assertEquals(1, responseSize.count());
+            assertTrue(responseSize.totalAmount() > 100);
+        } finally {
+            Spectator.globalRegistry().remove(registry);
+        }
+    }
+
+    @Test
+    public void testBodySizeMetricsOfJerseyClient() {
+        Registry registry = new DefaultRegistry();
+        Spectator.globalRegistry().add(registry);
+        try {
+            for (HttpTransport transport : Arrays.asList(null, taskClient.requestHandler)) {
+                taskClient.setTransport(transport);
+                pollUpdateAndAck();
+            }
+
+            DistributionSummary requestSize = registry.distributionSummary(registry.createId("http_request_size")
+                    .withTags("class", "MetricsContainer", "endpoint", "task", "method", "POST"));
+            assertEquals(2, requestSize.count());
+            assertTrue(requestSize.totalAmount() > 100);
+            DistributionSummary responseSize = registry.distributionSummary(registry.createId("http_response_size")
+                    .withTags("class", "MetricsContainer", "endpoint", "task/poll/batch", "method", "GET"));
+            assertEquals(2, responseSize.count());
+            assertTrue(responseSize.totalAmount() > 200);
+            DistributionSummary ackSize = registry.distributionSummary(registry.createId("http_response_size")
+                    .withTags("class", "MetricsContainer", "endpoint", "task/ack", "method", "POST"));
+            assertEquals(2, ackSize.count());
+            assertEquals(8, ackSize.totalAmount());
+        } finally {
+            Spectator.globalRegistry().remove(registry);
+        }
+    }
+
+    private void pollUpdateAndAck() {
+        List<Task> tasks = taskClient.batchPollTasksInDomain("test", null, "worker", 2, 100);
+        TaskResult result = new TaskResult(tasks.get(0));
+        result.setStatus(TaskResult.Status.COMPLETED);
+        taskClient.updateTask(result);
+        assertTrue(taskClient.ack("t1", "worker"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClientRequestHandlerTest {
+
+    private HttpServer server;
+    private URI uri;
+    private final List<String> userAgents = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/task/t1", exchange -> {
+            userAgents.add(exchange.getRequestHeaders().getFirst("User-Agent"));
+            byte[] bytes = "t1".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+        uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/api/task/t1");
+    }
+
+    @After
+    public void teardown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testAsyncRequestSentByJdkClient() throws Exception {
+        ClientRequestHandler handler = new ClientRequestHandler(new DefaultClientConfig(), null);
+        TransportResponse response = handler.executeAsync(newRequest()).get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("t1", new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(userAgents.get(0), userAgents.get(0).startsWith("Java-http-client"));
+    }
+
+    @Test
+    public void testAsyncRequestSentThroughFilters() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        ClientFilter filter = new ClientFilter() {
+            @Override
+            public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+                threads.add(Thread.currentThread().getName());
+                return getNext().handle(request);
+            }
+        };
+        ClientRequestHandler handler = new ClientRequestHandler(new DefaultClientConfig(), null, filter);
+        TransportResponse response = handler.executeAsync(newRequest()).get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("t1", new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(threads.get(0), threads.get(0).startsWith("conductor-client-async-"));
+    }
+
+    private TransportRequest newRequest() {
+        return new TransportRequest("GET", uri, Collections.singletonMap("Accept", "text/plain"), null);
+    }
+}
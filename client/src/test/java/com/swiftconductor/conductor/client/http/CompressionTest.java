@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.swiftconductor.conductor.client.config.DefaultClientConfiguration;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionTest extends AbstractHttpServerTest {
+
+    @Test
+    public void testCompression() throws Exception {
+        List<String> updates = new CopyOnWriteArrayList<>();
+        server.removeContext("/api/task");
+        server.createContext("/api/task", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream body = "gzip".equals(encoding)
+                    ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody();
+            updates.add(encoding + " " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            respondCompressed(exchange, "text/plain", "t1");
+        });
+        server.createContext("/api/task/poll/batch/compressed", exchange -> respondCompressed(exchange,
+                "application/json", "[{\"taskId\":\"t1\",\"taskType\":\"compressed\",\"status\":\"IN_PROGRESS\"}]"));
+
+        TaskClient client = new TaskClient(new DefaultClientConfig(), new DefaultClientConfiguration() {
+            @Override
+            public boolean isCompressionEnabled() {
+                return true;
+            }
+        }, null);
+        client.setRootURI(getRootURI());
+        for (HttpTransport transport : List.of(client.requestHandler, new JdkHttpTransport())) {
+            updates.clear();
+            client.setTransport(transport);
+            List<Task> tasks = client.batchPollTasksInDomain("compressed", null, "worker", 1, 100);
+            assertEquals("t1", tasks.get(0).getTaskId());
+            List<String> taskIds = new CopyOnWriteArrayList<>();
+            client.batchPollTasksInDomain("compressed", null, "worker", 1, 100, task -> taskIds.add(task.getTaskId()));
+            assertEquals(List.of("t1"), taskIds);
+
+            TaskResult result = new TaskResult(tasks.get(0));
+            result.setStatus(TaskResult.Status.COMPLETED);
+            client.updateTask(result);
+            result.getOutputData().put("large", "x".repeat(4096));
+            client.updateTask(result);
+            assertTrue(updates.get(0).startsWith("null {"));
+            assertTrue(updates.get(1).startsWith("gzip {"));
+            assertTrue(updates.get(1).contains("x".repeat(4096)));
+        }
+    }
+}
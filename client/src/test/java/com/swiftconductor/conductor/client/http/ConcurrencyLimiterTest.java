@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.client.http.ConcurrencyLimiter.EndpointClass;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testIncreasesWhileBusyAndBacksOffOnFailures() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 5, 2.0, 0);
+
+        ConcurrencyLimiter.Permit first = limiter.acquire(EndpointClass.POLL, false);
+        ConcurrencyLimiter.Permit second = limiter.acquire(EndpointClass.POLL, false);
+        assertEquals(2, limiter.getInFlightRequests(EndpointClass.POLL));
+        second.release(null);
+        assertEquals(5, limiter.getLimit(EndpointClass.POLL));
+        // not increased while mostly idle, nor above the maximum
+        first.release(null);
+        limiter.acquire(EndpointClass.POLL, false).release(null);
+        assertEquals(5, limiter.getLimit(EndpointClass.POLL));
+
+        // a request rejected by the server does not back off
+        limiter.acquire(EndpointClass.POLL, false).release(new ClientException(404, "Not found"));
+        assertEquals(5, limiter.getLimit(EndpointClass.POLL));
+
+        // the requests in flight when the limit decreased do not decrease it again
+        ConcurrencyLimiter.Permit inFlight = limiter.acquire(EndpointClass.POLL, false);
+        limiter.acquire(EndpointClass.POLL, false).release(new ClientException(503, "Unavailable"));
+        assertEquals(4, limiter.getLimit(EndpointClass.POLL));
+        inFlight.release(new ClientException("Connection refused"));
+        assertEquals(4, limiter.getLimit(EndpointClass.POLL));
+        limiter.acquire(EndpointClass.POLL, false).release(new ClientException(429, "Too many requests"));
+        limiter.acquire(EndpointClass.POLL, false).release(new ClientException("Connection refused"));
+        assertEquals(3, limiter.getLimit(EndpointClass.POLL));
+
+        // each endpoint class has its own limit
+        assertEquals(4, limiter.getLimit(EndpointClass.UPDATE));
+        assertEquals(0, limiter.getInFlightRequests(EndpointClass.POLL));
+    }
+
+    @Test
+    public void testBacksOffOnSlowRequests() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 10, 5.0, 0);
+        for (int i = 0; i < 5; i++) {
+            ConcurrencyLimiter.Permit update = limiter.acquire(EndpointClass.UPDATE, false);
+            Thread.sleep(10);
+            update.release(null);
+        }
+        assertEquals(10, limiter.getLimit(EndpointClass.UPDATE));
+
+        ConcurrencyLimiter.Permit slowUpdate = limiter.acquire(EndpointClass.UPDATE, false);
+        ConcurrencyLimiter.Permit slowPoll = limiter.acquire(EndpointClass.POLL, false);
+        Thread.sleep(200);
+        slowUpdate.release(null);
+        slowPoll.release(null);
+        assertEquals(9, limiter.getLimit(EndpointClass.UPDATE));
+        // a long poll is not slow
+        assertEquals(10, limiter.getLimit(EndpointClass.POLL));
+    }
+
+    @Test
+    public void testWaitsForASlot() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 2.0, 5000);
+        ConcurrencyLimiter.Permit first = limiter.acquire(EndpointClass.UPDATE, false);
+        CompletableFuture<ConcurrencyLimiter.Permit> second = CompletableFuture
+                .supplyAsync(() -> limiter.acquire(EndpointClass.UPDATE, true));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        first.release(null);
+        second.get(5, TimeUnit.SECONDS).release(null);
+        assertEquals(0, limiter.getInFlightRequests(EndpointClass.UPDATE));
+    }
+
+    @Test
+    public void testRejectsRequestsOverTheLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 2.0, 10);
+        ClientRequestHandler requestHandler = mock(ClientRequestHandler.class);
+        TaskClient taskClient = new TaskClient();
+        taskClient.requestHandler = requestHandler;
+        taskClient.setConcurrencyLimiter(limiter);
+        HttpTransport transport = mock(HttpTransport.class);
+        CompletableFuture<TransportResponse> pendingPoll = new CompletableFuture<>();
+        when(transport.executeAsync(any())).thenReturn(pendingPoll);
+        TaskClient asyncTaskClient = new TaskClient();
+        asyncTaskClient.setTransport(transport);
+        asyncTaskClient.setConcurrencyLimiter(limiter);
+
+        CompletableFuture<Task> poll = asyncTaskClient.pollTaskAsync("test", "worker", null);
+        assertEquals(1, limiter.getInFlightRequests(EndpointClass.POLL));
+        try {
+            taskClient.pollTask("test", "worker", null);
+            fail("the poll should have been rejected");
+        } catch (ClientException e) {
+            assertTrue(e.getMessage().contains("limit of 1 concurrent poll requests"));
+        }
+        try {
+            asyncTaskClient.pollTaskAsync("test", "worker", null).get(5, TimeUnit.SECONDS);
+            fail("the poll should have been rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+        }
+        verify(requestHandler, never()).get(any(), any());
+        verify(transport, times(1)).executeAsync(any());
+
+        pendingPoll.completeExceptionally(new ClientException(503, "Unavailable"));
+        try {
+            poll.get(5, TimeUnit.SECONDS);
+            fail("the poll should have failed");
+        } catch (ExecutionException e) {
+            assertEquals(0, limiter.getInFlightRequests(EndpointClass.POLL));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.GenericType;
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EndpointGroupTest {
+
+    private static final String ROOT_A = "http://conductor-a/api/";
+    private static final String ROOT_B = "http://conductor-b/api/";
+
+    @Test
+    public void testPrefersTheFasterEndpoint() {
+        EndpointGroup endpointGroup = new EndpointGroup(ROOT_A, ROOT_B);
+        EndpointGroup.Endpoint a = endpointGroup.getEndpoints().get(0);
+        EndpointGroup.Endpoint b = endpointGroup.getEndpoints().get(1);
+        endpointGroup.select(Collections.singletonList(b)).onSuccess(10_000_000);
+        endpointGroup.select(Collections.singletonList(a)).onSuccess(1_000_000);
+
+        for (int i = 0; i < 10; i++) {
+            EndpointGroup.Endpoint endpoint = endpointGroup.select(Collections.emptyList());
+            assertSame(b, endpoint);
+            endpoint.onSuccess(1_000_000);
+        }
+        assertEquals(0, b.getInFlightRequests());
+    }
+
+    @Test
+    public void testEjectsFailingEndpoint() {
+        EndpointGroup endpointGroup = new EndpointGroup(2, 60_000, ROOT_A, ROOT_B);
+        EndpointGroup.Endpoint a = endpointGroup.getEndpoints().get(0);
+        EndpointGroup.Endpoint b = endpointGroup.getEndpoints().get(1);
+
+        endpointGroup.select(Collections.singletonList(b)).onFailure();
+        assertFalse(a.isEjected());
+        endpointGroup.select(Collections.singletonList(b)).onFailure();
+        assertTrue(a.isEjected());
+
+        List<EndpointGroup.Endpoint> selected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            EndpointGroup.Endpoint endpoint = endpointGroup.select(Collections.emptyList());
+            selected.add(endpoint);
+            endpoint.onSuccess(1_000_000);
+        }
+        assertFalse(selected.contains(a));
+
+        // an ejected endpoint is still used when there is no other one
+        assertSame(a, endpointGroup.select(Collections.singletonList(b)));
+    }
+
+    @Test
+    public void testPollFailsOverToAnotherEndpoint() {
+        ClientRequestHandler requestHandler = mock(ClientRequestHandler.class);
+        when(requestHandler.get(argThat(uri -> uri != null && uri.toString().startsWith(ROOT_A)), any()))
+                .thenThrow(new ClientHandlerException("Connection refused"));
+        ClientResponse clientResponse = mock(ClientResponse.class);
+        when(clientResponse.getStatus()).thenReturn(200);
+        when(clientResponse.getEntity(any(GenericType.class))).thenReturn(Collections.singletonList(new Task()));
+        when(requestHandler.get(argThat(uri -> uri != null && uri.toString().startsWith(ROOT_B)), any()))
+                .thenReturn(clientResponse);
+
+        TaskClient taskClient = new TaskClient();
+        taskClient.requestHandler = requestHandler;
+        EndpointGroup endpointGroup = new EndpointGroup(1, 60_000, ROOT_A, ROOT_B);
+        taskClient.setEndpointGroup(endpointGroup);
+
+        // polls do not sample the latency, so the endpoints are picked at random until one is ejected
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, taskClient.batchPollTasksInDomain("test", null, "worker", 1, 100).size());
+        }
+        verify(requestHandler, times(20)).get(argThat(uri -> uri != null && uri.toString().startsWith(ROOT_B)), any());
+        assertTrue(endpointGroup.getEndpoints().get(0).isEjected());
+        // the latency of a long poll is not a sample of the load of the endpoint
+        assertEquals(0, endpointGroup.getEndpoints().get(1).getLatencyEwma(), 0);
+        assertEquals(0, endpointGroup.getEndpoints().get(1).getInFlightRequests());
+    }
+
+    @Test
+    public void testAsyncPollFailsOverToAnotherEndpoint() throws Exception {
+        HttpTransport transport = mock(HttpTransport.class);
+        when(transport.executeAsync(
+                argThat(request -> request != null && request.getUri().toString().startsWith(ROOT_A))))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+        when(transport.executeAsync(
+                argThat(request -> request != null && request.getUri().toString().startsWith(ROOT_B))))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new TransportResponse(200,
+                        Collections.emptyMap(), new ByteArrayInputStream("[{}]".getBytes(StandardCharsets.UTF_8)))));
+
+        TaskClient taskClient = new TaskClient();
+        taskClient.setTransport(transport);
+        EndpointGroup endpointGroup = new EndpointGroup(1, 60_000, ROOT_A, ROOT_B);
+        taskClient.setEndpointGroup(endpointGroup);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, taskClient.batchPollTasksInDomainAsync("test", null, "worker", 1, 100)
+                    .get(5, TimeUnit.SECONDS).size());
+        }
+        assertTrue(endpointGroup.getEndpoints().get(0).isEjected());
+        assertEquals(0, endpointGroup.getEndpoints().get(1).getInFlightRequests());
+    }
+
+    @Test
+    public void testStreamingPollDoesNotFailOverOnceATaskWasDelivered() throws Exception {
+        HttpTransport transport = mock(HttpTransport.class);
+        // the connection breaks after the first task
+        when(transport.execute(any())).thenAnswer(invocation -> new TransportResponse(200, Collections.emptyMap(),
+                new ByteArrayInputStream("[{\"taskId\":\"t1\"},{\"ta".getBytes(StandardCharsets.UTF_8))));
+
+        TaskClient taskClient = new TaskClient();
+        taskClient.setTransport(transport);
+        taskClient.setEndpointGroup(new EndpointGroup(ROOT_A, ROOT_B));
+
+        List<Task> tasks = new ArrayList<>();
+        try {
+            taskClient.batchPollTasksInDomain("test", null, "worker", 2, 100, tasks::add);
+            fail("the broken response should have failed the poll");
+        } catch (ClientException e) {
+            assertEquals(1, tasks.size());
+            verify(transport, times(1)).execute(any());
+        }
+    }
+
+    @Test
+    public void testUpdateDoesNotFailOver() {
+        ClientRequestHandler requestHandler = mock(ClientRequestHandler.class);
+        when(requestHandler.getWebResourceBuilder(any(URI.class), any(), any()))
+                .thenThrow(new ClientHandlerException("Connection refused"));
+
+        TaskClient taskClient = new TaskClient();
+        taskClient.requestHandler = requestHandler;
+        taskClient.setEndpointGroup(new EndpointGroup(ROOT_A, ROOT_B));
+
+        try {
+            taskClient.logMessageForTask("taskId", "message");
+            fail("the update should not have been sent again");
+        } catch (ClientException e) {
+            verify(requestHandler, times(1)).getWebResourceBuilder(any(URI.class), any(), any());
+            verify(requestHandler, never()).get(any(), any());
+        }
+    }
+}
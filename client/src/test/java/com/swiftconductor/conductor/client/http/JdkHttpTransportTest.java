@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023 Swift Software Group, Inc.
+ * (Code and content before December 13, 2023, Copyright Netflix, Inc.)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.swiftconductor.conductor.client.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.swiftconductor.conductor.client.exception.ClientException;
+import com.swiftconductor.conductor.common.metadata.tasks.Task;
+import com.swiftconductor.conductor.common.metadata.tasks.TaskResult;
+import com.swiftconductor.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.swiftconductor.conductor.common.run.Workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JdkHttpTransportTest extends AbstractHttpServerTest {
+
+    private TaskClient taskClient;
+
+    @Before
+    public void setup() {
+        taskClient = new TaskClient();
+        taskClient.setRootURI(getRootURI());
+        taskClient.setTransport(JdkHttpTransport.builder().withVersion(HttpClient.Version.HTTP_1_1).build());
+    }
+
+    @Test
+    public void testPollAndUpdate() {
+        List<Task> tasks = taskClient.batchPollTasksInDomain("test", null, "worker", 2, 100);
+        assertEquals(2, tasks.size());
+        assertEquals("t1", tasks.get(0).getTaskId());
+        assertEquals("GET /api/task/poll/batch/test application/json, text/plain ", requests.get(0));
+
+        TaskResult result = new TaskResult(tasks.get(0));
+        result.setStatus(TaskResult.Status.COMPLETED);
+        taskClient.updateTask(result);
+        assertTrue(requests.get(1).startsWith("POST /api/task application/json, text/plain {"));
+        assertTrue(requests.get(1).contains("\"status\":\"COMPLETED\""));
+
+        assertTrue(taskClient.ack("t1", "worker"));
+    }
+
+    @Test
+    public void testStreamingPoll() {
+        List<String> taskIds = new CopyOnWriteArrayList<>();
+        assertEquals(2, taskClient.batchPollTasksInDomain("test", null, "worker", 2, 100,
+                task -> taskIds.add(task.getTaskId())));
+        assertEquals(List.of("t1", "t2"), taskIds);
+
+        taskIds.clear();
+        taskClient.setTransport(null);
+        assertEquals(2, taskClient.batchPollTasksInDomain("test", null, "worker", 2, 100,
+                task -> taskIds.add(task.getTaskId())));
+        assertEquals(List.of("t1", "t2"), taskIds);
+    }
+
+    @Test
+    public void testStreamingPollSkipsNullTasks() {
+        server.createContext("/api/task/poll/batch/nulls", exchange -> respond(exchange, 200, "application/json",
+                "[{\"taskId\":\"t1\",\"taskType\":\"nulls\"},null,{\"taskId\":\"t2\",\"taskType\":\"nulls\"}]"));
+        List<String> taskIds = new CopyOnWriteArrayList<>();
+        assertEquals(2, taskClient.batchPollTasksInDomain("nulls", null, "worker", 3, 100,
+                task -> taskIds.add(task.getTaskId())));
+        assertEquals(List.of("t1", "t2"), taskIds);
+    }
+
+    @Test
+    public void testStreamingPollOfMalformedArray() {
+        server.createContext("/api/task/poll/batch/number", exchange -> respond(exchange, 200, "application/json",
+                "[{\"taskId\":\"t1\",\"taskType\":\"number\"},42]"));
+        server.createContext("/api/task/poll/batch/truncated", exchange -> respond(exchange, 200,
+                "application/json", "[{\"taskId\":\"t1\",\"taskType\":\"truncated\"}"));
+        for (String taskType : List.of("number", "truncated")) {
+            List<String> taskIds = new CopyOnWriteArrayList<>();
+            try {
+                taskClient.batchPollTasksInDomain(taskType, null, "worker", 2, 100,
+                        task -> taskIds.add(task.getTaskId()));
+                fail("Expected a ClientException");
+            } catch (ClientException e) {
+                assertEquals(0, e.getStatus());
+            }
+            assertEquals(List.of("t1"), taskIds);
+        }
+    }
+
+    @Test
+    public void testStreamingPollOfInvalidResponse() {
+        try {
+            // answered by the task update context with a plain text body
+            taskClient.batchPollTasksInDomain("other", null, "worker", 2, 100, task -> fail("Unexpected task"));
+            fail("Expected a ClientException");
+        } catch (ClientException e) {
+            assertEquals(0, e.getStatus());
+        }
+    }
+
+    @Test
+    public void testJerseyTransport() {
+        taskClient.setTransport(taskClient.requestHandler);
+        testPollAndUpdate();
+        testErrorResponse();
+    }
+
+    @Test
+    public void testErrorResponse() {
+        try {
+            taskClient.getTaskDetails("missing");
+            fail("Expected a ClientException");
+        } catch (ClientException e) {
+            assertEquals(404, e.getStatus());
+            assertEquals("Task not found", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnreachableServer() {
+        server.stop(0);
+        try {
+            taskClient.getTaskDetails("t1");
+            fail("Expected a ClientException");
+        } catch (ClientException e) {
+            assertEquals(0, e.getStatus());
+        }
+    }
+
+    @Test
+    public void testAsyncClients() throws Exception {
+        List<Task> tasks = taskClient.batchPollTasksInDomainAsync("test", null, "worker", 2, 100).get(5,
+                TimeUnit.SECONDS);
+        assertEquals(2, tasks.size());
+
+        TaskResult result = new TaskResult(tasks.get(0));
+        result.setStatus(TaskResult.Status.COMPLETED);
+        taskClient.updateTaskAsync(result).get(5, TimeUnit.SECONDS);
+        assertTrue(requests.get(1).contains("\"status\":\"COMPLETED\""));
+
+        WorkflowClient workflowClient = new WorkflowClient();
+        workflowClient.setRootURI(getRootURI());
+        workflowClient.setTransport(new JdkHttpTransport());
+        StartWorkflowRequest request = new StartWorkflowRequest();
+        request.setName("test");
+        request.setInput(Collections.singletonMap("key", "value"));
+        assertEquals("wf-1", workflowClient.startWorkflowAsync(request).get(5, TimeUnit.SECONDS));
+        Workflow workflow = workflowClient.getWorkflowAsync("wf-1", false).get(5, TimeUnit.SECONDS);
+        assertEquals(Workflow.WorkflowStatus.RUNNING, workflow.getStatus());
+    }
+
+    @Test
+    public void testAsyncErrorResponse() throws Exception {
+        try {
+            taskClient.getTaskDetailsAsync("missing").get(5, TimeUnit.SECONDS);
+            fail("Expected a ClientException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+            assertEquals(404, ((ClientException) e.getCause()).getStatus());
+        }
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/api/task/t1/ack");
+        TransportRequest request = new TransportRequest("POST", uri, Collections.emptyMap(), null);
+        try (TransportResponse response = new JdkHttpTransport().executeAsync(request).get(5, TimeUnit.SECONDS)) {
+            assertEquals(200, response.getStatus());
+            assertEquals("text/plain", response.getHeader("content-type"));
+            assertEquals("true", new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
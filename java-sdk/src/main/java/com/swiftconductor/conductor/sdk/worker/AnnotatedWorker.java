@@ -17,7 +17,6 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.swiftconductor.conductor.client.worker.AbstractWorker;
 import com.swiftconductor.conductor.common.metadata.tasks.Task;
@@ -35,7 +34,7 @@ public class AnnotatedWorker implements AbstractWorker {
 
     private Object obj;
 
-    private ObjectMapper om = new ObjectMapperProvider().getObjectMapper();
+    private final ObjectMapper om = ObjectMapperProvider.getSharedObjectMapper();
 
     private int pollingInterval = 100;
 
@@ -46,7 +45,6 @@ public class AnnotatedWorker implements AbstractWorker {
         this.name = name;
         this.workerMethod = workerMethod;
         this.obj = obj;
-        om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
     @Override
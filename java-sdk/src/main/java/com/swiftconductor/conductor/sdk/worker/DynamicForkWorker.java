@@ -34,7 +34,7 @@ public class DynamicForkWorker implements AbstractWorker {
 
     private final String name;
 
-    private ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+    private ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
     public DynamicForkWorker(String name, Function<Object, DynamicForkInput> workerMethod, int pollingInterval) {
         this.name = name;
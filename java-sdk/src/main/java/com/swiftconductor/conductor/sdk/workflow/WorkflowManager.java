@@ -49,7 +49,7 @@ public class WorkflowManager {
 
     private Map<String, CompletableFuture<Workflow>> runningWorkflowFutures = new ConcurrentHashMap<>();
 
-    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+    private final ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
     private final TaskClient taskClient;
 
@@ -55,7 +55,7 @@ public class WorkflowBuilder<T> {
 
     public final InputOutputGetter input = new InputOutputGetter("workflow", InputOutputGetter.Field.input);
 
-    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+    private final ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
     public WorkflowBuilder() {
         this.tasks = new ArrayList<>();
@@ -58,7 +58,7 @@ public class WorkflowWithInput<T> {
 
     private List<Task> tasks = new ArrayList<>();
 
-    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+    private final ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
     public WorkflowWithInput() {
         this.workflowOutput = new HashMap<>();
@@ -30,7 +30,7 @@ public class Http extends Task<Http> {
 
     private static final String INPUT_PARAM = "http_request";
 
-    private ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+    private ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
     private Input httpRequest;
 
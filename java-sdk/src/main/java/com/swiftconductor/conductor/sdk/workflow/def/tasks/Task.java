@@ -40,7 +40,7 @@ public abstract class Task<T> {
 
     private Map<String, Object> input = new HashMap<>();
 
-    protected final ObjectMapper om = new ObjectMapperProvider().getObjectMapper();
+    protected final ObjectMapper om = ObjectMapperProvider.getSharedObjectMapper();
 
     public final InputOutputGetter taskInput;
 
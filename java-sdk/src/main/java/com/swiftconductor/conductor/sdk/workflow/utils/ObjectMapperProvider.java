@@ -21,6 +21,17 @@ import com.swiftconductor.conductor.common.jackson.JsonProtoModule;
 
 public class ObjectMapperProvider {
 
+    private static final ObjectMapper SHARED_OBJECT_MAPPER = new ObjectMapperProvider().getObjectMapper();
+
+    /**
+     * @return the mapper shared by the SDK, which keeps the serializers it built
+     *         for the next calls. It must not be reconfigured, create a mapper
+     *         with {@link #getObjectMapper()} instead.
+     */
+    public static ObjectMapper getSharedObjectMapper() {
+        return SHARED_OBJECT_MAPPER;
+    }
+
     public ObjectMapper getObjectMapper() {
         final ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);